@@ -0,0 +1,31 @@
+package com.cosmos.origin.admin.model.vo.session;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 在线会话分页结果 VO（游标分页）
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OnlineSessionPageVO {
+
+    /**
+     * 本页会话
+     */
+    private List<UserSessionVO> sessions;
+
+    /**
+     * 下一页游标，为 null 表示已无更多数据
+     */
+    private String nextCursor;
+}
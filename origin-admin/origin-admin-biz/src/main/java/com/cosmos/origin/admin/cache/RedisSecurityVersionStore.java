@@ -0,0 +1,102 @@
+package com.cosmos.origin.admin.cache;
+
+import com.cosmos.origin.jwt.store.SecurityVersionStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 基于 Redis 的用户安全版本号存储
+ * <p>
+ * 版本号持久化在 Redis Hash（user:security:version）中，各节点在本地维护一份完整镜像：
+ * - 启动时 HGETALL 全量加载
+ * - 递增时 HINCRBY 后通过 Pub/Sub 广播 "用户名:版本号"，各节点更新镜像
+ * <p>
+ * 认证链路只读本地镜像，没有网络开销。只有发生过变更的用户才会出现在 Hash 中，体量很小。
+ * 开启 jwt.self-contained-authorities.enabled 时生效。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jwt.self-contained-authorities", name = "enabled", havingValue = "true")
+public class RedisSecurityVersionStore implements SecurityVersionStore, MessageListener, InitializingBean {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    // Redis key 和频道
+    private static final String SECURITY_VERSION_KEY = "user:security:version";
+    private static final String VERSION_CHANNEL = "user:security:version:changed";
+
+    /**
+     * 本地镜像
+     */
+    private final ConcurrentMap<String, Long> versions = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterPropertiesSet() {
+        // 先订阅再加载，避免加载期间的变更丢失（merge 取最大值，顺序无关）
+        listenerContainer.addMessageListener(this, new ChannelTopic(VERSION_CHANNEL));
+        try {
+            Map<Object, Object> entries = redisTemplate.opsForHash().entries(SECURITY_VERSION_KEY);
+            entries.forEach((username, version) -> update(username.toString(), Long.parseLong(version.toString())));
+            log.info("已加载 {} 个用户的安全版本号", entries.size());
+        } catch (Exception e) {
+            log.error("加载用户安全版本号失败", e);
+        }
+    }
+
+    @Override
+    public long getVersion(String username) {
+        return versions.getOrDefault(username, 0L);
+    }
+
+    @Override
+    public long increment(String username) {
+        Long version = redisTemplate.opsForHash().increment(SECURITY_VERSION_KEY, username, 1);
+        update(username, version);
+        redisTemplate.convertAndSend(VERSION_CHANNEL, username + ":" + version);
+        log.info("用户 [{}] 的安全版本号已递增为 {}", username, version);
+        return version;
+    }
+
+    /**
+     * 接收其他节点的版本号变更广播
+     */
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int index = body.lastIndexOf(':');
+        if (index <= 0) {
+            return;
+        }
+        try {
+            update(body.substring(0, index), Long.parseLong(body.substring(index + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("无效的安全版本号消息: {}", body);
+        }
+    }
+
+    /**
+     * 更新本地镜像（只增不减，消息乱序时保持最大值）
+     */
+    private void update(String username, long version) {
+        versions.merge(username, version, Math::max);
+    }
+}
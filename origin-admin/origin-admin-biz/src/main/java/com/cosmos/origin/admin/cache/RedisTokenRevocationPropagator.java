@@ -0,0 +1,104 @@
+package com.cosmos.origin.admin.cache;
+
+import com.cosmos.origin.jwt.store.TokenRevocationList;
+import com.cosmos.origin.jwt.store.TokenRevocationPropagator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于 Redis 的 Token 吊销传播器
+ * <p>
+ * - 吊销记录持久化在 ZSET（token:revoked）中，score 为 Token 过期时间戳，节点启动时加载仍在保留期内的记录
+ * （过期后再保留 {@link TokenRevocationList#RETENTION_AFTER_EXPIRE_MILLIS}，覆盖解析时容忍的时钟误差）
+ * - 吊销时通过 Pub/Sub 广播 "jti:过期时间戳"，各节点写入本地吊销列表
+ * <p>
+ * Redis 只参与吊销的写入和同步，认证链路只读本地吊销列表。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisTokenRevocationPropagator implements TokenRevocationPropagator, MessageListener, InitializingBean {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final TokenRevocationList tokenRevocationList;
+
+    // Redis key 和频道
+    private static final String TOKEN_REVOKED_KEY = "token:revoked";
+    private static final String TOKEN_REVOKED_CHANNEL = "token:revoked:notify";
+
+    @Override
+    public void afterPropertiesSet() {
+        // 先订阅再加载，避免加载期间的吊销丢失（重复写入是幂等的）
+        listenerContainer.addMessageListener(this, new ChannelTopic(TOKEN_REVOKED_CHANNEL));
+        try {
+            long threshold = System.currentTimeMillis() - TokenRevocationList.RETENTION_AFTER_EXPIRE_MILLIS;
+            Set<ZSetOperations.TypedTuple<String>> tuples = redisTemplate.opsForZSet()
+                    .rangeByScoreWithScores(TOKEN_REVOKED_KEY, threshold, Double.MAX_VALUE);
+            if (tuples != null) {
+                tuples.forEach(tuple -> tokenRevocationList.revokeLocally(tuple.getValue(), tuple.getScore().longValue()));
+            }
+            log.info("已加载 {} 条 Token 吊销记录", tokenRevocationList.size());
+        } catch (Exception e) {
+            log.error("加载 Token 吊销记录失败", e);
+        }
+    }
+
+    @Override
+    public void publish(String jti, long expireAtMillis) {
+        publishAll(Map.of(jti, expireAtMillis));
+    }
+
+    /**
+     * 写入吊销记录并广播，所有命令在一次往返内以管道方式发送
+     */
+    @Override
+    public void publishAll(Map<String, Long> revocations) {
+        byte[] key = TOKEN_REVOKED_KEY.getBytes(StandardCharsets.UTF_8);
+        byte[] channel = TOKEN_REVOKED_CHANNEL.getBytes(StandardCharsets.UTF_8);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            revocations.forEach((jti, expireAtMillis) -> {
+                connection.zSetCommands().zAdd(key, expireAtMillis, jti.getBytes(StandardCharsets.UTF_8));
+                connection.publish(channel, (jti + ":" + expireAtMillis).getBytes(StandardCharsets.UTF_8));
+            });
+            // 顺带清理已过保留期的记录，ZSET 体量只与有效期内的吊销数量有关
+            connection.zSetCommands().zRemRangeByScore(key, 0,
+                    System.currentTimeMillis() - TokenRevocationList.RETENTION_AFTER_EXPIRE_MILLIS);
+            return null;
+        });
+    }
+
+    /**
+     * 接收其他节点的吊销广播（本节点发出的消息也会收到，写入是幂等的）
+     */
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int index = body.lastIndexOf(':');
+        if (index <= 0) {
+            return;
+        }
+        try {
+            tokenRevocationList.revokeLocally(body.substring(0, index), Long.parseLong(body.substring(index + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("无效的 Token 吊销消息: {}", body);
+        }
+    }
+}
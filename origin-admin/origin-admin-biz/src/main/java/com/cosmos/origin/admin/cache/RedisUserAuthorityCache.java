@@ -0,0 +1,217 @@
+package com.cosmos.origin.admin.cache;
+
+import com.cosmos.origin.jwt.cache.LocalUserAuthorityCache;
+import com.cosmos.origin.jwt.cache.UserAuthorityCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 基于 Redis 的二级用户权限缓存
+ * <p>
+ * L1：本地内存缓存（短 TTL），命中时无任何网络开销
+ * L2：Redis String（user:authorities:{用户名}），多节点共享，冷启动时避免打到数据库；
+ * value 为 4 位账号状态标记（启用、未锁定、未过期、凭证未过期，1/0）+ | + 逗号分隔的角色标识，如 1111|ROLE_ADMIN，
+ * 命中 L2 时恢复完整的账号状态，后续对 isEnabled()、isAccountNonLocked() 等的检查与回源结果一致；
+ * 每个用户单独一个 key 和过期时间，即使因读写竞争写入了过期数据，也最多存活 redisExpireMinutes 分钟
+ * <p>
+ * 失效时删除 L2 并通过 Pub/Sub 广播，所有节点同步清理 L1。
+ * 配置 jwt.authority-cache.type=redis 时生效，替换 JWT 模块默认的本地实现。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jwt.authority-cache", name = "type", havingValue = "redis")
+public class RedisUserAuthorityCache implements UserAuthorityCache, MessageListener, InitializingBean {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    // Redis key 和频道
+    private static final String USER_AUTHORITIES_KEY_PREFIX = "user:authorities:";
+    private static final String INVALIDATE_CHANNEL = "user:authorities:invalidate";
+    private static final String EVICT_ALL_MESSAGE = "*";
+    private static final int SCAN_BATCH_SIZE = 500;
+    private static final int FLAG_COUNT = 4;
+    private static final char FLAGS_SEPARATOR = '|';
+
+    @Value("${jwt.authority-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${jwt.authority-cache.expire-seconds:60}")
+    private long expireSeconds;
+
+    @Value("${jwt.authority-cache.redis-expire-minutes:30}")
+    private long redisExpireMinutes;
+
+    private LocalUserAuthorityCache localCache;
+
+    @Override
+    public void afterPropertiesSet() {
+        localCache = new LocalUserAuthorityCache(maximumSize, expireSeconds);
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATE_CHANNEL));
+        log.info("用户权限缓存使用 Redis 二级缓存，L1 过期时间 {} 秒，L2 过期时间 {} 分钟", expireSeconds, redisExpireMinutes);
+    }
+
+    @Override
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        // 1. L1 本地缓存
+        UserDetails cached = localCache.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+
+        // 2. L2 Redis 缓存
+        UserDetails userDetails = decode(username, readFromRedis(username));
+        if (userDetails != null) {
+            localCache.put(username, userDetails);
+            return userDetails;
+        }
+
+        // 3. 回源加载，并回填两级缓存
+        UserDetails loaded = UserAuthorityCache.withoutPassword(loader.apply(username));
+        localCache.put(username, loaded);
+        writeToRedis(username, loaded);
+        return loaded;
+    }
+
+    @Override
+    public void evict(String username) {
+        localCache.evict(username);
+        try {
+            redisTemplate.delete(USER_AUTHORITIES_KEY_PREFIX + username);
+            redisTemplate.convertAndSend(INVALIDATE_CHANNEL, username);
+        } catch (Exception e) {
+            log.error("广播用户 [{}] 权限缓存失效失败", username, e);
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        localCache.evictAll();
+        try {
+            deleteAllFromRedis();
+            redisTemplate.convertAndSend(INVALIDATE_CHANNEL, EVICT_ALL_MESSAGE);
+        } catch (Exception e) {
+            log.error("广播全部权限缓存失效失败", e);
+        }
+    }
+
+    /**
+     * 接收其他节点的失效广播，清理本地 L1 缓存
+     */
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (EVICT_ALL_MESSAGE.equals(body)) {
+            localCache.evictAll();
+        } else {
+            localCache.evict(body);
+        }
+    }
+
+    /**
+     * 解析 L2 缓存值，格式不符（如旧版本只存角色的值）时返回 null，按未命中回源
+     */
+    private static UserDetails decode(String username, String value) {
+        if (value == null || value.length() <= FLAG_COUNT || value.charAt(FLAG_COUNT) != FLAGS_SEPARATOR) {
+            return null;
+        }
+        String roles = value.substring(FLAG_COUNT + 1);
+        return User.withUsername(username)
+                .password("")
+                .authorities(roles.isEmpty() ? new String[0] : roles.split(","))
+                .disabled(value.charAt(0) != '1')
+                .accountLocked(value.charAt(1) != '1')
+                .accountExpired(value.charAt(2) != '1')
+                .credentialsExpired(value.charAt(3) != '1')
+                .build();
+    }
+
+    /**
+     * 编码 L2 缓存值：账号状态标记 + | + 角色
+     */
+    private static String encode(UserDetails userDetails) {
+        return new StringBuilder()
+                .append(userDetails.isEnabled() ? '1' : '0')
+                .append(userDetails.isAccountNonLocked() ? '1' : '0')
+                .append(userDetails.isAccountNonExpired() ? '1' : '0')
+                .append(userDetails.isCredentialsNonExpired() ? '1' : '0')
+                .append(FLAGS_SEPARATOR)
+                .append(userDetails.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .collect(Collectors.joining(",")))
+                .toString();
+    }
+
+    /**
+     * 从 Redis 读取缓存值，Redis 异常时降级为回源加载
+     */
+    private String readFromRedis(String username) {
+        try {
+            return redisTemplate.opsForValue().get(USER_AUTHORITIES_KEY_PREFIX + username);
+        } catch (Exception e) {
+            log.warn("读取用户 [{}] 的 Redis 权限缓存失败: {}", username, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 写入 Redis（SET key value EX ttl，过期时间只属于该用户）
+     */
+    private void writeToRedis(String username, UserDetails userDetails) {
+        try {
+            redisTemplate.opsForValue().set(USER_AUTHORITIES_KEY_PREFIX + username, encode(userDetails),
+                    redisExpireMinutes, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            log.warn("写入用户 [{}] 的 Redis 权限缓存失败: {}", username, e.getMessage());
+        }
+    }
+
+    /**
+     * SCAN 删除所有用户的 L2 缓存（失效频道名不是 key，不会被匹配删除）
+     */
+    private void deleteAllFromRedis() {
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(USER_AUTHORITIES_KEY_PREFIX + "*")
+                .count(SCAN_BATCH_SIZE)
+                .build();
+        List<String> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= SCAN_BATCH_SIZE) {
+                    redisTemplate.delete(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            redisTemplate.delete(batch);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.cosmos.origin.admin.cache;
+
+import com.cosmos.origin.admin.model.vo.session.UserSessionVO;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 会话近端缓存（Token -> 会话）
+ * <p>
+ * 按 Token 查询会话时优先读本地缓存，命中时无网络开销和反序列化开销：
+ * - 容量有上限，写入后最多存活 expireSeconds 秒，刷新过期时间等不影响身份的变更最多延迟这么久可见
+ * - 退出登录、强制下线、Token 轮换、会话补全时立即清除本地缓存，并通过 Pub/Sub 广播给其他节点
+ * - 清除时为 Token 留下短期墓碑，防止清除前发起的 Redis 读取把旧会话写回缓存
+ * <p>
+ * 缓存的会话对象为共享实例，调用方不应修改。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionNearCache implements MessageListener, InitializingBean {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private static final String INVALIDATE_CHANNEL = "user:session:invalidate";
+
+    /**
+     * 墓碑存活时间（秒），需覆盖一次 Redis 读取的最长耗时
+     */
+    private static final long TOMBSTONE_SECONDS = 10;
+
+    /**
+     * 是否启用近端缓存
+     */
+    @Value("${login.session.near-cache.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 最大缓存条数
+     */
+    @Value("${login.session.near-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    /**
+     * 缓存项写入后的最长存活时间（秒）
+     */
+    @Value("${login.session.near-cache.expire-seconds:30}")
+    private long expireSeconds;
+
+    private Cache<String, UserSessionVO> cache;
+
+    private Cache<String, Boolean> tombstones;
+
+    @Override
+    public void afterPropertiesSet() {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        tombstones = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(TOMBSTONE_SECONDS, TimeUnit.SECONDS)
+                .build();
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATE_CHANNEL));
+        log.info("会话近端缓存初始化完成: enabled={}, maximumSize={}, expireSeconds={}", enabled, maximumSize, expireSeconds);
+    }
+
+    /**
+     * 获取缓存的会话
+     *
+     * @param token Token
+     * @return 会话，未命中时返回 null
+     */
+    public UserSessionVO get(String token) {
+        return enabled ? cache.getIfPresent(token) : null;
+    }
+
+    /**
+     * 缓存从 Redis 读取的会话（Token 刚被清除过时不缓存）
+     *
+     * @param token   Token
+     * @param session 会话
+     */
+    public void put(String token, UserSessionVO session) {
+        if (enabled && session != null && tombstones.getIfPresent(token) == null) {
+            cache.put(token, session);
+        }
+    }
+
+    /**
+     * 清除指定 Token 的缓存，并广播给其他节点
+     *
+     * @param tokens Token 列表
+     */
+    public void invalidate(Collection<String> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        invalidateLocally(tokens);
+        try {
+            redisTemplate.convertAndSend(INVALIDATE_CHANNEL, String.join(",", tokens));
+        } catch (Exception e) {
+            log.error("广播会话缓存失效消息失败", e);
+        }
+    }
+
+    /**
+     * 命中率
+     */
+    public double getHitRate() {
+        return cache.stats().hitRate();
+    }
+
+    /**
+     * 当前缓存条数
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * 接收失效广播（本节点发出的消息也会收到，清除是幂等的）
+     */
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (!body.isEmpty()) {
+            invalidateLocally(Arrays.asList(body.split(",")));
+        }
+    }
+
+    private void invalidateLocally(Collection<String> tokens) {
+        for (String token : tokens) {
+            tombstones.put(token, Boolean.TRUE);
+        }
+        cache.invalidateAll(tokens);
+    }
+}
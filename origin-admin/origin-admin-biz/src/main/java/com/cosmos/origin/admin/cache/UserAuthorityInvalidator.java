@@ -0,0 +1,73 @@
+package com.cosmos.origin.admin.cache;
+
+import com.cosmos.origin.admin.domain.dos.UserDO;
+import com.cosmos.origin.admin.domain.dos.UserRoleRelDO;
+import com.cosmos.origin.admin.domain.mapper.UserMapper;
+import com.cosmos.origin.admin.domain.mapper.UserRoleMapper;
+import com.cosmos.origin.jwt.cache.UserAuthorityCache;
+import com.cosmos.origin.jwt.store.SecurityVersionStore;
+import com.mybatisflex.core.query.QueryWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import java.util.List;
+
+/**
+ * 用户权限失效处理
+ * <p>
+ * 用户、角色变更后统一调用，同时处理两种认证模式：
+ * - 使权限缓存失效（查库模式）
+ * - 递增安全版本号，使已签发的自包含权限 Token 和刷新 Token 失效
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserAuthorityInvalidator {
+
+    private final UserAuthorityCache userAuthorityCache;
+    private final SecurityVersionStore securityVersionStore;
+    private final UserMapper userMapper;
+    private final UserRoleMapper userRoleMapper;
+
+    /**
+     * 用户信息（角色、密码、状态等）变更
+     *
+     * @param username 用户名
+     */
+    public void invalidateUser(String username) {
+        userAuthorityCache.evict(username);
+        try {
+            securityVersionStore.increment(username);
+        } catch (Exception e) {
+            log.error("递增用户 [{}] 的安全版本号失败", username, e);
+        }
+    }
+
+    /**
+     * 角色变更，影响所有关联该角色的用户
+     *
+     * @param roleId 角色 ID
+     */
+    public void invalidateRole(Long roleId) {
+        userAuthorityCache.evictAll();
+
+        List<UserRoleRelDO> rels = userRoleMapper.selectListByQuery(QueryWrapper.create()
+                .eq(UserRoleRelDO::getRoleId, roleId));
+        if (CollectionUtils.isEmpty(rels)) {
+            return;
+        }
+        List<UserDO> users = userMapper.selectListByIds(rels.stream().map(UserRoleRelDO::getUserId).toList());
+        for (UserDO user : users) {
+            try {
+                securityVersionStore.increment(user.getUsername());
+            } catch (Exception e) {
+                log.error("递增用户 [{}] 的安全版本号失败", user.getUsername(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.cosmos.origin.admin.cache;
+
+import com.cosmos.origin.admin.domain.dos.UserDO;
+import com.cosmos.origin.admin.domain.mapper.UserMapper;
+import com.cosmos.origin.common.enums.DeletedEnum;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.mybatisflex.core.query.QueryWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 用户名布隆过滤器
+ * <p>
+ * 登录前判断用户名是否可能存在，确定不存在的用户名无需查库，避免随机用户名枚举攻击把压力转嫁到数据库：
+ * - 启动后在后台线程按主键分页遍历 t_user 构建，构建完成前一律视为可能存在
+ * - 新增用户、修改用户名时加入本地过滤器，同时写入 Redis ZSET（user:username:added，score 为写入时间）并通过 Pub/Sub 广播给其他节点
+ * - Pub/Sub 不保证送达，重建时和重新订阅（断线重连）后都会回放 ZSET，漏收的广播最晚在重连后补上；
+ *   绕过 {@link #add(String)} 直接写库的用户名可自行 ZADD 到该 ZSET 并向频道发布消息，否则要等下次重建
+ * - 布隆过滤器不支持删除，已删除的用户名在下次定时重建前仍视为可能存在（回退为查库，不影响正确性）
+ * <p>
+ * 重建期间新增的用户名会同时写入新旧两个过滤器，切换时不会漏掉。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UsernameBloomFilter implements MessageListener, SubscriptionListener, InitializingBean, DisposableBean {
+
+    private static final String ADD_CHANNEL = "user:username:add";
+    private static final String ADDED_KEY = "user:username:added";
+
+    /**
+     * 构建时每页读取的用户数
+     */
+    private static final int PAGE_SIZE = 1000;
+
+    private final UserMapper userMapper;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    /**
+     * 是否启用用户名布隆过滤器
+     */
+    @Value("${login.username-filter.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 预期用户数（实际用户数更多时按实际数量的 2 倍构建）
+     */
+    @Value("${login.username-filter.expected-insertions:100000}")
+    private int expectedInsertions;
+
+    /**
+     * 误判率
+     */
+    @Value("${login.username-filter.fpp:0.001}")
+    private double fpp;
+
+    /**
+     * 定时重建间隔（分钟），用于清除已删除的用户名
+     */
+    @Value("${login.username-filter.rebuild-interval-minutes:60}")
+    private long rebuildIntervalMinutes;
+
+    /**
+     * 布隆过滤器（重建时整体替换，读取无锁），为 null 表示尚未构建完成
+     */
+    private volatile BloomFilter<CharSequence> bloomFilter;
+
+    /**
+     * 重建期间新增的用户名
+     */
+    private Set<String> addedDuringRebuild;
+
+    private ScheduledExecutorService executor;
+
+    private final LongAdder rejected = new LongAdder();
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            log.info("用户名布隆过滤器未启用");
+            return;
+        }
+        listenerContainer.addMessageListener(this, new ChannelTopic(ADD_CHANNEL));
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "username-bloom-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::rebuild, 0, rebuildIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 判断用户名是否可能存在
+     *
+     * @param username 用户名
+     * @return false 表示一定不存在；未启用或尚未构建完成时返回 true
+     */
+    public boolean mightExist(String username) {
+        BloomFilter<CharSequence> filter = bloomFilter;
+        if (filter == null || filter.mightContain(username)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * 新增用户名，持久化到 Redis 并广播给其他节点
+     *
+     * @param username 用户名
+     */
+    public void add(String username) {
+        if (!enabled || username == null) {
+            return;
+        }
+        addLocally(username);
+        try {
+            redisTemplate.opsForZSet().add(ADDED_KEY, username, System.currentTimeMillis());
+            redisTemplate.convertAndSend(ADD_CHANNEL, username);
+        } catch (Exception e) {
+            log.error("广播新增用户名失败: {}", username, e);
+        }
+    }
+
+    /**
+     * 被判定为一定不存在的用户名次数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        addLocally(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 订阅成功（包括断线重连后重新订阅）时回放新增记录，补上断线期间漏收的广播
+     */
+    @Override
+    public void onChannelSubscribed(@NonNull byte[] channel, long count) {
+        if (executor != null && bloomFilter != null) {
+            executor.execute(() -> {
+                try {
+                    loadAdded().forEach(this::addLocally);
+                } catch (Exception e) {
+                    log.error("回放新增用户名失败", e);
+                }
+            });
+        }
+    }
+
+    private synchronized void addLocally(String username) {
+        if (bloomFilter != null) {
+            bloomFilter.put(username);
+        }
+        if (addedDuringRebuild != null) {
+            addedDuringRebuild.add(username);
+        }
+    }
+
+    private void rebuild() {
+        try {
+            synchronized (this) {
+                addedDuringRebuild = new HashSet<>();
+            }
+            long startMillis = System.currentTimeMillis();
+            long start = System.nanoTime();
+            long count = userMapper.selectCountByQuery(QueryWrapper.create()
+                    .eq(UserDO::getIsDeleted, DeletedEnum.NO.getValue()));
+            BloomFilter<CharSequence> rebuilt = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+                    Math.max(expectedInsertions, count * 2), fpp);
+
+            // 按主键分页遍历，每页只查询 id 和用户名
+            long lastId = 0;
+            long loaded = 0;
+            while (true) {
+                List<UserDO> users = userMapper.selectListByQuery(QueryWrapper.create()
+                        .select(UserDO::getId, UserDO::getUsername)
+                        .gt(UserDO::getId, lastId)
+                        .eq(UserDO::getIsDeleted, DeletedEnum.NO.getValue())
+                        .orderBy(UserDO::getId, true)
+                        .limit(PAGE_SIZE));
+                for (UserDO user : users) {
+                    rebuilt.put(user.getUsername());
+                }
+                loaded += users.size();
+                if (users.size() < PAGE_SIZE) {
+                    break;
+                }
+                lastId = users.get(users.size() - 1).getId();
+            }
+
+            // 回放持久化的新增记录，覆盖广播丢失以及与分页遍历并发提交的新增
+            loadAdded().forEach(rebuilt::put);
+
+            synchronized (this) {
+                addedDuringRebuild.forEach(rebuilt::put);
+                addedDuringRebuild = null;
+                bloomFilter = rebuilt;
+            }
+            log.info("用户名布隆过滤器构建完成，共 {} 个用户名，耗时 {} ms",
+                    loaded, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+            // 早于本次重建一个重建周期以上的记录已确定落库，由数据库遍历覆盖，清理掉以控制 ZSET 体量
+            redisTemplate.opsForZSet().removeRangeByScore(ADDED_KEY, 0,
+                    startMillis - TimeUnit.MINUTES.toMillis(rebuildIntervalMinutes));
+        } catch (Exception e) {
+            synchronized (this) {
+                addedDuringRebuild = null;
+            }
+            log.error("用户名布隆过滤器构建失败，保留原过滤器", e);
+        }
+    }
+
+    private Set<String> loadAdded() {
+        Set<String> added = redisTemplate.opsForZSet().range(ADDED_KEY, 0, -1);
+        return added != null ? added : Set.of();
+    }
+}
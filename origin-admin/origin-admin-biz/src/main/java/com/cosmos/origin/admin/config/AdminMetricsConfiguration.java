@@ -0,0 +1,92 @@
+package com.cosmos.origin.admin.config;
+
+import com.cosmos.origin.admin.cache.SessionNearCache;
+import com.cosmos.origin.admin.cache.UsernameBloomFilter;
+import com.cosmos.origin.admin.event.LoginEventPipeline;
+import com.cosmos.origin.admin.event.LoginLogWriter;
+import com.cosmos.origin.admin.session.SessionJanitor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 管理后台监控指标配置
+ * <p>
+ * 仅在引入 Micrometer 时生效，应用注册了 MeterRegistry（如引入 Actuator）后指标自动绑定
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Configuration
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+public class AdminMetricsConfiguration {
+
+    /**
+     * 登录事件管道与登录日志写入器指标
+     */
+    @Bean
+    public MeterBinder loginLogMetrics(LoginEventPipeline pipeline, LoginLogWriter writer) {
+        return registry -> {
+            Gauge.builder("origin.login.event.queue", pipeline, LoginEventPipeline::getQueueSize)
+                    .description("登录事件管道排队数")
+                    .register(registry);
+            FunctionCounter.builder("origin.login.event.dropped", pipeline, LoginEventPipeline::getDroppedCount)
+                    .description("登录事件管道丢弃数")
+                    .register(registry);
+            Gauge.builder("origin.login.log.queue", writer, LoginLogWriter::getQueueSize)
+                    .description("待写入的登录日志数")
+                    .register(registry);
+            FunctionCounter.builder("origin.login.log.written", writer, LoginLogWriter::getWrittenCount)
+                    .description("已写入的登录日志数")
+                    .register(registry);
+            FunctionCounter.builder("origin.login.log.failed", writer, LoginLogWriter::getFailedCount)
+                    .description("写入失败的登录日志数")
+                    .register(registry);
+            FunctionCounter.builder("origin.login.log.dropped", writer, LoginLogWriter::getDroppedCount)
+                    .description("队列满被丢弃的登录日志数")
+                    .register(registry);
+            FunctionCounter.builder("origin.login.log.sampled-out", writer, LoginLogWriter::getSampledOutCount)
+                    .description("被采样掉的登录日志数")
+                    .register(registry);
+            FunctionTimer.builder("origin.login.log.flush", writer,
+                            LoginLogWriter::getFlushCount, LoginLogWriter::getFlushNanos, TimeUnit.NANOSECONDS)
+                    .description("登录日志刷盘耗时")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * 会话近端缓存与会话清理器指标
+     */
+    @Bean
+    public MeterBinder sessionNearCacheMetrics(SessionNearCache nearCache, SessionJanitor janitor) {
+        return registry -> {
+            Gauge.builder("origin.session.near-cache.size", nearCache, SessionNearCache::size)
+                    .description("会话近端缓存条数")
+                    .register(registry);
+            Gauge.builder("origin.session.near-cache.hit-rate", nearCache, SessionNearCache::getHitRate)
+                    .description("会话近端缓存命中率")
+                    .register(registry);
+            FunctionCounter.builder("origin.session.janitor.removed", janitor, SessionJanitor::getRemovedCount)
+                    .description("会话清理器移除的过期 token 数")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * 用户名布隆过滤器指标
+     */
+    @Bean
+    public MeterBinder usernameBloomFilterMetrics(UsernameBloomFilter usernameBloomFilter) {
+        return registry -> FunctionCounter.builder("origin.login.username-filter.rejected", usernameBloomFilter,
+                        UsernameBloomFilter::getRejectedCount)
+                .description("被判定为一定不存在的登录用户名次数")
+                .register(registry);
+    }
+}
@@ -0,0 +1,48 @@
+package com.cosmos.origin.admin.event;
+
+import com.cosmos.origin.admin.enums.LoginStatusEnum;
+import com.cosmos.origin.common.utils.RequestUtil;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.LocalDateTime;
+
+/**
+ * 登录事件（不可变）
+ * <p>
+ * 在请求线程上只采集原始数据（IP、User-Agent 字符串），
+ * 归属地解析、User-Agent 解析、日志落库等耗时操作交由 {@link LoginEventPipeline} 异步处理
+ *
+ * @param username  用户名
+ * @param status    登录状态
+ * @param message   提示消息
+ * @param token     登录成功时签发的 Token（用于补全会话信息），失败时为 null
+ * @param ip        客户端 IP
+ * @param userAgent User-Agent 字符串
+ * @param loginTime 登录时间
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+public record LoginEvent(String username,
+                         LoginStatusEnum status,
+                         String message,
+                         String token,
+                         String ip,
+                         String userAgent,
+                         LocalDateTime loginTime) {
+
+    /**
+     * 从请求中采集登录事件
+     *
+     * @param username 用户名
+     * @param status   登录状态
+     * @param message  提示消息
+     * @param token    Token，失败时为 null
+     * @param request  HTTP请求
+     * @return 登录事件
+     */
+    public static LoginEvent of(String username, LoginStatusEnum status, String message, String token,
+                                HttpServletRequest request) {
+        return new LoginEvent(username, status, message, token,
+                RequestUtil.getClientIp(request), request.getHeader("User-Agent"), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,186 @@
+package com.cosmos.origin.admin.event;
+
+import com.cosmos.origin.admin.domain.dos.LoginLogDO;
+import com.cosmos.origin.admin.enums.LoginStatusEnum;
+import com.cosmos.origin.admin.service.IpLocationService;
+import com.cosmos.origin.admin.service.LoginAttemptService;
+import com.cosmos.origin.admin.service.UserSessionService;
+import com.cosmos.origin.common.utils.UserAgentInfo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 登录事件异步处理管道
+ * <p>
+ * 登录请求线程只负责签发 Token 和写入会话，其余副作用打包成一个 {@link LoginEvent} 投递到有界队列，
+ * 由单个后台线程批量处理：
+ * - 解析归属地、User-Agent（每个事件只解析一次）
+ * - 补全会话中的归属地、浏览器、操作系统
+ * - 批量清除登录成功用户的失败次数
+ * - 登录日志交给 {@link LoginLogWriter} 攒批落库
+ * <p>
+ * 队列满时丢弃事件并计数，保证登录请求不会被副作用拖慢；关闭时处理完队列中剩余的事件。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoginEventPipeline implements InitializingBean, DisposableBean {
+
+    private final LoginLogWriter loginLogWriter;
+    private final LoginAttemptService loginAttemptService;
+    private final UserSessionService userSessionService;
+    private final IpLocationService ipLocationService;
+
+    /**
+     * 队列容量
+     */
+    @Value("${login.event-pipeline.queue-capacity:10000}")
+    private int queueCapacity;
+
+    /**
+     * 单批最大处理数
+     */
+    @Value("${login.event-pipeline.batch-size:200}")
+    private int batchSize;
+
+    private BlockingQueue<LoginEvent> queue;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    private final LongAdder dropped = new LongAdder();
+
+    @Override
+    public void afterPropertiesSet() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::runLoop, "login-event-pipeline");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("登录事件管道启动完成: queueCapacity={}, batchSize={}", queueCapacity, batchSize);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // 不中断工作线程，等待当前批次处理完（poll 最多阻塞 1 秒）
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        // 处理剩余事件
+        List<LoginEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            process(remaining);
+        }
+        log.info("登录事件管道已关闭，累计丢弃 {} 个事件", dropped.sum());
+    }
+
+    /**
+     * 投递登录事件（不阻塞，队列满时丢弃）
+     *
+     * @param event 登录事件
+     */
+    public void publish(LoginEvent event) {
+        if (!queue.offer(event)) {
+            dropped.increment();
+            log.warn("登录事件队列已满，丢弃用户 [{}] 的登录事件", event.username());
+        }
+    }
+
+    /**
+     * 当前排队的事件数
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * 累计丢弃的事件数
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private void runLoop() {
+        List<LoginEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                LoginEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 批量处理登录事件，单个环节失败不影响其他环节
+     */
+    private void process(List<LoginEvent> events) {
+        Set<String> succeededUsers = new LinkedHashSet<>();
+
+        for (LoginEvent event : events) {
+            try {
+                // 解析归属地、User-Agent
+                String location = ipLocationService.getLocation(event.ip());
+                UserAgentInfo userAgent = UserAgentInfo.parse(event.userAgent());
+                String browser = userAgent.browser();
+                String os = userAgent.operatingSystem();
+
+                LoginLogDO loginLog = LoginLogDO.builder()
+                        .username(event.username())
+                        .ipAddress(event.ip())
+                        .loginLocation(location)
+                        .browser(browser)
+                        .os(os)
+                        .status(event.status().getCode())
+                        .message(event.message())
+                        .userAgent(event.userAgent())
+                        .build();
+                loginLog.setCreateTime(event.loginTime());
+                loginLogWriter.write(loginLog);
+
+                if (event.status() == LoginStatusEnum.SUCCESS) {
+                    succeededUsers.add(event.username());
+                    if (event.token() != null) {
+                        userSessionService.enrichSession(event.username(), event.token(), location, browser, os);
+                    }
+                }
+            } catch (Exception e) {
+                log.error("处理用户 [{}] 的登录事件失败", event.username(), e);
+            }
+        }
+
+        if (!succeededUsers.isEmpty()) {
+            try {
+                loginAttemptService.loginSuccess(succeededUsers);
+            } catch (Exception e) {
+                log.error("批量清除登录失败次数失败", e);
+            }
+        }
+    }
+}
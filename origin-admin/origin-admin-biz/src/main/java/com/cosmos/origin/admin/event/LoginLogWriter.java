@@ -0,0 +1,342 @@
+package com.cosmos.origin.admin.event;
+
+import com.cosmos.origin.admin.domain.dos.LoginLogDO;
+import com.cosmos.origin.admin.domain.mapper.LoginLogMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 登录日志批量写入器（Write-Behind）
+ * <p>
+ * 登录日志先进入有界队列，由单个后台线程攒批落库，满足以下任一条件即刷盘：
+ * - 攒够 batchSize 条
+ * - 距离本批第一条日志入队超过 flushIntervalMillis 毫秒
+ * <p>
+ * 写入方式：
+ * - insert：MyBatis-Flex 多行 INSERT
+ * - copy：PostgreSQL COPY FROM STDIN，大批量写入时开销更低；驱动不可用或 COPY 失败时回退为多行 INSERT
+ * <p>
+ * 队列满时的处理策略：
+ * - drop：直接丢弃
+ * - sample：队列水位超过 3/4 后只保留每 sampleRate 条中的 1 条，队列满时丢弃
+ * - block：最多阻塞 blockTimeoutMillis 毫秒等待空位，超时后丢弃
+ * <p>
+ * 关闭时将队列中剩余的日志全部刷盘。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoginLogWriter implements InitializingBean, DisposableBean {
+
+    private static final String COPY_SQL = "COPY t_login_log (username, ip_address, login_location, browser, os, "
+            + "status, message, user_agent, create_time, update_time, is_deleted) FROM STDIN WITH (FORMAT csv)";
+
+    private static final boolean PG_DRIVER_PRESENT =
+            ClassUtils.isPresent("org.postgresql.PGConnection", LoginLogWriter.class.getClassLoader());
+
+    private final LoginLogMapper loginLogMapper;
+    private final DataSource dataSource;
+
+    /**
+     * 队列容量
+     */
+    @Value("${login.log-writer.queue-capacity:20000}")
+    private int queueCapacity;
+
+    /**
+     * 单批最大写入条数
+     */
+    @Value("${login.log-writer.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 最长刷盘间隔（毫秒）
+     */
+    @Value("${login.log-writer.flush-interval-millis:1000}")
+    private long flushIntervalMillis;
+
+    /**
+     * 写入方式：insert-多行 INSERT，copy-PostgreSQL COPY
+     */
+    @Value("${login.log-writer.mode:insert}")
+    private String mode;
+
+    /**
+     * 队列满时的处理策略：drop-丢弃，sample-采样，block-阻塞等待
+     */
+    @Value("${login.log-writer.overflow-policy:drop}")
+    private String overflowPolicy;
+
+    /**
+     * 采样策略下每多少条保留 1 条
+     */
+    @Value("${login.log-writer.sample-rate:10}")
+    private int sampleRate;
+
+    /**
+     * 阻塞策略下最长等待时间（毫秒）
+     */
+    @Value("${login.log-writer.block-timeout-millis:100}")
+    private long blockTimeoutMillis;
+
+    private BlockingQueue<LoginLogDO> queue;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    private volatile boolean copyEnabled;
+
+    private int sampleThreshold;
+
+    private final AtomicLong sampleSequence = new AtomicLong();
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+
+    @Override
+    public void afterPropertiesSet() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        sampleThreshold = queueCapacity * 3 / 4;
+        sampleRate = Math.max(sampleRate, 1);
+        copyEnabled = "copy".equalsIgnoreCase(mode);
+        if (copyEnabled && !PG_DRIVER_PRESENT) {
+            log.warn("未找到 PostgreSQL 驱动，登录日志写入方式回退为 insert");
+            copyEnabled = false;
+        }
+        running = true;
+        worker = new Thread(this::runLoop, "login-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("登录日志写入器启动完成: queueCapacity={}, batchSize={}, flushIntervalMillis={}, mode={}, overflowPolicy={}",
+                queueCapacity, batchSize, flushIntervalMillis, copyEnabled ? "copy" : "insert", overflowPolicy);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // 不中断工作线程，等待当前批次写完
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        List<LoginLogDO> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            flush(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+        log.info("登录日志写入器已关闭: written={}, failed={}, dropped={}, sampledOut={}",
+                written.sum(), failed.sum(), dropped.sum(), sampledOut.sum());
+    }
+
+    /**
+     * 提交一条登录日志
+     *
+     * @param loginLog 登录日志
+     * @return 是否进入队列（被丢弃或采样掉时返回 false）
+     */
+    public boolean write(LoginLogDO loginLog) {
+        if ("sample".equalsIgnoreCase(overflowPolicy) && queue.size() >= sampleThreshold
+                && sampleSequence.getAndIncrement() % sampleRate != 0) {
+            sampledOut.increment();
+            return false;
+        }
+        boolean accepted;
+        if ("block".equalsIgnoreCase(overflowPolicy)) {
+            try {
+                accepted = queue.offer(loginLog, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        } else {
+            accepted = queue.offer(loginLog);
+        }
+        if (!accepted) {
+            dropped.increment();
+            log.warn("登录日志队列已满，丢弃用户 [{}] 的登录日志", loginLog.getUsername());
+        }
+        return accepted;
+    }
+
+    /**
+     * 当前排队的日志数
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * 累计丢弃的日志数（队列满）
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 累计被采样掉的日志数
+     */
+    public long getSampledOutCount() {
+        return sampledOut.sum();
+    }
+
+    /**
+     * 累计成功写入的日志数
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /**
+     * 累计写入失败的日志数
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * 累计刷盘次数
+     */
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    /**
+     * 累计刷盘耗时（纳秒）
+     */
+    public long getFlushNanos() {
+        return flushNanos.sum();
+    }
+
+    private void runLoop() {
+        List<LoginLogDO> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                LoginLogDO first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // 攒批：直到攒够 batchSize 条或距第一条入队超过 flushIntervalMillis
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remainingNanos <= 0 || !running) {
+                        break;
+                    }
+                    LoginLogDO next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 写入一批日志，COPY 失败时回退为多行 INSERT
+     */
+    private void flush(List<LoginLogDO> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (copyEnabled) {
+                try {
+                    PgCopy.copy(dataSource, batch);
+                } catch (Exception e) {
+                    log.warn("COPY 写入登录日志失败，回退为 INSERT，共 {} 条", batch.size(), e);
+                    loginLogMapper.insertBatch(batch);
+                }
+            } else {
+                loginLogMapper.insertBatch(batch);
+            }
+            written.add(batch.size());
+        } catch (Exception e) {
+            failed.add(batch.size());
+            log.error("批量写入登录日志失败，共 {} 条", batch.size(), e);
+        } finally {
+            flushCount.increment();
+            flushNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * PostgreSQL COPY 写入，独立成内部类以保证未引入驱动时不会加载 PGConnection
+     */
+    private static final class PgCopy {
+
+        static void copy(DataSource dataSource, List<LoginLogDO> batch) throws Exception {
+            StringBuilder csv = new StringBuilder(batch.size() * 256);
+            for (LoginLogDO loginLog : batch) {
+                LocalDateTime createTime = loginLog.getCreateTime() != null ? loginLog.getCreateTime() : LocalDateTime.now();
+                appendField(csv, loginLog.getUsername()).append(',');
+                appendField(csv, loginLog.getIpAddress()).append(',');
+                appendField(csv, loginLog.getLoginLocation()).append(',');
+                appendField(csv, loginLog.getBrowser()).append(',');
+                appendField(csv, loginLog.getOs()).append(',');
+                csv.append(loginLog.getStatus() != null ? loginLog.getStatus().toString() : "").append(',');
+                appendField(csv, loginLog.getMessage()).append(',');
+                appendField(csv, loginLog.getUserAgent()).append(',');
+                csv.append(createTime).append(',')
+                        .append(createTime).append(',')
+                        .append("f\n");
+            }
+            try (Connection connection = dataSource.getConnection()) {
+                connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL, new StringReader(csv.toString()));
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+            }
+        }
+
+        /**
+         * 写入 CSV 字段：null 输出为空（COPY 视为 NULL），其余一律加引号并转义内部引号
+         */
+        private static StringBuilder appendField(StringBuilder csv, String value) {
+            if (value == null) {
+                return csv;
+            }
+            csv.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    csv.append('"');
+                }
+                csv.append(c);
+            }
+            return csv.append('"');
+        }
+    }
+}
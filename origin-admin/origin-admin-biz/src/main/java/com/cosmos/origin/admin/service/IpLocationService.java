@@ -0,0 +1,239 @@
+package com.cosmos.origin.admin.service;
+
+import com.cosmos.origin.admin.utils.CidrRange;
+import com.cosmos.origin.admin.utils.MappedXdbSearcher;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.net.InetAddresses;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * IP 归属地解析服务
+ * <p>
+ * 使用 ip2region 离线 IP 地址库解析 IP 归属地：
+ * - xdb 文件通过内存映射加载到堆外（位于 jar 内时先复制到临时文件），不占用堆内存
+ * - 同时支持 IPv4 与 IPv6 库，未配置 IPv6 库时 IPv6 地址返回未知
+ * - 本地、内网地址按 CIDR 网段判断
+ * - 格式化后的结果按 IP 缓存在有界 LRU 中
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IpLocationService implements InitializingBean, DisposableBean {
+
+    private static final String UNKNOWN = "未知";
+    private static final String LOCAL = "本地";
+    private static final String INTERNAL = "内网IP";
+
+    private static final List<CidrRange> LOOPBACK_RANGES = List.of(
+            CidrRange.parse("127.0.0.0/8"),
+            CidrRange.parse("::1/128"));
+
+    private final ResourceLoader resourceLoader;
+
+    /**
+     * IPv4 库路径
+     */
+    @Value("${ip2region.v4-path:classpath:ip2region/ip2region.xdb}")
+    private String v4Path;
+
+    /**
+     * IPv6 库路径（可选）
+     */
+    @Value("${ip2region.v6-path:}")
+    private String v6Path;
+
+    /**
+     * 内网网段
+     */
+    @Value("${ip2region.internal-ranges:10.0.0.0/8,172.16.0.0/12,192.168.0.0/16,100.64.0.0/10,169.254.0.0/16,fc00::/7,fe80::/10}")
+    private List<String> internalRanges;
+
+    /**
+     * 结果缓存最大条数
+     */
+    @Value("${ip2region.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    private MappedXdbSearcher v4Searcher;
+
+    private MappedXdbSearcher v6Searcher;
+
+    private List<CidrRange> internalCidrs;
+
+    private Cache<String, String> cache;
+
+    private final List<Path> tempFiles = new ArrayList<>();
+
+    @Override
+    public void afterPropertiesSet() {
+        internalCidrs = internalRanges.stream()
+                .filter(StringUtils::hasText)
+                .map(CidrRange::parse)
+                .toList();
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .build();
+        v4Searcher = open(v4Path, 4);
+        v6Searcher = open(v6Path, 16);
+    }
+
+    @Override
+    public void destroy() {
+        // 映射区随 GC 回收，这里只清理复制出来的临时文件
+        for (Path tempFile : tempFiles) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                log.warn("ip2region 临时文件删除失败: {}", tempFile, e);
+            }
+        }
+    }
+
+    /**
+     * 根据 IP 地址解析归属地
+     * <p>
+     * 格式化后只保留国家、省份、城市，例如：中国 广东省 深圳市
+     *
+     * @param ip IP 地址
+     * @return 归属地信息
+     */
+    public String getLocation(String ip) {
+        if (ip == null || ip.isEmpty()) {
+            return UNKNOWN;
+        }
+        if ("localhost".equalsIgnoreCase(ip)) {
+            return LOCAL;
+        }
+        String location = cache.getIfPresent(ip);
+        if (location == null) {
+            location = resolve(ip);
+            cache.put(ip, location);
+        }
+        return location;
+    }
+
+    private String resolve(String ip) {
+        byte[] address;
+        try {
+            address = InetAddresses.forString(ip).getAddress();
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN;
+        }
+
+        if (matches(LOOPBACK_RANGES, address)) {
+            return LOCAL;
+        }
+        if (matches(internalCidrs, address)) {
+            return INTERNAL;
+        }
+
+        MappedXdbSearcher searcher = address.length == 4 ? v4Searcher : v6Searcher;
+        if (searcher == null) {
+            return UNKNOWN;
+        }
+        try {
+            return formatLocation(searcher.search(address));
+        } catch (Exception e) {
+            log.error("IP 地址解析失败: {}", ip, e);
+            return UNKNOWN;
+        }
+    }
+
+    private static boolean matches(List<CidrRange> ranges, byte[] address) {
+        for (CidrRange range : ranges) {
+            if (range.contains(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 格式化地理位置信息
+     * <p>
+     * 原始格式: 中国|0|广东省|深圳市|电信
+     * 格式化后: 中国 广东省 深圳市
+     *
+     * @param region 原始地理位置信息
+     * @return 格式化后的地理位置
+     */
+    static String formatLocation(String region) {
+        if (region == null || region.isEmpty()) {
+            return UNKNOWN;
+        }
+        StringBuilder location = new StringBuilder(region.length());
+        int start = 0;
+        // 依次取第 0（国家）、2（省份）、3（城市）个字段，忽略 "0" 占位
+        for (int field = 0; field <= 3 && start <= region.length(); field++) {
+            int end = region.indexOf('|', start);
+            if (end < 0) {
+                end = region.length();
+            }
+            if (field != 1 && end > start && !(end - start == 1 && region.charAt(start) == '0')) {
+                if (!location.isEmpty()) {
+                    location.append(' ');
+                }
+                location.append(region, start, end);
+            }
+            start = end + 1;
+        }
+        return location.isEmpty() ? UNKNOWN : location.toString();
+    }
+
+    /**
+     * 映射 xdb 文件，文件缺失或版本不符时返回 null
+     */
+    private MappedXdbSearcher open(String location, int expectedIpBytes) {
+        if (!StringUtils.hasText(location)) {
+            return null;
+        }
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) {
+            log.warn("ip2region 数据库不存在，对应版本的 IP 归属地将返回未知: {}", location);
+            return null;
+        }
+        try {
+            Path path;
+            if (resource.isFile()) {
+                path = resource.getFile().toPath();
+            } else {
+                // 位于 jar 内的资源无法直接映射，先复制到临时文件
+                path = Files.createTempFile("ip2region-", ".xdb");
+                tempFiles.add(path);
+                try (InputStream inputStream = resource.getInputStream()) {
+                    Files.copy(inputStream, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            MappedXdbSearcher searcher = MappedXdbSearcher.open(path);
+            if (searcher.getIpBytes() != expectedIpBytes) {
+                log.error("ip2region 数据库版本不匹配: {}，期望 IPv{}", location, expectedIpBytes == 4 ? 4 : 6);
+                return null;
+            }
+            log.info("ip2region 数据库映射成功，数据库路径: {}", location);
+            return searcher;
+        } catch (Exception e) {
+            log.error("ip2region 数据库加载失败: {}", location, e);
+            return null;
+        }
+    }
+}
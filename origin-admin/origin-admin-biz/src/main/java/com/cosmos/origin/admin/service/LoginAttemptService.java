@@ -1,24 +1,33 @@
 package com.cosmos.origin.admin.service;
 
+import com.cosmos.origin.admin.cache.UsernameBloomFilter;
 import com.cosmos.origin.admin.domain.dos.UserDO;
 import com.cosmos.origin.admin.domain.mapper.UserMapper;
+import com.cosmos.origin.jwt.exception.UnknownUsernameException;
 import com.cosmos.origin.jwt.utils.LoginResponseUtil;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.security.authentication.LockedException;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 登录尝试限制服务
  * <p>
  * 基于 Redis 实现登录次数限制，防止暴力破解
+ * <p>
+ * 失败计数与锁定状态由 Lua 脚本原子维护，一次往返返回尝试次数、剩余次数和锁定剩余时间（{@link AttemptState}），
+ * 调用方应直接使用返回的状态，不再分别查询
  *
  * @author 一陌千尘
  * @date 2025/02/06
@@ -30,11 +39,58 @@ public class LoginAttemptService {
 
     private final StringRedisTemplate redisTemplate;
     private final UserMapper userMapper;
+    private final UsernameBloomFilter usernameBloomFilter;
 
     // Redis key 前缀
     private static final String LOGIN_ATTEMPT_KEY_PREFIX = "login:attempt:";
     private static final String LOGIN_LOCKED_KEY_PREFIX = "login:locked:";
 
+    /**
+     * 手动解锁广播频道，各节点收到后清除本地记住的锁定状态
+     */
+    public static final String UNLOCK_CHANNEL = "login:unlock";
+
+    /**
+     * 登录失败脚本
+     * <p>
+     * KEYS[1] 尝试次数 key，KEYS[2] 锁定 key；ARGV[1] 最大尝试次数，ARGV[2] 锁定秒数；返回 {尝试次数, 剩余次数, 锁定剩余秒数}。
+     * 已锁定时不再计数；达到最大次数时加锁并删除计数，并发失败不会越过上限
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> LOGIN_FAILED_SCRIPT = new DefaultRedisScript<>("""
+            local maxAttempts, lockSeconds = tonumber(ARGV[1]), tonumber(ARGV[2])
+            local lockTtl = redis.call('TTL', KEYS[2])
+            if lockTtl > 0 then
+                return { maxAttempts, 0, lockTtl }
+            end
+            local attempts = redis.call('INCR', KEYS[1])
+            if attempts == 1 then
+                redis.call('EXPIRE', KEYS[1], lockSeconds)
+            end
+            if attempts >= maxAttempts then
+                redis.call('SET', KEYS[2], 'locked', 'EX', lockSeconds)
+                redis.call('DEL', KEYS[1])
+                return { attempts, 0, lockSeconds }
+            end
+            return { attempts, maxAttempts - attempts, 0 }
+            """, List.class);
+
+    /**
+     * 查询尝试状态脚本
+     * <p>
+     * KEYS、ARGV[1] 同上；返回 {尝试次数, 剩余次数, 锁定剩余秒数}
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ATTEMPT_STATE_SCRIPT = new DefaultRedisScript<>("""
+            local maxAttempts = tonumber(ARGV[1])
+            local lockTtl = redis.call('TTL', KEYS[2])
+            if lockTtl > 0 then
+                return { maxAttempts, 0, lockTtl }
+            end
+            local attempts = tonumber(redis.call('GET', KEYS[1]) or '0')
+            return { attempts, math.max(0, maxAttempts - attempts), 0 }
+            """, List.class);
+
     // 配置项：是否开启登录次数限制功能
     @Getter
     @Value("${login.attempt.enabled}")
@@ -48,11 +104,17 @@ public class LoginAttemptService {
     @Value("${login.attempt.lock-duration-minutes:30}")
     private int lockDurationMinutes;
 
+    /**
+     * 布隆过滤器判定用户名不存在而拒绝的登录次数
+     */
+    private final LongAdder unknownUsernameRejected = new LongAdder();
+
     /**
      * 检查用户是否被锁定
      *
      * @param username 用户名
-     * @throws LockedException 如果账号被锁定
+     * @throws LockedException          如果账号被锁定
+     * @throws UnknownUsernameException 如果用户名一定不存在（不查库、不访问 Redis，由登录失败回调按 IP 计数）
      */
     public void checkLocked(String username) {
         // 如果功能未开启，直接跳过检查
@@ -60,13 +122,16 @@ public class LoginAttemptService {
             return;
         }
 
-        String lockedKey = LOGIN_LOCKED_KEY_PREFIX + username;
-        Boolean isLocked = redisTemplate.hasKey(lockedKey);
+        // 布隆过滤器判定一定不存在的用户名直接拒绝，与用户名不存在时的响应一致；
+        // 随机用户名撞库正是布隆过滤器要吸收的流量，因此不读写该用户名的 Redis 尝试状态
+        if (!usernameBloomFilter.mightExist(username)) {
+            throw new UnknownUsernameException("用户名或密码错误");
+        }
 
-        if (isLocked) {
-            Long ttl = redisTemplate.getExpire(lockedKey, TimeUnit.MINUTES);
+        AttemptState state = getAttemptState(username);
+        if (state.locked()) {
             throw new LockedException(
-                    String.format("登录失败次数过多，账号已被锁定，请 %d 分钟后重试", ttl));
+                    String.format("登录失败次数过多，账号已被锁定，请 %d 分钟后重试", state.lockRemainingMinutes()));
         }
 
         // 验证用户是否存在且未被禁用
@@ -84,35 +149,55 @@ public class LoginAttemptService {
      * 记录登录失败
      *
      * @param username 用户名
+     * @return 记录后的尝试状态，功能未开启时返回 {@link AttemptState#UNLIMITED}
      */
-    public void loginFailed(String username) {
+    public AttemptState loginFailed(String username) {
         // 如果功能未开启，直接跳过
         if (!enabled) {
-            return;
+            return AttemptState.UNLIMITED;
         }
 
-        String attemptKey = LOGIN_ATTEMPT_KEY_PREFIX + username;
-        String lockedKey = LOGIN_LOCKED_KEY_PREFIX + username;
-
-        // 增加失败次数
-        Long attempts = redisTemplate.opsForValue().increment(attemptKey);
+        AttemptState state = execute(LOGIN_FAILED_SCRIPT, username,
+                String.valueOf(maxAttempts), String.valueOf(TimeUnit.MINUTES.toSeconds(lockDurationMinutes)));
+        if (state.locked()) {
+            log.warn("用户 [{}] 登录失败次数达到 {} 次，账号已被锁定 {} 分钟", username, maxAttempts, state.lockRemainingMinutes());
+        } else {
+            log.warn("用户 [{}] 登录失败，当前尝试次数: {}/{}", username, state.attempts(), maxAttempts);
+        }
+        return state;
+    }
 
-        if (attempts != null) {
-            // 设置过期时间（第一次失败时设置）
-            if (attempts == 1) {
-                redisTemplate.expire(attemptKey, Duration.ofMinutes(lockDurationMinutes));
-            }
+    /**
+     * 记录一次用户名一定不存在的登录失败（只计入指标，不访问 Redis）
+     *
+     * @return 首次失败的尝试状态，响应与存在的用户名首次失败时一致；功能未开启时返回 {@link AttemptState#UNLIMITED}
+     */
+    public AttemptState unknownUsernameRejected() {
+        if (!enabled) {
+            return AttemptState.UNLIMITED;
+        }
+        unknownUsernameRejected.increment();
+        return new AttemptState(1, maxAttempts - 1, 0);
+    }
 
-            log.warn("用户 [{}] 登录失败，当前尝试次数: {}/{}", username, attempts, maxAttempts);
+    /**
+     * 布隆过滤器判定用户名不存在而拒绝的登录次数
+     */
+    public long getUnknownUsernameRejectedCount() {
+        return unknownUsernameRejected.sum();
+    }
 
-            // 达到最大尝试次数，锁定账号
-            if (attempts >= maxAttempts) {
-                log.warn("用户 [{}] 登录失败次数达到 {} 次，账号已被锁定 {} 分钟", username, maxAttempts, lockDurationMinutes);
-                redisTemplate.opsForValue().set(lockedKey, "locked", lockDurationMinutes, TimeUnit.MINUTES);
-                // 注意：删除尝试次数记录应该在打印日志之后，避免后续查询时获取不到次数
-                redisTemplate.delete(attemptKey);
-            }
+    /**
+     * 获取尝试状态（一次往返）
+     *
+     * @param username 用户名
+     * @return 尝试状态，功能未开启时返回 {@link AttemptState#UNLIMITED}
+     */
+    public AttemptState getAttemptState(String username) {
+        if (!enabled) {
+            return AttemptState.UNLIMITED;
         }
+        return execute(ATTEMPT_STATE_SCRIPT, username, String.valueOf(maxAttempts));
     }
 
     /**
@@ -131,6 +216,21 @@ public class LoginAttemptService {
         log.debug("用户 [{}] 登录成功，清除失败次数记录", username);
     }
 
+    /**
+     * 批量记录登录成功，一次删除所有用户的失败次数
+     *
+     * @param usernames 用户名
+     */
+    public void loginSuccess(Collection<String> usernames) {
+        // 如果功能未开启，直接跳过
+        if (!enabled || usernames.isEmpty()) {
+            return;
+        }
+
+        redisTemplate.delete(usernames.stream().map(username -> LOGIN_ATTEMPT_KEY_PREFIX + username).toList());
+        log.debug("{} 个用户登录成功，清除失败次数记录", usernames.size());
+    }
+
     /**
      * 获取剩余允许尝试次数
      *
@@ -138,24 +238,7 @@ public class LoginAttemptService {
      * @return 剩余尝试次数，-1 表示未被限制
      */
     public int getRemainingAttempts(String username) {
-        // 如果功能未开启，返回 -1 表示无限制
-        if (!enabled) {
-            return -1;
-        }
-
-        String lockedKey = LOGIN_LOCKED_KEY_PREFIX + username;
-        if (redisTemplate.hasKey(lockedKey)) {
-            return 0;
-        }
-
-        String attemptKey = LOGIN_ATTEMPT_KEY_PREFIX + username;
-        String attemptsStr = redisTemplate.opsForValue().get(attemptKey);
-        if (attemptsStr == null) {
-            return maxAttempts;
-        }
-
-        int attempts = Integer.parseInt(attemptsStr);
-        return Math.max(0, maxAttempts - attempts);
+        return getAttemptState(username).remainingAttempts();
     }
 
     /**
@@ -167,8 +250,12 @@ public class LoginAttemptService {
         String attemptKey = LOGIN_ATTEMPT_KEY_PREFIX + username;
         String lockedKey = LOGIN_LOCKED_KEY_PREFIX + username;
 
-        redisTemplate.delete(attemptKey);
-        redisTemplate.delete(lockedKey);
+        redisTemplate.delete(List.of(attemptKey, lockedKey));
+        try {
+            redisTemplate.convertAndSend(UNLOCK_CHANNEL, username);
+        } catch (Exception e) {
+            log.error("广播用户 [{}] 解锁失败", username, e);
+        }
 
         log.info("用户 [{}] 账号已手动解锁", username);
     }
@@ -180,13 +267,7 @@ public class LoginAttemptService {
      * @return true 表示被锁定
      */
     public boolean isLocked(String username) {
-        // 如果功能未开启，永远返回 false（未锁定）
-        if (!enabled) {
-            return false;
-        }
-
-        String lockedKey = LOGIN_LOCKED_KEY_PREFIX + username;
-        return redisTemplate.hasKey(lockedKey);
+        return getAttemptState(username).locked();
     }
 
     /**
@@ -196,14 +277,7 @@ public class LoginAttemptService {
      * @return 剩余分钟数，0表示未锁定
      */
     public long getLockRemainingMinutes(String username) {
-        // 如果功能未开启，返回 0
-        if (!enabled) {
-            return 0;
-        }
-
-        String lockedKey = LOGIN_LOCKED_KEY_PREFIX + username;
-        Long ttl = redisTemplate.getExpire(lockedKey, TimeUnit.MINUTES);
-        return Math.max(0, ttl);
+        return getAttemptState(username).lockRemainingMinutes();
     }
 
     /**
@@ -213,9 +287,7 @@ public class LoginAttemptService {
      * @return 当前尝试次数
      */
     public int getCurrentAttempts(String username) {
-        String attemptKey = LOGIN_ATTEMPT_KEY_PREFIX + username;
-        String attemptsStr = redisTemplate.opsForValue().get(attemptKey);
-        return attemptsStr != null ? Integer.parseInt(attemptsStr) : 0;
+        return getAttemptState(username).attempts();
     }
 
     /**
@@ -237,30 +309,37 @@ public class LoginAttemptService {
      * @return 登录尝试信息 Map
      */
     public Map<String, Object> getAttemptInfo(String username) {
+        return toAttemptInfo(getAttemptState(username));
+    }
+
+    /**
+     * 将尝试状态转换为响应信息 Map（不访问 Redis）
+     *
+     * @param state 尝试状态
+     * @return 登录尝试信息 Map
+     */
+    public Map<String, Object> toAttemptInfo(AttemptState state) {
         // 如果功能未开启，返回空信息
         if (!enabled) {
             return LoginResponseUtil.createAttemptData(0, -1);
         }
 
         // 检查是否被锁定
-        if (isLocked(username)) {
-            long lockRemainingMinutes = getLockRemainingMinutes(username);
-            return createLockedInfo(lockRemainingMinutes);
+        if (state.locked()) {
+            return createLockedInfo(state.lockRemainingMinutes());
         }
 
-        // 获取当前尝试次数
-        int currentAttempts = getCurrentAttempts(username);
-        int remainingAttempts = Math.max(0, maxAttempts - currentAttempts);
-
-        Map<String, Object> result = LoginResponseUtil.createAttemptData(currentAttempts, remainingAttempts);
+        Map<String, Object> result = LoginResponseUtil.createAttemptData(state.attempts(), state.remainingAttempts());
         result.put("message", String.format("登录失败，这是第 %d 次尝试，还有 %d 次机会，超过 %d 次后账号将被锁定 %d 分钟",
-                currentAttempts, remainingAttempts, maxAttempts, lockDurationMinutes));
+                state.attempts(), state.remainingAttempts(), maxAttempts, lockDurationMinutes));
 
         return result;
     }
 
     /**
      * 在登录失败后获取尝试信息（已增加失败次数）
+     * <p>
+     * 已持有 {@link #loginFailed} 返回的状态时，请直接使用 {@link #toAttemptInfo}
      *
      * @param username 用户名
      * @return 登录尝试信息 Map
@@ -269,4 +348,46 @@ public class LoginAttemptService {
         // 直接调用 getAttemptInfo 方法，逻辑完全相同
         return getAttemptInfo(username);
     }
+
+    /**
+     * 执行尝试状态脚本
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private AttemptState execute(RedisScript<List> script, String username, String... args) {
+        List<Long> result = redisTemplate.execute(script,
+                List.of(LOGIN_ATTEMPT_KEY_PREFIX + username, LOGIN_LOCKED_KEY_PREFIX + username), (Object[]) args);
+        if (result == null || result.size() < 3) {
+            return new AttemptState(0, maxAttempts, 0);
+        }
+        return new AttemptState(result.get(0).intValue(), result.get(1).intValue(), result.get(2));
+    }
+
+    /**
+     * 登录尝试状态
+     *
+     * @param attempts             当前尝试次数
+     * @param remainingAttempts    剩余尝试次数，-1 表示未被限制
+     * @param lockRemainingSeconds 锁定剩余时间（秒），0 表示未锁定
+     */
+    public record AttemptState(int attempts, int remainingAttempts, long lockRemainingSeconds) {
+
+        /**
+         * 功能未开启时的状态
+         */
+        public static final AttemptState UNLIMITED = new AttemptState(0, -1, 0);
+
+        /**
+         * 是否已锁定
+         */
+        public boolean locked() {
+            return lockRemainingSeconds > 0;
+        }
+
+        /**
+         * 锁定剩余时间（分钟，不足一分钟按一分钟计）
+         */
+        public long lockRemainingMinutes() {
+            return (lockRemainingSeconds + 59) / 60;
+        }
+    }
 }
@@ -1,13 +1,8 @@
 package com.cosmos.origin.admin.service;
 
-import com.cosmos.origin.admin.domain.dos.LoginLogDO;
-import com.cosmos.origin.admin.domain.mapper.LoginLogMapper;
 import com.cosmos.origin.admin.enums.LoginStatusEnum;
-import com.cosmos.origin.admin.utils.IpLocationUtil;
-import com.cosmos.origin.common.utils.RequestUtil;
-import eu.bitwalker.useragentutils.Browser;
-import eu.bitwalker.useragentutils.OperatingSystem;
-import eu.bitwalker.useragentutils.UserAgent;
+import com.cosmos.origin.admin.event.LoginEvent;
+import com.cosmos.origin.admin.event.LoginEventPipeline;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,6 +10,8 @@ import org.springframework.stereotype.Service;
 
 /**
  * 登录日志服务
+ * <p>
+ * 请求线程上只采集原始数据，归属地、User-Agent 解析和落库由 {@link LoginEventPipeline} 异步批量完成
  *
  * @author 一陌千尘
  * @date 2025/02/06
@@ -24,7 +21,7 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class LoginLogService {
 
-    private final LoginLogMapper loginLogMapper;
+    private final LoginEventPipeline loginEventPipeline;
 
     /**
      * 记录登录日志
@@ -35,47 +32,25 @@ public class LoginLogService {
      * @param request  HTTP请求
      */
     public void recordLoginLog(String username, LoginStatusEnum status, String message, HttpServletRequest request) {
-        try {
-            String userAgentStr = request.getHeader("User-Agent");
-            String ip = RequestUtil.getClientIp(request);
-
-            // 解析UserAgent
-            String browser = "Unknown";
-            String os = "Unknown";
-            if (userAgentStr != null) {
-                UserAgent userAgent = UserAgent.parseUserAgentString(userAgentStr);
-                Browser b = userAgent.getBrowser();
-                OperatingSystem o = userAgent.getOperatingSystem();
-                browser = b.getName();
-                os = o.getName();
-            }
-
-            LoginLogDO loginLog = LoginLogDO.builder()
-                    .username(username)
-                    .ipAddress(ip)
-                    .loginLocation(parseLocation(ip))
-                    .browser(browser)
-                    .os(os)
-                    .status(status.getCode())
-                    .message(message)
-                    .userAgent(userAgentStr)
-                    .build();
-
-            loginLogMapper.insert(loginLog);
-        } catch (Exception e) {
-            log.error("记录登录日志失败", e);
-        }
+        recordLoginLog(username, status, message, null, request);
     }
 
     /**
-     * 解析 IP 地址位置
+     * 记录登录日志
      * <p>
-     * 使用 ip2region 离线 IP 地址库解析 IP 归属地
+     * 登录成功时传入 Token，异步处理时会同时补全会话信息并清除失败次数
      *
-     * @param ip IP 地址
-     * @return IP 归属地
+     * @param username 用户名
+     * @param status   登录状态
+     * @param message  提示消息
+     * @param token    Token，失败时为 null
+     * @param request  HTTP请求
      */
-    private String parseLocation(String ip) {
-        return IpLocationUtil.getLocation(ip);
+    public void recordLoginLog(String username, LoginStatusEnum status, String message, String token, HttpServletRequest request) {
+        try {
+            loginEventPipeline.publish(LoginEvent.of(username, status, message, token, request));
+        } catch (Exception e) {
+            log.error("记录登录日志失败", e);
+        }
     }
 }
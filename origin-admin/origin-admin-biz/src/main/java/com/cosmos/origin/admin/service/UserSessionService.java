@@ -1,23 +1,47 @@
 package com.cosmos.origin.admin.service;
 
+import com.cosmos.origin.admin.cache.SessionNearCache;
+import com.cosmos.origin.admin.model.vo.session.OnlineSessionPageVO;
 import com.cosmos.origin.admin.model.vo.session.UserSessionVO;
+import com.cosmos.origin.admin.session.SessionCodec;
+import com.cosmos.origin.jwt.store.RefreshTokenStore;
+import com.cosmos.origin.jwt.utils.JwtTokenHelper;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 /**
  * 用户会话服务
  * <p>
- * 负责管理用户登录会话，将会话信息保存到 Redis
+ * 负责管理用户登录会话，将会话信息保存到 Redis；同时作为刷新 Token 存储，刷新 Token 与会话绑定
+ * <p>
+ * 会话以 Hash 存储，字段编码由 {@link SessionCodec} 决定；升级前以 JSON 字符串存储的会话仍可读取，直到自然过期
+ * <p>
+ * 会话脚本把调用前即可确定的 key 全部通过 KEYS 传入，但 token 集合中的成员、token key 中记录的用户名对应的 key
+ * 只能在脚本中读出后拼接，且所有脚本都会更新全局的在线会话索引，无法与单个用户的 key 落在同一个槽位。
+ * 因此只支持单机（含主从、哨兵）Redis，连接 Redis Cluster 时启动失败
  *
  * @author 一陌千尘
  * @date 2026/02/10
@@ -25,15 +49,437 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class UserSessionService {
+public class UserSessionService implements RefreshTokenStore, InitializingBean {
 
     private final StringRedisTemplate redisTemplate;
     private final ObjectMapper objectMapper;
+    private final JwtTokenHelper jwtTokenHelper;
+    private final SessionCodec sessionCodec;
+    private final SessionNearCache sessionNearCache;
 
     // Redis key 前缀
     private static final String USER_SESSION_KEY_PREFIX = "user:session:";
     private static final String USER_TOKEN_KEY_PREFIX = "user:token:";
-    private static final String USER_TOKENS_SET_KEY_PREFIX = "user:tokens:"; // 多设备登录时，保存用户的所有 token
+    private static final String USER_TOKENS_SET_KEY_PREFIX = "user:tokens:"; // 多设备登录时，保存用户的所有 token（ZSET，score 为登录时间戳）
+    private static final String USER_REFRESH_KEY_PREFIX = "user:refresh:"; // 刷新 Token ID -> 当前访问 Token
+    private static final String USER_SESSION_INDEX_KEY = "user:sessions:online"; // 在线会话索引（ZSET，score 为过期时间戳）
+
+    /**
+     * 刷新 Token 轮换脚本（一次往返原子完成）
+     * <p>
+     * KEYS[1] 旧刷新 Token key，KEYS[2] 新刷新 Token key，KEYS[3] 新会话 key，KEYS[4] 新 token key，
+     * KEYS[5] token 集合 key，KEYS[6] 在线会话索引 key
+     * ARGV：新访问 Token、刷新 Token 过期秒数、访问 Token 过期秒数、登录策略、用户名、新过期时间（JSON）、
+     * 会话 key 前缀、token key 前缀、新过期时间戳（毫秒）
+     * <p>
+     * 成功时返回旧访问 Token，失败时返回 nil。新访问 Token 沿用旧 Token 在 token 集合中的登录时间，设备淘汰顺序不变。
+     * 旧访问 Token 从旧刷新 Token 中读出，其 token key 和多设备模式下的旧会话 key 只能在脚本中拼接。
+     * Hash 会话直接更新 token 和过期时间字段；升级前写入的 JSON 会话通过字符串替换更新，避免 cjson 重新编码导致数字精度丢失
+     */
+    private static final RedisScript<String> ROTATE_REFRESH_TOKEN_SCRIPT = new DefaultRedisScript<>("""
+            local oldToken = redis.call('GET', KEYS[1])
+            if not oldToken then
+                return false
+            end
+            redis.call('DEL', KEYS[1])
+            local single = ARGV[4] == 'single'
+            local newSessionKey = KEYS[3]
+            local sessionKey = single and newSessionKey or (ARGV[7] .. oldToken)
+            local ttl = tonumber(ARGV[3])
+            local keyType = redis.call('TYPE', sessionKey).ok
+            if keyType == 'hash' then
+                if redis.call('HGET', sessionKey, 't') ~= oldToken then
+                    return false
+                end
+                if newSessionKey ~= sessionKey then
+                    redis.call('RENAME', sessionKey, newSessionKey)
+                end
+                redis.call('HSET', newSessionKey, 't', ARGV[1], 'et', ARGV[9])
+                redis.call('EXPIRE', newSessionKey, ttl)
+            elseif keyType == 'string' then
+                local sessionJson = redis.call('GET', sessionKey)
+                local startIndex, endIndex = string.find(sessionJson, oldToken, 1, true)
+                if not startIndex then
+                    return false
+                end
+                sessionJson = string.sub(sessionJson, 1, startIndex - 1) .. ARGV[1] .. string.sub(sessionJson, endIndex + 1)
+                local expireTime = function() return '"expireTime":' .. ARGV[6] end
+                local replaced
+                sessionJson, replaced = string.gsub(sessionJson, '"expireTime":"[^"]*"', expireTime, 1)
+                if replaced == 0 then
+                    sessionJson = string.gsub(sessionJson, '"expireTime":%[[^%]]*%]', expireTime, 1)
+                end
+                if newSessionKey ~= sessionKey then
+                    redis.call('DEL', sessionKey)
+                end
+                redis.call('SET', newSessionKey, sessionJson, 'EX', ttl)
+            else
+                return false
+            end
+            if single then
+                redis.call('ZADD', KEYS[6], ARGV[9], ARGV[5])
+            else
+                local tokensKey = KEYS[5]
+                if redis.call('TYPE', tokensKey).ok == 'set' then
+                    redis.call('SREM', tokensKey, oldToken)
+                    redis.call('SADD', tokensKey, ARGV[1])
+                else
+                    local loginAt = redis.call('ZSCORE', tokensKey, oldToken) or 0
+                    redis.call('ZREM', tokensKey, oldToken)
+                    redis.call('ZADD', tokensKey, loginAt, ARGV[1])
+                end
+                redis.call('EXPIRE', tokensKey, ttl)
+                redis.call('ZREM', KEYS[6], oldToken)
+                redis.call('ZADD', KEYS[6], ARGV[9], ARGV[1])
+            end
+            redis.call('DEL', ARGV[8] .. oldToken)
+            redis.call('SET', KEYS[4], ARGV[5], 'EX', ttl)
+            redis.call('SET', KEYS[2], ARGV[1], 'EX', tonumber(ARGV[2]))
+            return oldToken
+            """, String.class);
+
+    /**
+     * 会话脚本公共部分
+     * <p>
+     * 所有会话脚本的 KEYS[1] 为在线会话索引 key，其余 KEYS 为调用前即可确定的会话 key、token key、token 集合 key；
+     * ARGV 前 4 个参数一致：登录策略、会话 key 前缀、token key 前缀、token 集合 key 前缀，脚本自身的参数从 ARGV[5] 开始。
+     * token 集合中的成员、token key 中记录的用户名只有在脚本中读出后才能拼出对应的 key，这些 key 不在 KEYS 中。
+     * 在线会话索引的成员为会话 key 去掉前缀后的部分（单设备为用户名，多设备为 Token），score 为会话过期时间戳（毫秒）
+     * <p>
+     * 会话以 Hash 存储（字段见 {@link SessionCodec}）；升级前写入的 JSON 字符串会话只读取 token 字段，不重新编码。
+     * token 集合为 ZSET（score 为登录时间戳），升级前写入的 SET 在下次登录时转换，转换前仍可读取和删除
+     */
+    private static final String SESSION_SCRIPT_PRELUDE = """
+            local single = ARGV[1] == 'single'
+            local sessionPrefix, tokenPrefix, tokensPrefix, indexKey = ARGV[2], ARGV[3], ARGV[4], KEYS[1]
+            local function sessionToken(sessionKey)
+                local keyType = redis.call('TYPE', sessionKey).ok
+                if keyType == 'hash' then
+                    return redis.call('HGET', sessionKey, 't') or nil
+                elseif keyType == 'string' then
+                    local ok, session = pcall(cjson.decode, redis.call('GET', sessionKey))
+                    if ok and type(session) == 'table' and type(session.token) == 'string' then
+                        return session.token
+                    end
+                end
+                return nil
+            end
+            local function tokenMembers(tokensKey)
+                local keyType = redis.call('TYPE', tokensKey).ok
+                if keyType == 'zset' then
+                    return redis.call('ZRANGE', tokensKey, 0, -1)
+                elseif keyType == 'set' then
+                    return redis.call('SMEMBERS', tokensKey)
+                end
+                return {}
+            end
+            local function removeMember(tokensKey, token)
+                if redis.call('TYPE', tokensKey).ok == 'set' then
+                    redis.call('SREM', tokensKey, token)
+                else
+                    redis.call('ZREM', tokensKey, token)
+                end
+            end
+            local function touchSession(sessionKey, ttl, expireAt)
+                if redis.call('EXPIRE', sessionKey, ttl) == 0 then
+                    return false
+                end
+                if redis.call('TYPE', sessionKey).ok == 'hash' then
+                    redis.call('HSET', sessionKey, 'et', expireAt)
+                end
+                return true
+            end
+            """;
+
+    /**
+     * 保存会话脚本
+     * <p>
+     * KEYS[2] 会话 key，KEYS[3] token key，KEYS[4] token 集合 key；
+     * ARGV[5] 用户名，ARGV[6] Token，ARGV[7] 过期秒数，ARGV[8] 过期时间戳（毫秒），ARGV[9] 登录时间戳（毫秒），
+     * ARGV[10] 每个用户最多在线设备数（0 表示不限制），ARGV[11..] 会话字段（字段名、值交替）；
+     * 返回需要吊销的 Token：单设备模式为被挤掉的旧 Token，多设备模式为超出设备数上限被淘汰的最早登录的 Token
+     * <p>
+     * 多设备模式下先移除 token 集合中会话已过期的成员再计数，淘汰只针对仍在线的设备
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SAVE_SESSION_SCRIPT = new DefaultRedisScript<>(SESSION_SCRIPT_PRELUDE + """
+            local sessionKey, tokenKey, tokensKey = KEYS[2], KEYS[3], KEYS[4]
+            local username, token, ttl, expireAt = ARGV[5], ARGV[6], tonumber(ARGV[7]), ARGV[8]
+            local loginAt, maxDevices = ARGV[9], tonumber(ARGV[10])
+            local function writeSession()
+                redis.call('DEL', sessionKey)
+                redis.call('HSET', sessionKey, unpack(ARGV, 11))
+                redis.call('EXPIRE', sessionKey, ttl)
+            end
+            if single then
+                local oldToken = sessionToken(sessionKey)
+                if oldToken == token then
+                    oldToken = nil
+                end
+                if oldToken then
+                    redis.call('DEL', tokenPrefix .. oldToken)
+                end
+                writeSession()
+                redis.call('SET', tokenKey, username, 'EX', ttl)
+                redis.call('ZADD', indexKey, expireAt, username)
+                return oldToken and { oldToken } or {}
+            end
+            local keyTtl = redis.call('TTL', tokensKey)
+            local legacySet = redis.call('TYPE', tokensKey).ok == 'set'
+            local liveTokens = {}
+            for _, member in ipairs(tokenMembers(tokensKey)) do
+                if redis.call('EXISTS', sessionPrefix .. member) == 1 then
+                    liveTokens[#liveTokens + 1] = member
+                elseif not legacySet then
+                    redis.call('ZREM', tokensKey, member)
+                end
+            end
+            if legacySet then
+                -- 升级前写入的 SET 转换为 ZSET，登录时间未知的 token 记为 0，最先被淘汰
+                redis.call('DEL', tokensKey)
+                for _, member in ipairs(liveTokens) do
+                    redis.call('ZADD', tokensKey, 0, member)
+                end
+            end
+            writeSession()
+            redis.call('SET', tokenKey, username, 'EX', ttl)
+            redis.call('ZADD', tokensKey, loginAt, token)
+            redis.call('EXPIRE', tokensKey, math.max(keyTtl, ttl))
+            redis.call('ZADD', indexKey, expireAt, token)
+            local evicted = {}
+            if maxDevices > 0 then
+                local excess = redis.call('ZCARD', tokensKey) - maxDevices
+                if excess > 0 then
+                    evicted = redis.call('ZRANGE', tokensKey, 0, excess - 1)
+                    for _, member in ipairs(evicted) do
+                        redis.call('DEL', sessionPrefix .. member, tokenPrefix .. member)
+                        redis.call('ZREM', tokensKey, member)
+                        redis.call('ZREM', indexKey, member)
+                    end
+                end
+            end
+            return evicted
+            """, List.class);
+
+    /**
+     * 补全会话脚本
+     * <p>
+     * KEYS[1] 会话 key；ARGV[1] Token，ARGV[2..4] 登录地点、浏览器、操作系统；
+     * 只更新对应字段，不改变过期时间；会话已不存在或已切换为其他 Token 时返回 0
+     */
+    private static final RedisScript<Long> ENRICH_SESSION_SCRIPT = new DefaultRedisScript<>("""
+            local sessionKey = KEYS[1]
+            if redis.call('TYPE', sessionKey).ok ~= 'hash' or redis.call('HGET', sessionKey, 't') ~= ARGV[1] then
+                return 0
+            end
+            redis.call('HSET', sessionKey, 'loc', ARGV[2], 'b', ARGV[3], 'os', ARGV[4])
+            return 1
+            """, Long.class);
+
+    /**
+     * 删除用户全部会话脚本
+     * <p>
+     * KEYS[2] 单设备模式的会话 key，KEYS[3] token 集合 key；ARGV[5] 用户名；返回被删除会话的 Token 列表（需要吊销）
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> REMOVE_USER_SESSIONS_SCRIPT = new DefaultRedisScript<>(SESSION_SCRIPT_PRELUDE + """
+            local username = ARGV[5]
+            if single then
+                local sessionKey = KEYS[2]
+                local token = sessionToken(sessionKey)
+                redis.call('ZREM', indexKey, username)
+                if redis.call('DEL', sessionKey) == 0 or not token then
+                    return {}
+                end
+                redis.call('DEL', tokenPrefix .. token)
+                return { token }
+            end
+            local tokensKey = KEYS[3]
+            local tokens = tokenMembers(tokensKey)
+            for _, token in ipairs(tokens) do
+                redis.call('DEL', sessionPrefix .. token, tokenPrefix .. token)
+                redis.call('ZREM', indexKey, token)
+            end
+            redis.call('DEL', tokensKey)
+            return tokens
+            """, List.class);
+
+    /**
+     * 按 Token 删除会话脚本
+     * <p>
+     * KEYS[2] token key，KEYS[3] 多设备模式下该 Token 的会话 key；ARGV[5] Token；
+     * 返回 {用户名, 需要吊销的 Token...}，Token 不存在时返回空列表。
+     * 单设备模式删除该用户的唯一会话，多设备模式只删除该 Token 对应的设备会话
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> REMOVE_TOKEN_SESSION_SCRIPT = new DefaultRedisScript<>(SESSION_SCRIPT_PRELUDE + """
+            local token, tokenKey = ARGV[5], KEYS[2]
+            local username = redis.call('GET', tokenKey)
+            if not username then
+                return {}
+            end
+            redis.call('DEL', tokenKey)
+            if single then
+                local sessionKey = sessionPrefix .. username
+                local current = sessionToken(sessionKey)
+                redis.call('DEL', sessionKey)
+                redis.call('ZREM', indexKey, username)
+                if current and current ~= token then
+                    redis.call('DEL', tokenPrefix .. current)
+                    return { username, token, current }
+                end
+                return { username, token }
+            end
+            redis.call('DEL', KEYS[3])
+            removeMember(tokensPrefix .. username, token)
+            redis.call('ZREM', indexKey, token)
+            return { username, token }
+            """, List.class);
+
+    /**
+     * 刷新用户全部会话过期时间脚本
+     * <p>
+     * KEYS[2] 单设备模式的会话 key，KEYS[3] token 集合 key；
+     * ARGV[5] 用户名，ARGV[6] 过期秒数，ARGV[7] 过期时间戳（毫秒）；返回刷新的会话数
+     */
+    private static final RedisScript<Long> REFRESH_USER_SESSIONS_SCRIPT = new DefaultRedisScript<>(SESSION_SCRIPT_PRELUDE + """
+            local username, ttl, expireAt = ARGV[5], tonumber(ARGV[6]), ARGV[7]
+            if single then
+                local sessionKey = KEYS[2]
+                if not touchSession(sessionKey, ttl, expireAt) then
+                    return 0
+                end
+                redis.call('ZADD', indexKey, expireAt, username)
+                local token = sessionToken(sessionKey)
+                if token then
+                    redis.call('EXPIRE', tokenPrefix .. token, ttl)
+                end
+                return 1
+            end
+            local tokensKey = KEYS[3]
+            local tokens = tokenMembers(tokensKey)
+            for _, token in ipairs(tokens) do
+                if touchSession(sessionPrefix .. token, ttl, expireAt) then
+                    redis.call('EXPIRE', tokenPrefix .. token, ttl)
+                    redis.call('ZADD', indexKey, expireAt, token)
+                end
+            end
+            if #tokens > 0 then
+                redis.call('EXPIRE', tokensKey, ttl)
+            end
+            return #tokens
+            """, Long.class);
+
+    /**
+     * 按 Token 刷新会话过期时间脚本
+     * <p>
+     * KEYS[2] token key，KEYS[3] 多设备模式下该 Token 的会话 key；
+     * ARGV[5] Token，ARGV[6] 过期秒数，ARGV[7] 过期时间戳（毫秒）；返回刷新的会话数。
+     * 单设备模式刷新该用户的唯一会话；多设备模式只刷新该 Token 对应的设备会话，并保证 token 集合不早于该会话过期
+     */
+    private static final RedisScript<Long> REFRESH_TOKEN_SESSION_SCRIPT = new DefaultRedisScript<>(SESSION_SCRIPT_PRELUDE + """
+            local token, ttl, expireAt = ARGV[5], tonumber(ARGV[6]), ARGV[7]
+            local tokenKey = KEYS[2]
+            local username = redis.call('GET', tokenKey)
+            if not username then
+                return 0
+            end
+            if single then
+                local sessionKey = sessionPrefix .. username
+                if not touchSession(sessionKey, ttl, expireAt) then
+                    return 0
+                end
+                redis.call('ZADD', indexKey, expireAt, username)
+                local current = sessionToken(sessionKey) or token
+                redis.call('EXPIRE', tokenPrefix .. current, ttl)
+                return 1
+            end
+            if not touchSession(KEYS[3], ttl, expireAt) then
+                return 0
+            end
+            redis.call('EXPIRE', tokenKey, ttl)
+            redis.call('ZADD', indexKey, expireAt, token)
+            local tokensKey = tokensPrefix .. username
+            if redis.call('TTL', tokensKey) < ttl then
+                redis.call('EXPIRE', tokensKey, ttl)
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * 批量读取会话脚本
+     * <p>
+     * KEYS 为会话 key；对每个 key 返回：Hash 会话为 HGETALL 结果，升级前的 JSON 会话为 {JSON}，不存在为空列表
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> READ_SESSIONS_SCRIPT = new DefaultRedisScript<>("""
+            local result = {}
+            for i, key in ipairs(KEYS) do
+                local keyType = redis.call('TYPE', key).ok
+                if keyType == 'hash' then
+                    result[i] = redis.call('HGETALL', key)
+                elseif keyType == 'string' then
+                    result[i] = { redis.call('GET', key) }
+                else
+                    result[i] = {}
+                end
+            end
+            return result
+            """, List.class);
+
+    /**
+     * 清理 token 集合脚本
+     * <p>
+     * KEYS 为 token 集合 key，ARGV[1] 会话 key 前缀；移除会话已不存在的 token，返回 {移除数, 剩余有效数}
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> PURGE_TOKEN_SETS_SCRIPT = new DefaultRedisScript<>("""
+            local removed, live = 0, 0
+            for _, key in ipairs(KEYS) do
+                local keyType = redis.call('TYPE', key).ok
+                local tokens = {}
+                if keyType == 'zset' then
+                    tokens = redis.call('ZRANGE', key, 0, -1)
+                elseif keyType == 'set' then
+                    tokens = redis.call('SMEMBERS', key)
+                end
+                for _, token in ipairs(tokens) do
+                    if redis.call('EXISTS', ARGV[1] .. token) == 1 then
+                        live = live + 1
+                    else
+                        redis.call(keyType == 'zset' and 'ZREM' or 'SREM', key, token)
+                        removed = removed + 1
+                    end
+                end
+            end
+            return { removed, live }
+            """, List.class);
+
+    /**
+     * 读取用户在线 token 脚本
+     * <p>
+     * KEYS[1] token 集合 key，ARGV[1] 会话 key 前缀；返回会话仍存在的 token（按登录时间从新到旧），顺带移除已过期的成员
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> LIVE_TOKENS_SCRIPT = new DefaultRedisScript<>("""
+            local key = KEYS[1]
+            local keyType = redis.call('TYPE', key).ok
+            local tokens = {}
+            if keyType == 'zset' then
+                tokens = redis.call('ZREVRANGE', key, 0, -1)
+            elseif keyType == 'set' then
+                tokens = redis.call('SMEMBERS', key)
+            end
+            local live = {}
+            for _, token in ipairs(tokens) do
+                if redis.call('EXISTS', ARGV[1] .. token) == 1 then
+                    live[#live + 1] = token
+                else
+                    redis.call(keyType == 'zset' and 'ZREM' or 'SREM', key, token)
+                end
+            end
+            return live
+            """, List.class);
 
     /**
      * 登录策略配置：single-单设备登录（互踢），multiple-多设备登录
@@ -41,12 +487,35 @@ public class UserSessionService {
     @Value("${login.session.strategy}")
     private String loginStrategy;
 
+    /**
+     * 多设备模式下每个用户最多在线设备数，超出时淘汰最早登录的设备，0 表示不限制
+     */
+    @Value("${login.session.max-devices:10}")
+    private int maxDevices;
+
+    /**
+     * 遍历在线会话时的每页条数
+     */
+    private static final int ONLINE_SESSION_PAGE_SIZE = 500;
+
+    /**
+     * 带过滤条件分页时，单页最多扫描的成员数相对页大小的倍数
+     */
+    private static final int ONLINE_SESSION_MAX_SCAN_FACTOR = 10;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (redisTemplate.getConnectionFactory() instanceof LettuceConnectionFactory factory && factory.isClusterAware()) {
+            throw new IllegalStateException("用户会话脚本会访问运行时才能确定的 key，不支持 Redis Cluster");
+        }
+    }
+
     /**
      * 保存用户会话到 Redis
      * <p>
      * 支持两种登录策略：
      * - single：单设备登录（互踢），新登录会使旧 token 失效
-     * - multiple：多设备登录，允许同一用户同时在多个设备登录
+     * - multiple：多设备登录，允许同一用户同时在多个设备登录，超出 maxDevices 时淘汰最早登录的设备
      *
      * @param userSessionVO 用户会话信息
      * @param expireMinutes 过期时间（分钟）
@@ -56,12 +525,31 @@ public class UserSessionService {
             String username = userSessionVO.getUsername();
             String token = userSessionVO.getToken();
 
-            if ("single".equalsIgnoreCase(loginStrategy)) {
-                // 单设备登录策略：删除旧的 token 和 session
-                saveSingleDeviceSession(username, token, userSessionVO, expireMinutes);
-            } else {
-                // 多设备登录策略（默认）：允许多个 token 同时有效
-                saveMultipleDeviceSession(username, token, userSessionVO, expireMinutes);
+            List<String> args = new ArrayList<>(32);
+            args.add(username);
+            args.add(token);
+            args.add(String.valueOf(TimeUnit.MINUTES.toSeconds(expireMinutes)));
+            args.add(expireAtMillis(expireMinutes));
+            LocalDateTime loginTime = userSessionVO.getLoginTime() != null ? userSessionVO.getLoginTime() : LocalDateTime.now();
+            args.add(String.valueOf(loginTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+            args.add(String.valueOf(Math.max(maxDevices, 0)));
+            sessionCodec.encode(userSessionVO).forEach((field, value) -> {
+                args.add(field);
+                args.add(value);
+            });
+
+            // 单设备策略下返回被挤掉的旧 token，多设备策略下返回超出设备数上限被淘汰的 token
+            List<String> evictedTokens = executeSessionScript(SAVE_SESSION_SCRIPT,
+                    List.of(sessionKey(username, token), USER_TOKEN_KEY_PREFIX + token, USER_TOKENS_SET_KEY_PREFIX + username),
+                    args.toArray(String[]::new));
+            if (evictedTokens != null && !evictedTokens.isEmpty()) {
+                revokeTokens(evictedTokens);
+                sessionNearCache.invalidate(evictedTokens);
+                if ("single".equalsIgnoreCase(loginStrategy)) {
+                    log.info("用户 [{}] 重新登录，已删除旧 token 映射（单设备策略）", username);
+                } else {
+                    log.info("用户 [{}] 在线设备数超过上限 {}，已淘汰最早登录的 {} 个设备", username, maxDevices, evictedTokens.size());
+                }
             }
 
             log.info("用户 [{}] 登录会话已保存到 Redis，策略：{}，过期时间：{} 分钟", username, loginStrategy, expireMinutes);
@@ -71,46 +559,22 @@ public class UserSessionService {
     }
 
     /**
-     * 单设备登录策略：保存会话
+     * 补全会话中的归属地、浏览器、操作系统（由登录事件管道异步调用）
+     * <p>
+     * 保留会话原有的过期时间；会话已不存在或已切换为其他 Token 时不做处理
+     *
+     * @param username      用户名
+     * @param token         Token
+     * @param loginLocation 登录地点
+     * @param browser       浏览器
+     * @param os            操作系统
      */
-    private void saveSingleDeviceSession(String username, String token, UserSessionVO userSessionVO, Long expireMinutes) throws JsonProcessingException {
-        // 1. 先获取旧的会话信息，删除旧的 token 映射
-        UserSessionVO oldSession = getSessionByUsername(username);
-        if (oldSession != null && oldSession.getToken() != null) {
-            String oldTokenKey = USER_TOKEN_KEY_PREFIX + oldSession.getToken();
-            redisTemplate.delete(oldTokenKey);
-            log.info("用户 [{}] 重新登录，已删除旧 token 映射（单设备策略）", username);
+    public void enrichSession(String username, String token, String loginLocation, String browser, String os) {
+        Long enriched = redisTemplate.execute(ENRICH_SESSION_SCRIPT, List.of(sessionKey(username, token)), token,
+                Objects.toString(loginLocation, ""), Objects.toString(browser, ""), Objects.toString(os, ""));
+        if (enriched != null && enriched > 0) {
+            sessionNearCache.invalidate(List.of(token));
         }
-
-        String sessionJson = objectMapper.writeValueAsString(userSessionVO);
-
-        // 2. 保存 username -> session 映射（单设备只保存最新的一个 session）
-        String userSessionKey = USER_SESSION_KEY_PREFIX + username;
-        redisTemplate.opsForValue().set(userSessionKey, sessionJson, expireMinutes, TimeUnit.MINUTES);
-
-        // 3. 保存 token -> username 映射
-        String tokenKey = USER_TOKEN_KEY_PREFIX + token;
-        redisTemplate.opsForValue().set(tokenKey, username, expireMinutes, TimeUnit.MINUTES);
-    }
-
-    /**
-     * 多设备登录策略：保存会话
-     */
-    private void saveMultipleDeviceSession(String username, String token, UserSessionVO userSessionVO, Long expireMinutes) throws JsonProcessingException {
-        String sessionJson = objectMapper.writeValueAsString(userSessionVO);
-
-        // 1. 保存 token -> session 映射（多设备时，每个 token 对应一个独立的 session）
-        String tokenSessionKey = USER_SESSION_KEY_PREFIX + token;
-        redisTemplate.opsForValue().set(tokenSessionKey, sessionJson, expireMinutes, TimeUnit.MINUTES);
-
-        // 2. 保存 token -> username 映射
-        String tokenKey = USER_TOKEN_KEY_PREFIX + token;
-        redisTemplate.opsForValue().set(tokenKey, username, expireMinutes, TimeUnit.MINUTES);
-
-        // 3. 将 token 添加到用户的 token 集合中（用于管理该用户的所有设备）
-        String userTokensSetKey = USER_TOKENS_SET_KEY_PREFIX + username;
-        redisTemplate.opsForSet().add(userTokensSetKey, token);
-        redisTemplate.expire(userTokensSetKey, expireMinutes, TimeUnit.MINUTES);
     }
 
     /**
@@ -123,41 +587,22 @@ public class UserSessionService {
      * @return 会话信息，不存在则返回 null
      */
     public UserSessionVO getSessionByUsername(String username) {
-        try {
-            if ("single".equalsIgnoreCase(loginStrategy)) {
-                // 单设备模式：直接从 user:session:{username} 获取
-                String userSessionKey = USER_SESSION_KEY_PREFIX + username;
-                String sessionJson = redisTemplate.opsForValue().get(userSessionKey);
-
-                if (sessionJson == null) {
-                    return null;
-                }
-
-                return objectMapper.readValue(sessionJson, UserSessionVO.class);
-            } else {
-                // 多设备模式：从用户的 token 集合中获取任意一个有效的 session
-                String userTokensSetKey = USER_TOKENS_SET_KEY_PREFIX + username;
-                Set<String> tokens = redisTemplate.opsForSet().members(userTokensSetKey);
-
-                if (tokens == null || tokens.isEmpty()) {
-                    return null;
-                }
-
-                // 返回第一个有效的 session
-                for (String token : tokens) {
-                    String tokenSessionKey = USER_SESSION_KEY_PREFIX + token;
-                    String sessionJson = redisTemplate.opsForValue().get(tokenSessionKey);
-                    if (sessionJson != null) {
-                        return objectMapper.readValue(sessionJson, UserSessionVO.class);
-                    }
-                }
+        if ("single".equalsIgnoreCase(loginStrategy)) {
+            // 单设备模式：直接从 user:session:{username} 获取
+            return readSession(USER_SESSION_KEY_PREFIX + username);
+        }
 
-                return null;
-            }
-        } catch (JsonProcessingException e) {
-            log.error("获取用户会话失败，反序列化异常", e);
+        // 多设备模式：从用户的 token 集合中获取最近登录的有效 session
+        List<String> tokens = getLiveTokens(username);
+        if (tokens.isEmpty()) {
             return null;
         }
+        for (UserSessionVO session : readSessions(tokens.stream().map(token -> USER_SESSION_KEY_PREFIX + token).toList())) {
+            if (session != null) {
+                return session;
+            }
+        }
+        return null;
     }
 
     /**
@@ -169,36 +614,25 @@ public class UserSessionService {
     public List<UserSessionVO> getAllSessionsByUsername(String username) {
         List<UserSessionVO> sessions = new ArrayList<>();
 
-        try {
-            if ("single".equalsIgnoreCase(loginStrategy)) {
-                // 单设备模式：只有一个会话
-                UserSessionVO session = getSessionByUsername(username);
-                if (session != null) {
-                    sessions.add(session);
-                }
-            } else {
-                // 多设备模式：获取所有设备的会话
-                String userTokensSetKey = USER_TOKENS_SET_KEY_PREFIX + username;
-                Set<String> tokens = redisTemplate.opsForSet().members(userTokensSetKey);
-
-                if (tokens != null && !tokens.isEmpty()) {
-                    for (String token : tokens) {
-                        String tokenSessionKey = USER_SESSION_KEY_PREFIX + token;
-                        String sessionJson = redisTemplate.opsForValue().get(tokenSessionKey);
-                        if (sessionJson != null) {
-                            UserSessionVO session = objectMapper.readValue(sessionJson, UserSessionVO.class);
-                            sessions.add(session);
-                        } else {
-                            // 清理已过期的 token
-                            redisTemplate.opsForSet().remove(userTokensSetKey, token);
-                        }
-                    }
-                }
+        if ("single".equalsIgnoreCase(loginStrategy)) {
+            // 单设备模式：只有一个会话
+            UserSessionVO session = getSessionByUsername(username);
+            if (session != null) {
+                sessions.add(session);
             }
-        } catch (JsonProcessingException e) {
-            log.error("获取用户所有会话失败，反序列化异常", e);
+            return sessions;
         }
 
+        // 多设备模式：取出在线 token（顺带清理已过期的 token）后一次读取所有设备的会话
+        List<String> tokens = getLiveTokens(username);
+        if (tokens.isEmpty()) {
+            return sessions;
+        }
+        for (UserSessionVO session : readSessions(tokens.stream().map(token -> USER_SESSION_KEY_PREFIX + token).toList())) {
+            if (session != null) {
+                sessions.add(session);
+            }
+        }
         return sessions;
     }
 
@@ -209,32 +643,26 @@ public class UserSessionService {
      * @return 会话信息，不存在则返回 null
      */
     public UserSessionVO getSessionByToken(String token) {
-        try {
-            if ("single".equalsIgnoreCase(loginStrategy)) {
-                // 单设备模式：token -> username -> session
-                String tokenKey = USER_TOKEN_KEY_PREFIX + token;
-                String username = redisTemplate.opsForValue().get(tokenKey);
-
-                if (username == null) {
-                    return null;
-                }
-
-                return getSessionByUsername(username);
-            } else {
-                // 多设备模式：token -> session（直接获取）
-                String tokenSessionKey = USER_SESSION_KEY_PREFIX + token;
-                String sessionJson = redisTemplate.opsForValue().get(tokenSessionKey);
-
-                if (sessionJson == null) {
-                    return null;
-                }
+        UserSessionVO cached = sessionNearCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
 
-                return objectMapper.readValue(sessionJson, UserSessionVO.class);
+        if ("single".equalsIgnoreCase(loginStrategy)) {
+            // 单设备模式：token -> username -> session
+            String username = redisTemplate.opsForValue().get(USER_TOKEN_KEY_PREFIX + token);
+            if (username == null) {
+                return null;
             }
-        } catch (JsonProcessingException e) {
-            log.error("根据 token 获取会话失败，反序列化异常", e);
-            return null;
+            UserSessionVO session = getSessionByUsername(username);
+            sessionNearCache.put(token, session);
+            return session;
         }
+
+        // 多设备模式：token -> session（直接获取）
+        UserSessionVO session = readSession(USER_SESSION_KEY_PREFIX + token);
+        sessionNearCache.put(token, session);
+        return session;
     }
 
     /**
@@ -246,37 +674,11 @@ public class UserSessionService {
      * @param username 用户名
      */
     public void removeSession(String username) {
-        if ("single".equalsIgnoreCase(loginStrategy)) {
-            // 单设备模式：删除唯一的会话和 token 映射
-            UserSessionVO session = getSessionByUsername(username);
-            if (session != null && session.getToken() != null) {
-                String tokenKey = USER_TOKEN_KEY_PREFIX + session.getToken();
-                redisTemplate.delete(tokenKey);
-            }
-
-            String userSessionKey = USER_SESSION_KEY_PREFIX + username;
-            redisTemplate.delete(userSessionKey);
-
-            log.info("用户 [{}] 的会话已删除（单设备模式）", username);
-        } else {
-            // 多设备模式：删除所有设备的会话
-            String userTokensSetKey = USER_TOKENS_SET_KEY_PREFIX + username;
-            Set<String> tokens = redisTemplate.opsForSet().members(userTokensSetKey);
-
-            if (tokens != null && !tokens.isEmpty()) {
-                for (String token : tokens) {
-                    String tokenSessionKey = USER_SESSION_KEY_PREFIX + token;
-                    String tokenKey = USER_TOKEN_KEY_PREFIX + token;
-                    redisTemplate.delete(tokenSessionKey);
-                    redisTemplate.delete(tokenKey);
-                }
-            }
-
-            // 删除 token 集合
-            redisTemplate.delete(userTokensSetKey);
-
-            log.info("用户 [{}] 的所有设备会话已删除（多设备模式）", username);
-        }
+        List<String> tokens = executeSessionScript(REMOVE_USER_SESSIONS_SCRIPT, userKeys(username), username);
+        revokeTokens(tokens);
+        sessionNearCache.invalidate(tokens);
+        log.info("用户 [{}] 的会话已删除（{}模式），共 {} 个", username,
+                "single".equalsIgnoreCase(loginStrategy) ? "单设备" : "多设备", tokens.size());
     }
 
     /**
@@ -288,28 +690,14 @@ public class UserSessionService {
      * @param token Token
      */
     public void removeSessionByToken(String token) {
-        String tokenKey = USER_TOKEN_KEY_PREFIX + token;
-        String username = redisTemplate.opsForValue().get(tokenKey);
-
-        if (username == null) {
+        List<String> result = executeSessionScript(REMOVE_TOKEN_SESSION_SCRIPT, tokenKeys(token), token);
+        if (result.isEmpty()) {
             return;
         }
-
-        if ("single".equalsIgnoreCase(loginStrategy)) {
-            // 单设备模式：删除用户的唯一会话
-            removeSession(username);
-        } else {
-            // 多设备模式：只删除该 token 对应的设备会话
-            String tokenSessionKey = USER_SESSION_KEY_PREFIX + token;
-            redisTemplate.delete(tokenSessionKey);
-            redisTemplate.delete(tokenKey);
-
-            // 从用户的 token 集合中移除该 token
-            String userTokensSetKey = USER_TOKENS_SET_KEY_PREFIX + username;
-            redisTemplate.opsForSet().remove(userTokensSetKey, token);
-
-            log.info("用户 [{}] 的设备会话已删除（token: {}）", username, token.substring(0, Math.min(20, token.length())) + "...");
-        }
+        List<String> tokens = result.subList(1, result.size());
+        revokeTokens(tokens);
+        sessionNearCache.invalidate(tokens);
+        log.info("用户 [{}] 的设备会话已删除（token: {}）", result.get(0), token.substring(0, Math.min(20, token.length())) + "...");
     }
 
     /**
@@ -317,28 +705,107 @@ public class UserSessionService {
      * <p>
      * 单设备模式：每个用户一个会话
      * 多设备模式：返回所有设备的会话
+     * <p>
+     * 基于在线会话索引逐页读取，不再使用 KEYS 扫描整个键空间；在线会话较多时请使用 {@link #getOnlineSessions}
      *
      * @return 在线用户会话列表
      */
     public List<UserSessionVO> getAllOnlineSessions() {
         List<UserSessionVO> sessions = new ArrayList<>();
-        Set<String> keys = redisTemplate.keys(USER_SESSION_KEY_PREFIX + "*");
-
-        if (!keys.isEmpty()) {
-            for (String key : keys) {
-                String sessionJson = redisTemplate.opsForValue().get(key);
-                if (sessionJson != null) {
-                    try {
-                        UserSessionVO session = objectMapper.readValue(sessionJson, UserSessionVO.class);
-                        sessions.add(session);
-                    } catch (JsonProcessingException e) {
-                        log.error("反序列化会话信息失败：{}", key, e);
-                    }
+        String cursor = null;
+        do {
+            OnlineSessionPageVO page = getOnlineSessions(cursor, ONLINE_SESSION_PAGE_SIZE, null);
+            sessions.addAll(page.getSessions());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return sessions;
+    }
+
+    /**
+     * 游标分页获取在线会话
+     * <p>
+     * 在线会话索引按过期时间升序排列，游标为上一页最后一个成员的 "score:成员"，
+     * 每页通过 ZRANGEBYSCORE + 一次批量读取脚本获取，代价只与页大小有关；
+     * 已过期的成员在读取时顺带清理，索引中存在但会话已不存在的成员同样移除。
+     * <p>
+     * 指定过滤条件时，为避免单次请求扫描过多数据，最多扫描 limit 的 {@value #ONLINE_SESSION_MAX_SCAN_FACTOR} 倍，
+     * 本页不足 limit 条时可继续使用返回的游标获取
+     *
+     * @param cursor 游标，首页传 null
+     * @param limit  每页条数
+     * @param filter 过滤条件，可为 null
+     * @return 在线会话分页结果
+     */
+    public OnlineSessionPageVO getOnlineSessions(String cursor, int limit, Predicate<UserSessionVO> filter) {
+        long now = System.currentTimeMillis();
+        // 惰性清理已过期的成员
+        redisTemplate.opsForZSet().removeRangeByScore(USER_SESSION_INDEX_KEY, 0, now);
+
+        limit = Math.max(limit, 1);
+        double minScore = now;
+        double cursorScore = 0;
+        String lastMember = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            int index = cursor.indexOf(':');
+            cursorScore = Double.parseDouble(cursor.substring(0, index));
+            lastMember = cursor.substring(index + 1);
+            minScore = Math.max(now, cursorScore);
+        }
+
+        List<UserSessionVO> sessions = new ArrayList<>(limit);
+        List<String> staleMembers = new ArrayList<>();
+        String nextCursor = null;
+        long offset = 0;
+        int scanned = 0;
+        int maxScan = filter == null ? Integer.MAX_VALUE : limit * ONLINE_SESSION_MAX_SCAN_FACTOR;
+
+        page:
+        while (true) {
+            Set<ZSetOperations.TypedTuple<String>> tuples = redisTemplate.opsForZSet()
+                    .rangeByScoreWithScores(USER_SESSION_INDEX_KEY, minScore, Double.POSITIVE_INFINITY, offset, limit);
+            if (tuples == null || tuples.isEmpty()) {
+                break;
+            }
+            offset += tuples.size();
+
+            List<ZSetOperations.TypedTuple<String>> candidates = new ArrayList<>(tuples.size());
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                // 与游标同分的成员按字典序排列，跳过游标及其之前的成员
+                if (lastMember != null && tuple.getScore() == cursorScore && tuple.getValue().compareTo(lastMember) <= 0) {
+                    continue;
                 }
+                candidates.add(tuple);
+            }
+
+            List<UserSessionVO> values = readSessions(
+                    candidates.stream().map(tuple -> USER_SESSION_KEY_PREFIX + tuple.getValue()).toList());
+            for (int i = 0; i < candidates.size(); i++) {
+                ZSetOperations.TypedTuple<String> tuple = candidates.get(i);
+                UserSessionVO session = values.get(i);
+                scanned++;
+                if (session == null) {
+                    staleMembers.add(tuple.getValue());
+                } else if (filter == null || filter.test(session)) {
+                    sessions.add(session);
+                }
+                if (sessions.size() >= limit || scanned >= maxScan) {
+                    nextCursor = tuple.getScore().longValue() + ":" + tuple.getValue();
+                    break page;
+                }
+            }
+
+            if (tuples.size() < limit) {
+                break;
             }
         }
 
-        return sessions;
+        if (!staleMembers.isEmpty()) {
+            redisTemplate.opsForZSet().remove(USER_SESSION_INDEX_KEY, staleMembers.toArray());
+        }
+        return OnlineSessionPageVO.builder()
+                .sessions(sessions)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     /**
@@ -361,32 +828,10 @@ public class UserSessionService {
      * @param expireMinutes 过期时间（分钟）
      */
     public void refreshSessionExpire(String username, Long expireMinutes) {
-        if ("single".equalsIgnoreCase(loginStrategy)) {
-            // 单设备模式：刷新唯一的会话
-            String userSessionKey = USER_SESSION_KEY_PREFIX + username;
-            UserSessionVO session = getSessionByUsername(username);
-
-            if (session != null) {
-                redisTemplate.expire(userSessionKey, expireMinutes, TimeUnit.MINUTES);
-                String tokenKey = USER_TOKEN_KEY_PREFIX + session.getToken();
-                redisTemplate.expire(tokenKey, expireMinutes, TimeUnit.MINUTES);
-                log.debug("用户 [{}] 的会话过期时间已刷新（单设备模式）", username);
-            }
-        } else {
-            // 多设备模式：刷新所有设备的会话
-            String userTokensSetKey = USER_TOKENS_SET_KEY_PREFIX + username;
-            Set<String> tokens = redisTemplate.opsForSet().members(userTokensSetKey);
-
-            if (tokens != null && !tokens.isEmpty()) {
-                for (String token : tokens) {
-                    String tokenSessionKey = USER_SESSION_KEY_PREFIX + token;
-                    String tokenKey = USER_TOKEN_KEY_PREFIX + token;
-                    redisTemplate.expire(tokenSessionKey, expireMinutes, TimeUnit.MINUTES);
-                    redisTemplate.expire(tokenKey, expireMinutes, TimeUnit.MINUTES);
-                }
-                redisTemplate.expire(userTokensSetKey, expireMinutes, TimeUnit.MINUTES);
-                log.debug("用户 [{}] 的所有设备会话过期时间已刷新（多设备模式）", username);
-            }
+        Long refreshed = executeSessionScript(REFRESH_USER_SESSIONS_SCRIPT, userKeys(username), username,
+                String.valueOf(TimeUnit.MINUTES.toSeconds(expireMinutes)), expireAtMillis(expireMinutes));
+        if (refreshed != null && refreshed > 0) {
+            log.debug("用户 [{}] 的 {} 个会话过期时间已刷新", username, refreshed);
         }
     }
 
@@ -397,22 +842,10 @@ public class UserSessionService {
      * @param expireMinutes 过期时间（分钟）
      */
     public void refreshSessionExpireByToken(String token, Long expireMinutes) {
-        String tokenKey = USER_TOKEN_KEY_PREFIX + token;
-        String username = redisTemplate.opsForValue().get(tokenKey);
-
-        if (username == null) {
-            return;
-        }
-
-        if ("single".equalsIgnoreCase(loginStrategy)) {
-            // 单设备模式：直接刷新
-            refreshSessionExpire(username, expireMinutes);
-        } else {
-            // 多设备模式：只刷新该 token 对应的设备会话
-            String tokenSessionKey = USER_SESSION_KEY_PREFIX + token;
-            redisTemplate.expire(tokenSessionKey, expireMinutes, TimeUnit.MINUTES);
-            redisTemplate.expire(tokenKey, expireMinutes, TimeUnit.MINUTES);
-            log.debug("用户 [{}] 的指定设备会话过期时间已刷新（token: {}）", username, token.substring(0, Math.min(20, token.length())) + "...");
+        Long refreshed = executeSessionScript(REFRESH_TOKEN_SESSION_SCRIPT, tokenKeys(token), token,
+                String.valueOf(TimeUnit.MINUTES.toSeconds(expireMinutes)), expireAtMillis(expireMinutes));
+        if (refreshed != null && refreshed > 0) {
+            log.debug("会话过期时间已刷新（token: {}）", token.substring(0, Math.min(20, token.length())) + "...");
         }
     }
 
@@ -429,14 +862,14 @@ public class UserSessionService {
             return redisTemplate.hasKey(userSessionKey);
         } else {
             // 多设备模式：检查是否有任意一个设备在线
-            String userTokensSetKey = USER_TOKENS_SET_KEY_PREFIX + username;
-            Set<String> tokens = redisTemplate.opsForSet().members(userTokensSetKey);
-            return tokens != null && !tokens.isEmpty();
+            return getOnlineDeviceCount(username) > 0;
         }
     }
 
     /**
      * 获取用户在线设备数量（仅多设备模式有效）
+     * <p>
+     * 多设备模式下一次往返完成统计，顺带移除集合中会话已过期的 token，结果不受残留成员影响
      *
      * @param username 用户名
      * @return 在线设备数量
@@ -445,9 +878,239 @@ public class UserSessionService {
         if ("single".equalsIgnoreCase(loginStrategy)) {
             return isOnline(username) ? 1 : 0;
         } else {
-            String userTokensSetKey = USER_TOKENS_SET_KEY_PREFIX + username;
-            Set<String> tokens = redisTemplate.opsForSet().members(userTokensSetKey);
-            return tokens != null ? tokens.size() : 0;
+            return getLiveTokens(username).size();
+        }
+    }
+
+    /**
+     * 清理过期会话的残留数据
+     * <p>
+     * 会话 key 自身依靠 TTL 过期，但多设备模式下 token 集合中的成员不会随之删除，在线会话索引中的成员同样会残留：
+     * - 移除在线会话索引中已过期的成员
+     * - SCAN 遍历所有 token 集合，每 batchSize 个集合执行一次清理脚本，移除会话已不存在的 token
+     * <p>
+     * 集合中最后一个成员被移除后集合自动删除
+     *
+     * @param batchSize 每批清理的 token 集合数
+     * @return 移除的 token 数
+     */
+    public long purgeExpiredSessions(int batchSize) {
+        redisTemplate.opsForZSet().removeRangeByScore(USER_SESSION_INDEX_KEY, 0, System.currentTimeMillis());
+
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(USER_TOKENS_SET_KEY_PREFIX + "*")
+                .count(batchSize)
+                .build();
+        long removed = 0;
+        List<String> batch = new ArrayList<>(batchSize);
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= batchSize) {
+                    removed += purgeTokenSets(batch)[0];
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            removed += purgeTokenSets(batch)[0];
+        }
+        return removed;
+    }
+
+    /**
+     * 获取用户会话仍存在的 token（按登录时间从新到旧），顺带移除已过期的成员
+     *
+     * @param username 用户名
+     * @return token 列表
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> getLiveTokens(String username) {
+        List<String> tokens = redisTemplate.execute(LIVE_TOKENS_SCRIPT,
+                List.of(USER_TOKENS_SET_KEY_PREFIX + username), USER_SESSION_KEY_PREFIX);
+        return tokens != null ? tokens : List.of();
+    }
+
+    /**
+     * 移除 token 集合中会话已不存在的成员
+     *
+     * @param tokensSetKeys token 集合 key 列表
+     * @return {移除数, 剩余有效数}
+     */
+    @SuppressWarnings("unchecked")
+    private long[] purgeTokenSets(List<String> tokensSetKeys) {
+        List<Long> result = redisTemplate.execute(PURGE_TOKEN_SETS_SCRIPT, tokensSetKeys, USER_SESSION_KEY_PREFIX);
+        if (result == null || result.size() < 2) {
+            return new long[]{0, 0};
+        }
+        return new long[]{result.get(0), result.get(1)};
+    }
+
+    /**
+     * 执行会话脚本（一次往返，原子执行）
+     *
+     * @param script     脚本
+     * @param keys       在线会话索引 key 之后的 KEYS
+     * @param scriptArgs 脚本自身的参数（从 ARGV[5] 开始）
+     * @return 脚本返回值
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T executeSessionScript(RedisScript<?> script, List<String> keys, String... scriptArgs) {
+        List<String> scriptKeys = new ArrayList<>(keys.size() + 1);
+        scriptKeys.add(USER_SESSION_INDEX_KEY);
+        scriptKeys.addAll(keys);
+        Object[] args = new Object[4 + scriptArgs.length];
+        args[0] = "single".equalsIgnoreCase(loginStrategy) ? "single" : "multiple";
+        args[1] = USER_SESSION_KEY_PREFIX;
+        args[2] = USER_TOKEN_KEY_PREFIX;
+        args[3] = USER_TOKENS_SET_KEY_PREFIX;
+        System.arraycopy(scriptArgs, 0, args, 4, scriptArgs.length);
+        return (T) redisTemplate.execute(script, scriptKeys, args);
+    }
+
+    /**
+     * 会话 key：单设备模式按用户名，多设备模式按 Token
+     */
+    private String sessionKey(String username, String token) {
+        return USER_SESSION_KEY_PREFIX + ("single".equalsIgnoreCase(loginStrategy) ? username : token);
+    }
+
+    /**
+     * 按用户名操作的会话脚本的 KEYS：单设备模式的会话 key、token 集合 key
+     */
+    private static List<String> userKeys(String username) {
+        return List.of(USER_SESSION_KEY_PREFIX + username, USER_TOKENS_SET_KEY_PREFIX + username);
+    }
+
+    /**
+     * 按 Token 操作的会话脚本的 KEYS：token key、多设备模式下该 Token 的会话 key
+     */
+    private static List<String> tokenKeys(String token) {
+        return List.of(USER_TOKEN_KEY_PREFIX + token, USER_SESSION_KEY_PREFIX + token);
+    }
+
+    /**
+     * 读取单个会话
+     *
+     * @param sessionKey 会话 key
+     * @return 会话，不存在则返回 null
+     */
+    private UserSessionVO readSession(String sessionKey) {
+        return readSessions(List.of(sessionKey)).get(0);
+    }
+
+    /**
+     * 批量读取会话（一次往返）
+     * <p>
+     * Hash 会话由 {@link SessionCodec} 解码；升级前写入的 JSON 字符串会话回退为 Jackson 反序列化
+     *
+     * @param sessionKeys 会话 key 列表
+     * @return 与 key 一一对应的会话，不存在或无法解码的为 null
+     */
+    @SuppressWarnings("unchecked")
+    private List<UserSessionVO> readSessions(List<String> sessionKeys) {
+        if (sessionKeys.isEmpty()) {
+            return List.of();
+        }
+        List<List<String>> values = redisTemplate.execute(READ_SESSIONS_SCRIPT, sessionKeys);
+        List<UserSessionVO> sessions = new ArrayList<>(sessionKeys.size());
+        for (int i = 0; i < sessionKeys.size(); i++) {
+            List<String> value = values != null && i < values.size() ? values.get(i) : null;
+            sessions.add(decodeSession(sessionKeys.get(i), value));
+        }
+        return sessions;
+    }
+
+    private UserSessionVO decodeSession(String sessionKey, List<String> value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            if (value.size() == 1) {
+                return sessionCodec.decodeLegacy(value.get(0));
+            }
+            Map<String, String> fields = new HashMap<>(value.size());
+            for (int i = 0; i + 1 < value.size(); i += 2) {
+                fields.put(value.get(i), value.get(i + 1));
+            }
+            return sessionCodec.decode(fields);
+        } catch (IllegalArgumentException e) {
+            log.error("反序列化会话信息失败：{}", sessionKey, e);
+            return null;
+        }
+    }
+
+    /**
+     * 计算会话过期时间戳（毫秒），作为在线会话索引的 score
+     */
+    private static String expireAtMillis(long expireMinutes) {
+        return String.valueOf(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(expireMinutes));
+    }
+
+    /**
+     * 批量吊销 Token（吊销记录一次性广播）
+     *
+     * @param tokens Token 列表
+     */
+    private void revokeTokens(List<String> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        try {
+            jwtTokenHelper.revokeTokens(tokens);
+        } catch (Exception e) {
+            log.error("吊销 Token 失败", e);
+        }
+    }
+
+    /**
+     * 保存刷新 Token（刷新 Token ID -> 当前访问 Token）
+     *
+     * @param refreshTokenId 刷新 Token ID
+     * @param accessToken    对应的访问 Token
+     * @param expireMinutes  刷新 Token 过期时间（分钟）
+     */
+    @Override
+    public void save(String refreshTokenId, String accessToken, long expireMinutes) {
+        redisTemplate.opsForValue().set(USER_REFRESH_KEY_PREFIX + refreshTokenId, accessToken, expireMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * 轮换刷新 Token，并将会话从旧访问 Token 切换到新访问 Token
+     * <p>
+     * 旧刷新 Token 已使用、已过期，或会话已被删除（退出登录、强制下线、单设备模式下被新登录挤掉）时返回 false
+     * <p>
+     * 轮换成功后吊销旧访问 Token
+     */
+    @Override
+    public boolean rotate(String username, String oldRefreshTokenId, String newRefreshTokenId, String newAccessToken,
+                          long refreshExpireMinutes, long accessExpireMinutes) {
+        try {
+            String expireTime = objectMapper.writeValueAsString(LocalDateTime.now().plusMinutes(accessExpireMinutes));
+            long expireAtMillis = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(accessExpireMinutes);
+            String oldAccessToken = redisTemplate.execute(ROTATE_REFRESH_TOKEN_SCRIPT,
+                    List.of(USER_REFRESH_KEY_PREFIX + oldRefreshTokenId, USER_REFRESH_KEY_PREFIX + newRefreshTokenId,
+                            sessionKey(username, newAccessToken), USER_TOKEN_KEY_PREFIX + newAccessToken,
+                            USER_TOKENS_SET_KEY_PREFIX + username, USER_SESSION_INDEX_KEY),
+                    newAccessToken,
+                    String.valueOf(TimeUnit.MINUTES.toSeconds(refreshExpireMinutes)),
+                    String.valueOf(TimeUnit.MINUTES.toSeconds(accessExpireMinutes)),
+                    "single".equalsIgnoreCase(loginStrategy) ? "single" : "multiple",
+                    username,
+                    expireTime,
+                    USER_SESSION_KEY_PREFIX,
+                    USER_TOKEN_KEY_PREFIX,
+                    String.valueOf(expireAtMillis));
+            if (oldAccessToken == null) {
+                return false;
+            }
+            // 旧访问 Token 不再属于任何会话，之后的退出登录只会吊销当前 Token，这里必须立即吊销
+            sessionNearCache.invalidate(List.of(oldAccessToken));
+            revokeTokens(List.of(oldAccessToken));
+            return true;
+        } catch (JsonProcessingException e) {
+            log.error("轮换刷新 Token 失败，序列化异常", e);
+            return false;
         }
     }
 }
@@ -1,5 +1,6 @@
 package com.cosmos.origin.admin.service.impl;
 
+import com.cosmos.origin.admin.cache.UserAuthorityInvalidator;
 import com.cosmos.origin.admin.domain.dos.RoleDO;
 import com.cosmos.origin.admin.domain.mapper.RoleMapper;
 import com.cosmos.origin.admin.model.vo.role.AddRoleReqVO;
@@ -25,6 +26,7 @@ import java.util.stream.Collectors;
 public class AdminRoleServiceImpl implements AdminRoleService {
 
     private final RoleMapper roleMapper;
+    private final UserAuthorityInvalidator userAuthorityInvalidator;
 
     /**
      * 角色分页数据获取
@@ -73,6 +75,10 @@ public class AdminRoleServiceImpl implements AdminRoleService {
                 .roleName(updateRoleReqVO.getRoleName())
                 .roleKey(updateRoleReqVO.getRoleKey())
                 .build());
+        if (update == 1) {
+            // 角色标识变更影响所有关联用户
+            userAuthorityInvalidator.invalidateRole(updateRoleReqVO.getId());
+        }
         return update == 1 ? Response.success() : Response.fail();
     }
 
@@ -85,6 +91,9 @@ public class AdminRoleServiceImpl implements AdminRoleService {
     @Override
     public Response<?> delete(DeleteRoleReqVO deleteRoleReqVO) {
         int delete = roleMapper.deleteById(deleteRoleReqVO.getId());
+        if (delete == 1) {
+            userAuthorityInvalidator.invalidateRole(deleteRoleReqVO.getId());
+        }
         return delete == 1 ? Response.success() : Response.fail();
     }
 
@@ -1,5 +1,7 @@
 package com.cosmos.origin.admin.service.impl;
 
+import com.cosmos.origin.admin.cache.UserAuthorityInvalidator;
+import com.cosmos.origin.admin.cache.UsernameBloomFilter;
 import com.cosmos.origin.admin.domain.dos.UserDO;
 import com.cosmos.origin.admin.domain.mapper.UserMapper;
 import com.cosmos.origin.admin.model.vo.user.*;
@@ -28,6 +30,8 @@ public class AdminUserServiceImpl implements AdminUserService {
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
     private final LoginAttemptService loginAttemptService;
+    private final UserAuthorityInvalidator userAuthorityInvalidator;
+    private final UsernameBloomFilter usernameBloomFilter;
 
     /**
      * 修改密码
@@ -46,6 +50,9 @@ public class AdminUserServiceImpl implements AdminUserService {
 
         // 更新到数据库
         int count = userMapper.updatePasswordByUsername(username, encodePassword);
+        if (count == 1) {
+            userAuthorityInvalidator.invalidateUser(username);
+        }
 
         return count == 1 ? Response.success() : Response.fail(ResponseCodeEnum.USERNAME_NOT_FOUND);
     }
@@ -131,6 +138,9 @@ public class AdminUserServiceImpl implements AdminUserService {
                 .email(addUserReqVO.getEmail())
                 .build();
         int insert = userMapper.insert(userDO);
+        if (insert == 1) {
+            usernameBloomFilter.add(userDO.getUsername());
+        }
 
         return insert == 1 ? Response.success() : Response.fail();
     }
@@ -143,6 +153,9 @@ public class AdminUserServiceImpl implements AdminUserService {
      */
     @Override
     public Response<?> updateUser(UpdateUserReqVO updateUserReqVO) {
+        // 先查出原用户名，用户名被修改时新旧两个用户名的权限都要失效
+        UserDO oldUser = userMapper.selectOneById(updateUserReqVO.getId());
+
         int update = userMapper.update(UserDO.builder()
                 .id(updateUserReqVO.getId())
                 .username(updateUserReqVO.getUsername())
@@ -150,6 +163,13 @@ public class AdminUserServiceImpl implements AdminUserService {
                 .nickname(updateUserReqVO.getNickname())
                 .avatar(updateUserReqVO.getAvatar())
                 .build());
+        if (update == 1) {
+            if (oldUser != null && !oldUser.getUsername().equals(updateUserReqVO.getUsername())) {
+                userAuthorityInvalidator.invalidateUser(oldUser.getUsername());
+            }
+            userAuthorityInvalidator.invalidateUser(updateUserReqVO.getUsername());
+            usernameBloomFilter.add(updateUserReqVO.getUsername());
+        }
         return update == 1 ? Response.success() : Response.fail();
     }
 
@@ -161,7 +181,12 @@ public class AdminUserServiceImpl implements AdminUserService {
      */
     @Override
     public Response<?> deleteUser(DeleteUserReqVO deleteUserReqVO) {
+        UserDO userDO = userMapper.selectOneById(deleteUserReqVO.getId());
         int delete = userMapper.deleteById(deleteUserReqVO.getId());
+        // 布隆过滤器不支持删除，已删除的用户名在下次重建时移除
+        if (delete == 1 && userDO != null) {
+            userAuthorityInvalidator.invalidateUser(userDO.getUsername());
+        }
 
         return delete == 1 ? Response.success() : Response.fail();
     }
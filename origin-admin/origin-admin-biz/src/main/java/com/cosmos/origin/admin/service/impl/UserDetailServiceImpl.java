@@ -8,11 +8,14 @@ import com.cosmos.origin.admin.domain.mapper.UserMapper;
 import com.cosmos.origin.common.enums.DeletedEnum;
 import com.cosmos.origin.common.enums.ResponseCodeEnum;
 import com.cosmos.origin.common.exception.BizException;
+import com.cosmos.origin.jwt.model.LoginUser;
 import com.mybatisflex.core.query.QueryWrapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -24,7 +27,8 @@ import java.util.Objects;
 /**
  * 用户详情服务实现类
  * <p>
- * 负责从数据库加载用户信息和角色，供 Spring Security 使用
+ * 负责从数据库加载用户信息和角色，供 Spring Security 使用；
+ * 同时支持登录成功后升级密码哈希（BCrypt 强度调整后由 DaoAuthenticationProvider 自动触发）
  *
  * @author 一陌千尘
  * @date 2025/11/04
@@ -32,7 +36,7 @@ import java.util.Objects;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class UserDetailServiceImpl implements UserDetailsService {
+public class UserDetailServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserMapper userMapper;
     private final RoleMapper roleMapper;
@@ -65,14 +69,32 @@ public class UserDetailServiceImpl implements UserDetailsService {
             throw new BizException(ResponseCodeEnum.USER_NOT_ROLE);
         }
 
-        // 转数组
-        List<String> roles = roleDOS.stream().map(RoleDO::getRoleKey).toList();
-        String[] roleArr = roles.toArray(new String[0]);
+        // authorities 用于指定角色；同时携带用户 ID、昵称，登录成功后无需再次查询
+        String[] roleArr = roleDOS.stream().map(RoleDO::getRoleKey).toArray(String[]::new);
+        return new LoginUser(userDO.getId(), userDO.getNickname(), userDO.getUsername(), userDO.getPassword(),
+                AuthorityUtils.createAuthorityList(roleArr));
+    }
 
-        // authorities 用于指定角色
-        return User.withUsername(userDO.getUsername())
-                .password(userDO.getPassword())
-                .authorities(roleArr)
+    /**
+     * 升级密码哈希
+     * <p>
+     * 明文密码不变，只是哈希强度变化，因此不需要使权限缓存或已签发的 Token 失效
+     *
+     * @param user        用户详情
+     * @param newPassword 按当前强度重新编码后的密码
+     * @return 更新密码后的用户详情
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        int count = userMapper.updatePasswordByUsername(user.getUsername(), newPassword);
+        if (count == 1) {
+            log.info("用户 [{}] 的密码哈希已升级", user.getUsername());
+        }
+        if (user instanceof LoginUser loginUser) {
+            return loginUser.withPassword(newPassword);
+        }
+        return User.withUserDetails(user)
+                .password(newPassword)
                 .build();
     }
 }
@@ -0,0 +1,144 @@
+package com.cosmos.origin.admin.session;
+
+import com.cosmos.origin.admin.model.vo.session.UserSessionVO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 紧凑会话编解码器（版本 2）
+ * <p>
+ * 字段名使用短名称，时间存为毫秒时间戳，角色存为 JSON 数组（角色标识中可以包含逗号），布尔值存为 1/0，空值不写入。
+ * 相比完整的 Jackson JSON，单个会话占用的内存和序列化开销都明显更小。
+ * <p>
+ * 版本 1 的角色以逗号拼接，仍可解码，直到这些会话自然过期。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Component
+@RequiredArgsConstructor
+public class CompactSessionCodec implements SessionCodec {
+
+    private static final int VERSION = 2;
+
+    /**
+     * 角色以逗号拼接的版本
+     */
+    private static final int VERSION_COMMA_ROLES = 1;
+
+    private static final TypeReference<List<String>> ROLES_TYPE = new TypeReference<>() {
+    };
+
+    private static final String FIELD_USERNAME = "u";
+    private static final String FIELD_USER_ID = "id";
+    private static final String FIELD_NICKNAME = "n";
+    private static final String FIELD_ROLES = "r";
+    private static final String FIELD_LOGIN_TIME = "lt";
+    private static final String FIELD_LOGIN_IP = "ip";
+    private static final String FIELD_REMEMBER_ME = "rm";
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public int version() {
+        return VERSION;
+    }
+
+    @Override
+    public Map<String, String> encode(UserSessionVO session) {
+        Map<String, String> fields = new LinkedHashMap<>(16);
+        fields.put(FIELD_VERSION, String.valueOf(VERSION));
+        put(fields, FIELD_USERNAME, session.getUsername());
+        put(fields, FIELD_USER_ID, session.getUserId() != null ? session.getUserId().toString() : null);
+        put(fields, FIELD_NICKNAME, session.getNickname());
+        put(fields, FIELD_ROLES, session.getRoles() != null ? writeRoles(session.getRoles()) : null);
+        put(fields, FIELD_TOKEN, session.getToken());
+        put(fields, FIELD_LOGIN_TIME, toMillis(session.getLoginTime()));
+        put(fields, FIELD_LOGIN_IP, session.getLoginIp());
+        put(fields, FIELD_LOGIN_LOCATION, session.getLoginLocation());
+        put(fields, FIELD_BROWSER, session.getBrowser());
+        put(fields, FIELD_OS, session.getOs());
+        put(fields, FIELD_REMEMBER_ME, session.getRememberMe() != null ? (session.getRememberMe() ? "1" : "0") : null);
+        put(fields, FIELD_EXPIRE_TIME, toMillis(session.getExpireTime()));
+        return fields;
+    }
+
+    @Override
+    public UserSessionVO decode(Map<String, String> fields) {
+        String versionValue = fields.get(FIELD_VERSION);
+        int version = versionValue != null ? Integer.parseInt(versionValue) : 0;
+        if (version < VERSION_COMMA_ROLES || version > VERSION) {
+            throw new IllegalArgumentException("不支持的会话编码版本: " + versionValue);
+        }
+        String userId = fields.get(FIELD_USER_ID);
+        String roles = fields.get(FIELD_ROLES);
+        String rememberMe = fields.get(FIELD_REMEMBER_ME);
+        return UserSessionVO.builder()
+                .username(fields.get(FIELD_USERNAME))
+                .userId(userId != null ? Long.valueOf(userId) : null)
+                .nickname(fields.get(FIELD_NICKNAME))
+                .roles(roles != null ? readRoles(roles, version) : null)
+                .token(fields.get(FIELD_TOKEN))
+                .loginTime(fromMillis(fields.get(FIELD_LOGIN_TIME)))
+                .loginIp(fields.get(FIELD_LOGIN_IP))
+                .loginLocation(fields.get(FIELD_LOGIN_LOCATION))
+                .browser(fields.get(FIELD_BROWSER))
+                .os(fields.get(FIELD_OS))
+                .rememberMe(rememberMe != null ? "1".equals(rememberMe) : null)
+                .expireTime(fromMillis(fields.get(FIELD_EXPIRE_TIME)))
+                .build();
+    }
+
+    @Override
+    public UserSessionVO decodeLegacy(String json) {
+        try {
+            return objectMapper.readValue(json, UserSessionVO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("无法解析 JSON 会话", e);
+        }
+    }
+
+    private String writeRoles(List<String> roles) {
+        try {
+            return objectMapper.writeValueAsString(roles);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("无法编码角色列表", e);
+        }
+    }
+
+    private List<String> readRoles(String roles, int version) {
+        if (version == VERSION_COMMA_ROLES) {
+            return roles.isEmpty() ? List.of() : Arrays.asList(roles.split(","));
+        }
+        try {
+            return objectMapper.readValue(roles, ROLES_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("无法解析角色列表: " + roles, e);
+        }
+    }
+
+    private static void put(Map<String, String> fields, String field, String value) {
+        if (value != null) {
+            fields.put(field, value);
+        }
+    }
+
+    private static String toMillis(LocalDateTime time) {
+        return time != null ? String.valueOf(time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()) : null;
+    }
+
+    private static LocalDateTime fromMillis(String millis) {
+        return millis != null ? LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(millis)), ZoneId.systemDefault()) : null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.cosmos.origin.admin.session;
+
+import com.cosmos.origin.admin.model.vo.session.UserSessionVO;
+
+import java.util.Map;
+
+/**
+ * 会话编解码器
+ * <p>
+ * 会话在 Redis 中以 Hash 存储，每个字段单独编码：刷新过期时间、轮换 Token、补全归属地等操作只需在脚本中
+ * HSET 个别字段，不必读出整个会话重新序列化。
+ * <p>
+ * 以下字段由 Lua 脚本直接读写，所有实现必须使用相同的字段名和编码：
+ * - {@link #FIELD_VERSION}：编码版本号，用于滚动升级时识别旧格式
+ * - {@link #FIELD_TOKEN}：Token 原文
+ * - {@link #FIELD_EXPIRE_TIME}：过期时间戳（毫秒）
+ * - {@link #FIELD_LOGIN_LOCATION}、{@link #FIELD_BROWSER}、{@link #FIELD_OS}：原文
+ * <p>
+ * 其余字段的命名和编码由实现自行决定。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+public interface SessionCodec {
+
+    String FIELD_VERSION = "v";
+    String FIELD_TOKEN = "t";
+    String FIELD_EXPIRE_TIME = "et";
+    String FIELD_LOGIN_LOCATION = "loc";
+    String FIELD_BROWSER = "b";
+    String FIELD_OS = "os";
+
+    /**
+     * 当前编码版本号
+     *
+     * @return 版本号
+     */
+    int version();
+
+    /**
+     * 编码会话
+     *
+     * @param session 会话
+     * @return Hash 字段（值为 null 的字段不写入）
+     */
+    Map<String, String> encode(UserSessionVO session);
+
+    /**
+     * 解码会话
+     *
+     * @param fields Hash 字段
+     * @return 会话
+     * @throws IllegalArgumentException 版本号不受支持
+     */
+    UserSessionVO decode(Map<String, String> fields);
+
+    /**
+     * 解码升级前以 JSON 字符串存储的会话
+     *
+     * @param json JSON 字符串
+     * @return 会话
+     * @throws IllegalArgumentException 无法解析
+     */
+    UserSessionVO decodeLegacy(String json);
+}
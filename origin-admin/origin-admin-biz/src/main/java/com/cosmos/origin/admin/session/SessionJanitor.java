@@ -0,0 +1,109 @@
+package com.cosmos.origin.admin.session;
+
+import com.cosmos.origin.admin.service.UserSessionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 会话清理器
+ * <p>
+ * 后台线程每隔 intervalSeconds 秒调用 {@link UserSessionService#purgeExpiredSessions}，
+ * 清理多设备模式下 token 集合与在线会话索引中残留的过期成员，避免长期无人查询的用户集合持续占用内存。
+ * <p>
+ * 多节点部署时通过 Redis 锁保证同一周期内只有一个节点执行清理。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionJanitor implements InitializingBean, DisposableBean {
+
+    private static final String LOCK_KEY = "user:sessions:janitor:lock";
+
+    private final UserSessionService userSessionService;
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 是否启用会话清理
+     */
+    @Value("${login.session.janitor.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 清理间隔（秒）
+     */
+    @Value("${login.session.janitor.interval-seconds:60}")
+    private long intervalSeconds;
+
+    /**
+     * 每批清理的 token 集合数
+     */
+    @Value("${login.session.janitor.batch-size:200}")
+    private int batchSize;
+
+    private ScheduledExecutorService executor;
+
+    private final LongAdder removed = new LongAdder();
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            log.info("会话清理器未启用");
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-janitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::sweep, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        log.info("会话清理器启动完成: intervalSeconds={}, batchSize={}", intervalSeconds, batchSize);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 累计移除的 token 数（仅统计本节点）
+     */
+    public long getRemovedCount() {
+        return removed.sum();
+    }
+
+    private void sweep() {
+        try {
+            // 锁随间隔自然过期，不主动释放，避免其他节点在同一周期内重复清理
+            Boolean acquired = redisTemplate.opsForValue()
+                    .setIfAbsent(LOCK_KEY, "1", Duration.ofSeconds(Math.max(intervalSeconds - 1, 1)));
+            if (!Boolean.TRUE.equals(acquired)) {
+                return;
+            }
+            long start = System.nanoTime();
+            long count = userSessionService.purgeExpiredSessions(batchSize);
+            removed.add(count);
+            if (count > 0) {
+                log.info("会话清理完成，移除过期 token {} 个，耗时 {} ms",
+                        count, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        } catch (Exception e) {
+            log.error("会话清理失败", e);
+        }
+    }
+}
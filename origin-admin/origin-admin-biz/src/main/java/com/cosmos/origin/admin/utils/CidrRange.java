@@ -0,0 +1,58 @@
+package com.cosmos.origin.admin.utils;
+
+import com.google.common.net.InetAddresses;
+
+/**
+ * CIDR 网段
+ * <p>
+ * 支持 IPv4（如 10.0.0.0/8）与 IPv6（如 fc00::/7），不带前缀长度时视为单个地址
+ *
+ * @param network      网段起始地址（大端序字节）
+ * @param prefixLength 前缀长度
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+public record CidrRange(byte[] network, int prefixLength) {
+
+    /**
+     * 解析 CIDR 表达式
+     *
+     * @param cidr CIDR 表达式
+     * @return 网段
+     * @throws IllegalArgumentException 格式不合法
+     */
+    public static CidrRange parse(String cidr) {
+        String value = cidr.trim();
+        int slash = value.indexOf('/');
+        byte[] address = InetAddresses.forString(slash < 0 ? value : value.substring(0, slash)).getAddress();
+        int prefixLength = slash < 0 ? address.length * 8 : Integer.parseInt(value.substring(slash + 1).trim());
+        if (prefixLength < 0 || prefixLength > address.length * 8) {
+            throw new IllegalArgumentException("非法的 CIDR 前缀长度: " + cidr);
+        }
+        return new CidrRange(address, prefixLength);
+    }
+
+    /**
+     * 判断地址是否在网段内（IPv4 与 IPv6 互不匹配）
+     *
+     * @param address 大端序 IP 字节
+     * @return 是否在网段内
+     */
+    public boolean contains(byte[] address) {
+        if (address.length != network.length) {
+            return false;
+        }
+        int fullBytes = prefixLength / 8;
+        for (int i = 0; i < fullBytes; i++) {
+            if (address[i] != network[i]) {
+                return false;
+            }
+        }
+        int remainingBits = prefixLength % 8;
+        if (remainingBits == 0) {
+            return true;
+        }
+        int mask = (0xFF << (8 - remainingBits)) & 0xFF;
+        return (address[fullBytes] & mask) == (network[fullBytes] & mask);
+    }
+}
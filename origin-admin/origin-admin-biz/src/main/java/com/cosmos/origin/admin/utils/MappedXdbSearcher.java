@@ -0,0 +1,162 @@
+package com.cosmos.origin.admin.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 基于内存映射的 ip2region xdb 查询器
+ * <p>
+ * 通过 {@link FileChannel#map} 将 xdb 文件映射到堆外，查询时直接在映射区上做向量索引定位 + 二分查找，
+ * 不占用堆内存，也不需要在启动时把整个文件读入内存。
+ * <p>
+ * xdb 文件结构（小端序）：
+ * - 头部 256 字节：结构版本(u16)、索引策略(u16)、创建时间(u32)、起始索引指针(u32)、结束索引指针(u32)、
+ * IP 版本(u16，结构版本 3 起)、数据指针字节数(u16，结构版本 3 起)
+ * - 向量索引 256 × 256 项，按 IP 前两个字节定位，每项为段索引的起止指针(u32 + u32)
+ * - 段索引：起始 IP + 结束 IP + 数据长度(u16) + 数据指针；IPv4 的 IP 以小端 u32 存储，IPv6 以大端 16 字节存储
+ * <p>
+ * 只使用绝对位置读取，实例可被多线程共享。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+public final class MappedXdbSearcher {
+
+    private static final int HEADER_LENGTH = 256;
+    private static final int VECTOR_INDEX_COLS = 256;
+    private static final int VECTOR_INDEX_SIZE = 8;
+
+    private final ByteBuffer buffer;
+
+    /**
+     * IP 字节数：IPv4 为 4，IPv6 为 16
+     */
+    private final int ipBytes;
+
+    /**
+     * 数据指针字节数
+     */
+    private final int ptrBytes;
+
+    /**
+     * 单个段索引的字节数
+     */
+    private final int segmentIndexSize;
+
+    private MappedXdbSearcher(ByteBuffer buffer) {
+        this.buffer = buffer;
+        int structureVersion = buffer.getShort(0) & 0xFFFF;
+        if (structureVersion >= 3) {
+            int ipVersion = buffer.getShort(16) & 0xFFFF;
+            int runtimePtrBytes = buffer.getShort(18) & 0xFFFF;
+            this.ipBytes = ipVersion == 6 ? 16 : 4;
+            this.ptrBytes = runtimePtrBytes == 0 ? 4 : runtimePtrBytes;
+        } else {
+            this.ipBytes = 4;
+            this.ptrBytes = 4;
+        }
+        this.segmentIndexSize = ipBytes * 2 + 2 + ptrBytes;
+    }
+
+    /**
+     * 以只读方式映射 xdb 文件
+     *
+     * @param path xdb 文件路径
+     * @return 查询器
+     * @throws IOException 文件读取失败
+     */
+    public static MappedXdbSearcher open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("xdb 文件超过 2GB，无法映射: " + path);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            // 映射建立后即可关闭通道，映射区在被回收前一直有效
+            return new MappedXdbSearcher(mapped.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    /**
+     * 当前文件对应的 IP 字节数（4 或 16）
+     */
+    public int getIpBytes() {
+        return ipBytes;
+    }
+
+    /**
+     * 查询 IP 所属区域
+     *
+     * @param ip 大端序 IP 字节，长度必须与 {@link #getIpBytes()} 一致
+     * @return 区域字符串，未命中时返回 null
+     */
+    public String search(byte[] ip) {
+        if (ip.length != ipBytes) {
+            throw new IllegalArgumentException("IP 长度与 xdb 文件版本不匹配: " + ip.length);
+        }
+
+        // 向量索引定位段索引区间
+        int vectorIndex = HEADER_LENGTH + ((ip[0] & 0xFF) * VECTOR_INDEX_COLS + (ip[1] & 0xFF)) * VECTOR_INDEX_SIZE;
+        long startPtr = buffer.getInt(vectorIndex) & 0xFFFFFFFFL;
+        long endPtr = buffer.getInt(vectorIndex + 4) & 0xFFFFFFFFL;
+        if (startPtr == 0 || endPtr < startPtr) {
+            return null;
+        }
+
+        // 在段索引区间内二分查找
+        long low = 0;
+        long high = (endPtr - startPtr) / segmentIndexSize;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            int pos = (int) (startPtr + mid * segmentIndexSize);
+            if (compare(ip, pos) < 0) {
+                high = mid - 1;
+            } else if (compare(ip, pos + ipBytes) > 0) {
+                low = mid + 1;
+            } else {
+                int dataLen = buffer.getShort(pos + ipBytes * 2) & 0xFFFF;
+                int dataPtr = (int) readPtr(pos + ipBytes * 2 + 2);
+                byte[] data = new byte[dataLen];
+                buffer.get(dataPtr, data);
+                return new String(data, StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 比较 IP 与段索引中存储的 IP
+     */
+    private int compare(byte[] ip, int pos) {
+        if (ipBytes == 4) {
+            // IPv4 以小端 u32 存储
+            long stored = buffer.getInt(pos) & 0xFFFFFFFFL;
+            long value = ((ip[0] & 0xFFL) << 24) | ((ip[1] & 0xFFL) << 16) | ((ip[2] & 0xFFL) << 8) | (ip[3] & 0xFFL);
+            return Long.compare(value, stored);
+        }
+        // IPv6 以大端字节序存储，逐字节无符号比较
+        for (int i = 0; i < ipBytes; i++) {
+            int diff = (ip[i] & 0xFF) - (buffer.get(pos + i) & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private long readPtr(int pos) {
+        if (ptrBytes == 4) {
+            return buffer.getInt(pos) & 0xFFFFFFFFL;
+        }
+        long value = 0;
+        for (int i = ptrBytes - 1; i >= 0; i--) {
+            value = (value << 8) | (buffer.get(pos + i) & 0xFF);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,117 @@
+package com.cosmos.origin.admin.session;
+
+import com.cosmos.origin.admin.model.vo.session.UserSessionVO;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CompactSessionCodecTests {
+
+    private final JsonMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private final CompactSessionCodec codec = new CompactSessionCodec(objectMapper);
+
+    /**
+     * 编码后解码得到相同的会话，角色标识中的逗号不会被拆开
+     */
+    @Test
+    void testRoundTrip() {
+        UserSessionVO session = session(List.of("ROLE_ADMIN", "ROLE_A,B", ""));
+
+        Map<String, String> fields = codec.encode(session);
+
+        assertEquals(String.valueOf(codec.version()), fields.get(SessionCodec.FIELD_VERSION));
+        assertEquals(session, codec.decode(fields));
+    }
+
+    /**
+     * 空值不写入，解码后仍为空；空角色列表与未设置角色区分
+     */
+    @Test
+    void testNullFields() {
+        UserSessionVO session = UserSessionVO.builder()
+                .username("admin")
+                .token("token")
+                .roles(List.of())
+                .build();
+
+        Map<String, String> fields = codec.encode(session);
+
+        assertFalse(fields.containsKey(SessionCodec.FIELD_BROWSER));
+        UserSessionVO decoded = codec.decode(fields);
+        assertEquals(session, decoded);
+        assertEquals(List.of(), decoded.getRoles());
+        assertNull(codec.decode(codec.encode(UserSessionVO.builder().username("admin").build())).getRoles());
+    }
+
+    /**
+     * 版本 1 的角色以逗号拼接，仍可解码
+     */
+    @Test
+    void testDecodeVersion1() {
+        Map<String, String> fields = new HashMap<>(codec.encode(session(List.of())));
+        fields.put(SessionCodec.FIELD_VERSION, "1");
+        fields.put("r", "ROLE_ADMIN,ROLE_USER");
+
+        assertEquals(List.of("ROLE_ADMIN", "ROLE_USER"), codec.decode(fields).getRoles());
+
+        fields.put("r", "");
+        assertEquals(List.of(), codec.decode(fields).getRoles());
+    }
+
+    /**
+     * 缺少版本号或版本号不受支持时拒绝解码
+     */
+    @Test
+    void testRejectUnsupportedVersion() {
+        Map<String, String> fields = new HashMap<>(codec.encode(session(List.of("ROLE_ADMIN"))));
+
+        fields.put(SessionCodec.FIELD_VERSION, String.valueOf(codec.version() + 1));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(fields));
+
+        fields.put(SessionCodec.FIELD_VERSION, "0");
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(fields));
+
+        fields.remove(SessionCodec.FIELD_VERSION);
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(fields));
+    }
+
+    /**
+     * 升级前以 JSON 字符串存储的会话可以读取，无法解析时抛出 IllegalArgumentException
+     */
+    @Test
+    void testDecodeLegacyJson() throws Exception {
+        UserSessionVO session = session(List.of("ROLE_ADMIN", "ROLE_A,B"));
+
+        assertEquals(session, codec.decodeLegacy(objectMapper.writeValueAsString(session)));
+        assertThrows(IllegalArgumentException.class, () -> codec.decodeLegacy("{not json"));
+    }
+
+    private static UserSessionVO session(List<String> roles) {
+        // 编码只保留到毫秒
+        LocalDateTime loginTime = LocalDateTime.of(2026, 10, 18, 12, 30, 15, 123_000_000);
+        return UserSessionVO.builder()
+                .username("admin")
+                .userId(1L)
+                .nickname("管理员")
+                .roles(roles)
+                .token("header.payload.signature")
+                .loginTime(loginTime)
+                .loginIp("127.0.0.1")
+                .loginLocation("内网IP")
+                .browser("Chrome")
+                .os("Windows 10")
+                .rememberMe(true)
+                .expireTime(loginTime.plusDays(7))
+                .build();
+    }
+}
@@ -34,6 +34,8 @@ public enum ResponseCodeEnum implements BaseExceptionInterface {
     COMMENT_STATUS_NOT_WAIT_EXAMINE("20012", "该评论未处于待审核状态"),
     VERIFICATION_CODE_SEND_FREQUENTLY("20013", "请求太频繁，请3分钟后再试"),
     USER_DISABLED("20014", "该用户已被禁用，无法登录"),
+    LOGIN_BUSY("20015", "当前登录人数过多，请稍后重试"),
+    LOGIN_TOO_FREQUENT("20016", "登录尝试过于频繁，请稍后重试"),
     ;
 
     // 异常码
@@ -1,8 +1,5 @@
 package com.cosmos.origin.common.utils;
 
-import eu.bitwalker.useragentutils.Browser;
-import eu.bitwalker.useragentutils.OperatingSystem;
-import eu.bitwalker.useragentutils.UserAgent;
 import jakarta.servlet.http.HttpServletRequest;
 
 /**
@@ -46,25 +43,13 @@ public class RequestUtil {
      * 获取浏览器名称
      */
     public static String getBrowser(HttpServletRequest request) {
-        String userAgentStr = request.getHeader("User-Agent");
-        if (userAgentStr != null) {
-            UserAgent userAgent = UserAgent.parseUserAgentString(userAgentStr);
-            Browser browser = userAgent.getBrowser();
-            return browser.getName();
-        }
-        return "Unknown";
+        return UserAgentInfo.of(request).browser();
     }
 
     /**
      * 获取操作系统名称
      */
     public static String getOperatingSystem(HttpServletRequest request) {
-        String userAgentStr = request.getHeader("User-Agent");
-        if (userAgentStr != null) {
-            UserAgent userAgent = UserAgent.parseUserAgentString(userAgentStr);
-            OperatingSystem os = userAgent.getOperatingSystem();
-            return os.getName();
-        }
-        return "Unknown";
+        return UserAgentInfo.of(request).operatingSystem();
     }
 }
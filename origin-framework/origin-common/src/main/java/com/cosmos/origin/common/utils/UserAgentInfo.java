@@ -0,0 +1,94 @@
+package com.cosmos.origin.common.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import eu.bitwalker.useragentutils.UserAgent;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * User-Agent 解析结果
+ * <p>
+ * {@link UserAgent#parseUserAgentString(String)} 基于大量正则匹配，代价较高；
+ * 而实际请求中 User-Agent 的种类远少于请求量，因此解析结果以原始 User-Agent 字符串为 key 缓存在有界 LRU 中。
+ * 同一请求内通过 {@link #of(HttpServletRequest)} 获取时，结果还会挂在请求属性上，保证每个请求最多解析一次。
+ *
+ * @param browser         浏览器名称
+ * @param operatingSystem 操作系统名称
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+public record UserAgentInfo(String browser, String operatingSystem) {
+
+    /**
+     * 未知客户端
+     */
+    public static final UserAgentInfo UNKNOWN = new UserAgentInfo("Unknown", "Unknown");
+
+    /**
+     * 缓存的最大 User-Agent 种类数
+     */
+    private static final int MAXIMUM_SIZE = 2048;
+
+    /**
+     * 参与缓存的 User-Agent 最大长度，超长的（通常是伪造的）只解析不缓存，避免占用缓存空间
+     */
+    private static final int MAX_CACHEABLE_LENGTH = 512;
+
+    /**
+     * 请求属性名
+     */
+    private static final String REQUEST_ATTRIBUTE = UserAgentInfo.class.getName();
+
+    private static final Cache<String, UserAgentInfo> CACHE = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .build();
+
+    /**
+     * 获取当前请求的 User-Agent 解析结果（同一请求只解析一次）
+     *
+     * @param request HTTP请求
+     * @return 解析结果
+     */
+    public static UserAgentInfo of(HttpServletRequest request) {
+        Object cached = request.getAttribute(REQUEST_ATTRIBUTE);
+        if (cached instanceof UserAgentInfo info) {
+            return info;
+        }
+        UserAgentInfo info = parse(request.getHeader("User-Agent"));
+        request.setAttribute(REQUEST_ATTRIBUTE, info);
+        return info;
+    }
+
+    /**
+     * 解析 User-Agent 字符串（优先读取缓存）
+     *
+     * @param userAgent User-Agent 字符串
+     * @return 解析结果，为空时返回 {@link #UNKNOWN}
+     */
+    public static UserAgentInfo parse(String userAgent) {
+        if (userAgent == null || userAgent.isEmpty()) {
+            return UNKNOWN;
+        }
+        if (userAgent.length() > MAX_CACHEABLE_LENGTH) {
+            return doParse(userAgent);
+        }
+        UserAgentInfo info = CACHE.getIfPresent(userAgent);
+        if (info == null) {
+            // 并发下可能重复解析同一个 User-Agent，结果相同，无需加锁
+            info = doParse(userAgent);
+            CACHE.put(userAgent, info);
+        }
+        return info;
+    }
+
+    /**
+     * 不经过缓存直接解析
+     *
+     * @param userAgent User-Agent 字符串
+     * @return 解析结果
+     */
+    static UserAgentInfo doParse(String userAgent) {
+        UserAgent parsed = UserAgent.parseUserAgentString(userAgent);
+        return new UserAgentInfo(parsed.getBrowser().getName(), parsed.getOperatingSystem().getName());
+    }
+}
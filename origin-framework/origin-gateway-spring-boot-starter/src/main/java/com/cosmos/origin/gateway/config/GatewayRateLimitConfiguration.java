@@ -1,8 +1,12 @@
 package com.cosmos.origin.gateway.config;
 
 import com.cosmos.origin.gateway.filter.RateLimitFilter;
+import com.cosmos.origin.gateway.ip.IpBlacklist;
+import com.cosmos.origin.gateway.limiter.LeasedRateLimiter;
+import com.cosmos.origin.gateway.matcher.GatewayRouteMatcher;
 import com.cosmos.origin.gateway.properties.GatewayProperties;
 import com.cosmos.origin.gateway.utils.RateLimitUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -12,6 +16,8 @@ import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
 /**
  * 网关限流配置类
@@ -36,11 +42,43 @@ public class GatewayRateLimitConfiguration {
         return new RateLimitUtils(redisTemplate);
     }
 
+    /**
+     * 路由规则匹配器（白名单、黑名单、按路径限流）
+     */
+    @Bean
+    public GatewayRouteMatcher gatewayRouteMatcher(GatewayProperties gatewayProperties) {
+        return new GatewayRouteMatcher(gatewayProperties);
+    }
+
+    /**
+     * IP 黑名单（CIDR 网段，从配置、文件、Redis Set 热加载）
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "origin.gateway.ip-blacklist", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public IpBlacklist ipBlacklist(GatewayProperties gatewayProperties,
+                                   ObjectProvider<StringRedisTemplate> stringRedisTemplate,
+                                   ObjectProvider<RedisMessageListenerContainer> listenerContainer) {
+        return new IpBlacklist(gatewayProperties, stringRedisTemplate.getIfAvailable(), listenerContainer.getIfAvailable());
+    }
+
+    /**
+     * 许可租约限流器（algorithm 为 leased 时使用）
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "origin.gateway.rate-limit", name = "algorithm", havingValue = "leased")
+    public LeasedRateLimiter leasedRateLimiter(RateLimitUtils rateLimitUtils, GatewayProperties gatewayProperties) {
+        return new LeasedRateLimiter(rateLimitUtils, gatewayProperties);
+    }
+
     /**
      * 限流过滤器
      */
     @Bean
-    public RateLimitFilter rateLimitFilter(RateLimitUtils rateLimitUtils, GatewayProperties gatewayProperties) {
-        return new RateLimitFilter(rateLimitUtils, gatewayProperties);
+    public RateLimitFilter rateLimitFilter(RateLimitUtils rateLimitUtils, GatewayProperties gatewayProperties,
+                                           GatewayRouteMatcher gatewayRouteMatcher,
+                                           ObjectProvider<IpBlacklist> ipBlacklist,
+                                           ObjectProvider<LeasedRateLimiter> leasedRateLimiter) {
+        return new RateLimitFilter(rateLimitUtils, gatewayProperties, gatewayRouteMatcher,
+                ipBlacklist.getIfAvailable(), leasedRateLimiter.getIfAvailable());
     }
 }
@@ -1,6 +1,10 @@
 package com.cosmos.origin.gateway.filter;
 
 import com.cosmos.origin.common.utils.RequestUtil;
+import com.cosmos.origin.gateway.ip.IpBlacklist;
+import com.cosmos.origin.gateway.limiter.LeasedRateLimiter;
+import com.cosmos.origin.gateway.matcher.GatewayRouteMatcher;
+import com.cosmos.origin.gateway.matcher.PathRuleTrie;
 import com.cosmos.origin.gateway.properties.GatewayProperties;
 import com.cosmos.origin.gateway.utils.RateLimitUtils;
 import jakarta.servlet.*;
@@ -26,10 +30,22 @@ public class RateLimitFilter implements Filter {
 
     private final RateLimitUtils rateLimitUtils;
     private final GatewayProperties gatewayProperties;
+    private final GatewayRouteMatcher routeMatcher;
+    private final IpBlacklist ipBlacklist;
+    private final LeasedRateLimiter leasedRateLimiter;
 
     public RateLimitFilter(RateLimitUtils rateLimitUtils, GatewayProperties gatewayProperties) {
+        this(rateLimitUtils, gatewayProperties, new GatewayRouteMatcher(gatewayProperties), null, null);
+    }
+
+    public RateLimitFilter(RateLimitUtils rateLimitUtils, GatewayProperties gatewayProperties,
+                           GatewayRouteMatcher routeMatcher, IpBlacklist ipBlacklist,
+                           LeasedRateLimiter leasedRateLimiter) {
         this.rateLimitUtils = rateLimitUtils;
         this.gatewayProperties = gatewayProperties;
+        this.routeMatcher = routeMatcher;
+        this.ipBlacklist = ipBlacklist;
+        this.leasedRateLimiter = leasedRateLimiter;
     }
 
     @Override
@@ -38,28 +54,47 @@ public class RateLimitFilter implements Filter {
         HttpServletRequest httpRequest = (HttpServletRequest) request;
         HttpServletResponse httpResponse = (HttpServletResponse) response;
 
-        String clientId = getClientId(httpRequest);
-        String path = httpRequest.getRequestURI();
+        // 客户端 IP 只解析一次，同时用于黑名单判断和限流标识
+        String ip = RequestUtil.getClientIp(httpRequest);
+        String clientId = getClientId(httpRequest, ip);
+        // 规范化后的应用内路径，与 Spring MVC 路由时看到的路径一致，路径规则无法通过改写 URI 绕过
+        String path = GatewayRouteMatcher.requestPath(httpRequest);
+
+        // 一次匹配得出白名单、路径黑名单和该接口的限流阈值
+        PathRuleTrie.Match match = routeMatcher.match(path);
+
+        // 路径黑名单、IP 黑名单优先于白名单（IP 黑名单始终按真实 IP 判断，携带用户标识也无法绕过）
+        if (match.blacklisted() || (ipBlacklist != null && ipBlacklist.contains(ip))) {
+            writeErrorResponse(httpResponse, HttpStatus.FORBIDDEN.value(), "访问被拒绝");
+            return;
+        }
 
         // 检查是否在白名单中
-        if (isInWhiteList(path)) {
+        if (match.whitelisted()) {
             chain.doFilter(request, response);
             return;
         }
 
-        // 检查是否在黑名单中
-        if (isInBlackList(clientId)) {
+        // 检查客户端是否在黑名单中
+        if (routeMatcher.isBlacklistedClient(clientId)) {
             writeErrorResponse(httpResponse, HttpStatus.FORBIDDEN.value(), "访问被拒绝");
             return;
         }
 
-        // 获取该接口的限流阈值
-        int limit = getPathLimit(path);
+        int limit = match.limit();
 
         // 限流检查
-        if (!rateLimitUtils.tryAcquire(clientId, path, limit, gatewayProperties.getRateLimit().getTimeWindow())) {
+        RateLimitUtils.Decision decision = acquire(clientId, path, limit);
+        if (decision.remaining() >= 0) {
+            httpResponse.setHeader("X-RateLimit-Limit", String.valueOf(limit));
+            httpResponse.setHeader("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
+        }
+        if (!decision.allowed()) {
             log.warn("触发限流，clientId: {}, path: {}", clientId, path);
-            writeErrorResponse(httpResponse, HttpStatus.TOO_MANY_REQUESTS.value(), 
+            if (decision.retryAfterMillis() > 0) {
+                httpResponse.setHeader("Retry-After", String.valueOf((decision.retryAfterMillis() + 999) / 1000));
+            }
+            writeErrorResponse(httpResponse, HttpStatus.TOO_MANY_REQUESTS.value(),
                     gatewayProperties.getRateLimit().getLimitMessage());
             return;
         }
@@ -67,39 +102,31 @@ public class RateLimitFilter implements Filter {
         chain.doFilter(request, response);
     }
 
+    /**
+     * 按配置的算法执行限流判定
+     */
+    private RateLimitUtils.Decision acquire(String clientId, String path, int limit) {
+        GatewayProperties.RateLimitProperties rateLimit = gatewayProperties.getRateLimit();
+        if (rateLimit.getAlgorithm() == GatewayProperties.Algorithm.LEASED && leasedRateLimiter != null) {
+            return leasedRateLimiter.tryAcquire(clientId, path, limit);
+        }
+        if (rateLimit.getAlgorithm() != GatewayProperties.Algorithm.SLIDING_WINDOW) {
+            return rateLimitUtils.tryAcquireGcra(clientId, path, limit, rateLimit.getTimeWindow(), rateLimit.getBurst());
+        }
+        return rateLimitUtils.tryAcquire(clientId, path, limit, rateLimit.getTimeWindow())
+                ? RateLimitUtils.Decision.ALLOWED : RateLimitUtils.Decision.REJECTED;
+    }
+
     /**
      * 获取客户端标识
      */
-    private String getClientId(HttpServletRequest request) {
+    private String getClientId(HttpServletRequest request, String ip) {
         // 优先使用用户ID，其次使用IP地址
         String userId = request.getHeader("X-User-Id");
         if (userId != null && !userId.isEmpty()) {
             return "user:" + userId;
         }
-        return "ip:" + RequestUtil.getClientIp(request);
-    }
-
-    /**
-     * 检查是否在白名单中
-     */
-    private boolean isInWhiteList(String path) {
-        return gatewayProperties.getWhiteList().stream()
-                .anyMatch(path::startsWith);
-    }
-
-    /**
-     * 检查是否在黑名单中
-     */
-    private boolean isInBlackList(String clientId) {
-        return gatewayProperties.getBlackList().contains(clientId);
-    }
-
-    /**
-     * 获取接口限流阈值
-     */
-    private int getPathLimit(String path) {
-        return gatewayProperties.getRateLimit().getPathLimits()
-                .getOrDefault(path, gatewayProperties.getRateLimit().getDefaultLimit());
+        return "ip:" + ip;
     }
 
     /**
@@ -0,0 +1,210 @@
+package com.cosmos.origin.gateway.ip;
+
+import com.cosmos.origin.gateway.properties.GatewayProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * IP 黑名单（支持 IPv4、IPv6 CIDR 网段，运行时热加载）
+ * <p>
+ * 规则来源（合并后编译为一棵 {@link IpRadixTree}）：
+ * - 配置：origin.gateway.black-list 中 ip: 开头的条目，如 ip:10.0.0.0/8
+ * - 文件：每行一条规则，# 开头为注释
+ * - Redis Set：每个成员一条规则
+ * <p>
+ * 后台线程每 reloadIntervalSeconds 秒检查一次来源，配置集合被替换、文件修改时间或 Redis 版本号变化时重新构建并整体替换；
+ * 向 reload 频道发布任意消息可立即重新加载。重新加载失败时保留原规则。
+ * <p>
+ * 定时检查不读取整个 Redis Set，只 GET 版本号 key（{redisKey}:version），版本号变化或收到 reload 消息时才 SMEMBERS。
+ * 修改 Set 后应 INCR 版本号（或发布 reload 消息）；版本号用于兜底订阅断开期间丢失的消息。
+ *
+ * @author cosmos
+ */
+@Slf4j
+public class IpBlacklist implements MessageListener, InitializingBean, DisposableBean {
+
+    private static final String CLIENT_IP_PREFIX = "ip:";
+
+    private static final String VERSION_KEY_SUFFIX = ":version";
+
+    private final GatewayProperties gatewayProperties;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private volatile IpRadixTree tree = new IpRadixTree();
+
+    /**
+     * 上次加载时各来源的状态，用于判断是否需要重新构建
+     */
+    private List<String> loadedBlackList;
+    private long loadedFileModified = -1;
+    private Set<String> loadedRedisMembers = Collections.emptySet();
+    private String loadedRedisVersion;
+
+    private ScheduledExecutorService executor;
+
+    private final LongAdder blocked = new LongAdder();
+
+    public IpBlacklist(GatewayProperties gatewayProperties, StringRedisTemplate redisTemplate,
+                       RedisMessageListenerContainer listenerContainer) {
+        this.gatewayProperties = gatewayProperties;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        GatewayProperties.IpBlacklistProperties properties = properties();
+        reload(true);
+        if (listenerContainer != null && StringUtils.hasText(properties.getReloadChannel())) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(properties.getReloadChannel()));
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ip-blacklist-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> reload(false), properties.getReloadIntervalSeconds(),
+                properties.getReloadIntervalSeconds(), TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 判断 IP 是否在黑名单中
+     *
+     * @param ip 客户端 IP
+     * @return 是否在黑名单中
+     */
+    public boolean contains(String ip) {
+        if (tree.contains(ip)) {
+            blocked.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 当前生效的规则数
+     */
+    public int size() {
+        return tree.size();
+    }
+
+    /**
+     * 被拒绝的请求数
+     */
+    public long getBlockedCount() {
+        return blocked.sum();
+    }
+
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        if (executor != null) {
+            executor.execute(() -> reload(true));
+        }
+    }
+
+    /**
+     * 检查各来源，有变化（或强制）时重新构建
+     */
+    private synchronized void reload(boolean force) {
+        try {
+            GatewayProperties.IpBlacklistProperties properties = properties();
+            List<String> blackList = gatewayProperties.getBlackList();
+            Path file = StringUtils.hasText(properties.getFile()) ? Paths.get(properties.getFile()) : null;
+            long fileModified = file != null && Files.exists(file) ? Files.getLastModifiedTime(file).toMillis() : -1;
+            // 先读版本号再读成员，两者之间的写入会在下次检查时因版本号变化而重新加载
+            String redisVersion = loadRedisVersion(properties.getRedisKey());
+            boolean redisChanged = force || !Objects.equals(redisVersion, loadedRedisVersion);
+
+            if (!redisChanged && blackList == loadedBlackList && fileModified == loadedFileModified) {
+                return;
+            }
+            Set<String> redisMembers = redisChanged ? loadRedisMembers(properties.getRedisKey()) : loadedRedisMembers;
+
+            List<String> rules = new ArrayList<>();
+            for (String entry : blackList) {
+                if (entry.startsWith(CLIENT_IP_PREFIX)) {
+                    rules.add(entry.substring(CLIENT_IP_PREFIX.length()));
+                }
+            }
+            if (fileModified >= 0) {
+                rules.addAll(Files.readAllLines(file, StandardCharsets.UTF_8));
+            }
+            rules.addAll(redisMembers);
+
+            IpRadixTree rebuilt = new IpRadixTree();
+            int invalid = 0;
+            for (String rule : rules) {
+                String trimmed = rule.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                if (trimmed.startsWith(CLIENT_IP_PREFIX)) {
+                    trimmed = trimmed.substring(CLIENT_IP_PREFIX.length());
+                }
+                if (!rebuilt.add(trimmed)) {
+                    invalid++;
+                    log.warn("忽略无效的 IP 黑名单规则: {}", trimmed);
+                }
+            }
+
+            tree = rebuilt;
+            loadedBlackList = blackList;
+            loadedFileModified = fileModified;
+            loadedRedisMembers = redisMembers;
+            loadedRedisVersion = redisVersion;
+            log.info("IP 黑名单加载完成，共 {} 条规则，忽略 {} 条无效规则", rebuilt.size(), invalid);
+        } catch (IOException | RuntimeException e) {
+            log.error("IP 黑名单加载失败，保留原规则", e);
+        }
+    }
+
+    private String loadRedisVersion(String key) {
+        if (redisTemplate == null || !StringUtils.hasText(key)) {
+            return null;
+        }
+        return redisTemplate.opsForValue().get(key + VERSION_KEY_SUFFIX);
+    }
+
+    private Set<String> loadRedisMembers(String key) {
+        if (redisTemplate == null || !StringUtils.hasText(key)) {
+            return Collections.emptySet();
+        }
+        Set<String> members = redisTemplate.opsForSet().members(key);
+        return members != null ? members : Collections.emptySet();
+    }
+
+    private GatewayProperties.IpBlacklistProperties properties() {
+        return gatewayProperties.getIpBlacklist();
+    }
+}
@@ -0,0 +1,236 @@
+package com.cosmos.origin.gateway.ip;
+
+import com.google.common.net.InetAddresses;
+
+/**
+ * IP 网段压缩前缀树（Patricia 树）
+ * <p>
+ * 按地址的二进制位存储 CIDR 网段，IPv4、IPv6 各一棵树；只有一个子节点的路径被压缩到一个节点中，
+ * 查找时沿地址的位向下走，比较次数不超过地址位数（IPv4 32 位，IPv6 128 位），与规则数量无关。
+ * <p>
+ * 插入网段时若已被更短的网段覆盖则忽略，插入更短的网段时丢弃其覆盖的子网段，树中不会有冗余节点。
+ * 构建完成后只读，可被多个线程共享；更新规则时构建新树整体替换。
+ * <p>
+ * 地址解析不做 DNS 查询，非 IP 字面量一律视为无效。
+ *
+ * @author cosmos
+ */
+public final class IpRadixTree {
+
+    private final Node v4 = new Node(new byte[4], 0);
+
+    private final Node v6 = new Node(new byte[16], 0);
+
+    private int size;
+
+    /**
+     * 添加规则
+     *
+     * @param rule IP 或 CIDR 网段，如 10.0.0.1、10.0.0.0/8、2001:db8::/32
+     * @return 是否为有效规则
+     */
+    public boolean add(String rule) {
+        int slash = rule.indexOf('/');
+        byte[] address = parse(slash >= 0 ? rule.substring(0, slash) : rule);
+        if (address == null) {
+            return false;
+        }
+        int maxBits = address.length * 8;
+        int prefixLength = maxBits;
+        if (slash >= 0) {
+            try {
+                prefixLength = Integer.parseInt(rule.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (prefixLength < 0 || prefixLength > maxBits) {
+                return false;
+            }
+        }
+        mask(address, prefixLength);
+        insert(address.length == 4 ? v4 : v6, address, prefixLength);
+        size++;
+        return true;
+    }
+
+    /**
+     * 判断 IP 是否落在任一网段中
+     *
+     * @param ip IP 字面量
+     * @return 是否命中，无效地址返回 false
+     */
+    public boolean contains(String ip) {
+        byte[] address = parse(ip);
+        return address != null && contains(address);
+    }
+
+    /**
+     * 判断地址是否落在任一网段中
+     *
+     * @param address 4 字节（IPv4）或 16 字节（IPv6）地址
+     * @return 是否命中
+     */
+    public boolean contains(byte[] address) {
+        Node node = address.length == 4 ? v4 : v6;
+        int matched = 0;
+        while (node != null) {
+            if (!matches(address, node.key, matched, node.length)) {
+                return false;
+            }
+            if (node.terminal) {
+                return true;
+            }
+            if (node.length == address.length * 8) {
+                return false;
+            }
+            matched = node.length;
+            node = node.children[bit(address, node.length)];
+        }
+        return false;
+    }
+
+    /**
+     * 添加的有效规则数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 解析 IP 字面量（不做 DNS 查询），IPv4 映射的 IPv6 地址按 IPv4 处理
+     *
+     * @param ip IP 字面量
+     * @return 4 字节或 16 字节地址，无效时返回 null
+     */
+    public static byte[] parse(String ip) {
+        if (ip == null || ip.isEmpty()) {
+            return null;
+        }
+        if (ip.indexOf(':') < 0) {
+            return parseV4(ip);
+        }
+        String literal = ip.startsWith("[") && ip.endsWith("]") ? ip.substring(1, ip.length() - 1) : ip;
+        try {
+            // 只解析字面量，不会发起 DNS 查询；IPv4 映射地址（::ffff:1.2.3.4）会直接返回 Inet4Address
+            return InetAddresses.forString(literal).getAddress();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte[] parseV4(String ip) {
+        byte[] address = new byte[4];
+        int part = 0;
+        int value = -1;
+        for (int i = 0; i <= ip.length(); i++) {
+            char c = i < ip.length() ? ip.charAt(i) : '.';
+            if (c == '.') {
+                if (value < 0 || part == 4) {
+                    return null;
+                }
+                address[part++] = (byte) value;
+                value = -1;
+            } else if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+        }
+        return part == 4 ? address : null;
+    }
+
+    private static void insert(Node root, byte[] key, int length) {
+        Node node = root;
+        while (true) {
+            if (node.terminal) {
+                // 已被更短的网段覆盖
+                return;
+            }
+            if (node.length == length) {
+                node.terminal = true;
+                node.children[0] = null;
+                node.children[1] = null;
+                return;
+            }
+            int branch = bit(key, node.length);
+            Node child = node.children[branch];
+            if (child == null) {
+                node.children[branch] = new Node(key, length, true);
+                return;
+            }
+            int common = commonPrefixLength(key, child.key, node.length, Math.min(length, child.length));
+            if (common == child.length) {
+                node = child;
+                continue;
+            }
+            // 在分叉处拆分出中间节点
+            byte[] prefix = key.clone();
+            mask(prefix, common);
+            Node middle = new Node(prefix, common);
+            if (common == length) {
+                middle.terminal = true;
+            } else {
+                middle.children[bit(child.key, common)] = child;
+                middle.children[bit(key, common)] = new Node(key, length, true);
+            }
+            node.children[branch] = middle;
+            return;
+        }
+    }
+
+    private static boolean matches(byte[] address, byte[] key, int from, int to) {
+        return commonPrefixLength(address, key, from, to) == to;
+    }
+
+    private static int commonPrefixLength(byte[] a, byte[] b, int from, int to) {
+        int i = from;
+        // 先按字节比较，再在第一个不同的字节内逐位比较
+        while (i < to && (i & 7) != 0) {
+            if (bit(a, i) != bit(b, i)) {
+                return i;
+            }
+            i++;
+        }
+        while (i + 8 <= to && a[i >> 3] == b[i >> 3]) {
+            i += 8;
+        }
+        while (i < to && bit(a, i) == bit(b, i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int bit(byte[] address, int index) {
+        return (address[index >> 3] >> (7 - (index & 7))) & 1;
+    }
+
+    private static void mask(byte[] address, int prefixLength) {
+        for (int i = prefixLength; i < address.length * 8; i++) {
+            address[i >> 3] &= (byte) ~(1 << (7 - (i & 7)));
+        }
+    }
+
+    private static final class Node {
+
+        private final byte[] key;
+
+        private final int length;
+
+        private final Node[] children = new Node[2];
+
+        private boolean terminal;
+
+        private Node(byte[] key, int length) {
+            this.key = key;
+            this.length = length;
+        }
+
+        private Node(byte[] key, int length, boolean terminal) {
+            this(key, length);
+            this.terminal = terminal;
+        }
+    }
+}
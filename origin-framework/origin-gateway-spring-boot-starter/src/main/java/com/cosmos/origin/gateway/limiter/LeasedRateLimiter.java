@@ -0,0 +1,284 @@
+package com.cosmos.origin.gateway.limiter;
+
+import com.cosmos.origin.gateway.properties.GatewayProperties;
+import com.cosmos.origin.gateway.utils.RateLimitUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 许可租约限流器（本地 + Redis 混合）
+ * <p>
+ * 每个节点按 key 从 Redis 的 GCRA 状态中批量租用许可，在本地用原子计数器消费，租约用完或到期才访问 Redis：
+ * - 租约大小自适应：初始为 1（与逐请求判定相同），上一批许可在租期一半内用完时翻倍，
+ * 到期时剩余过半则减半，上限为突发容量的 maxLeaseRatio 倍，避免单个节点占用全部配额
+ * - 租约到期后剩余的许可在下次租用时一并归还（同一次脚本调用），长时间无请求的 key 由后台线程归还并清理
+ * - 租约按 key 和限流阈值区分，阈值变化（如按路径限流配置刷新）后立即按新阈值租用，旧租约由后台线程归还并清理
+ * - 续租由单个线程执行，续租期间其他线程直接按单个许可访问 Redis，不会等待
+ * - Redis 判定无可用许可时，在返回的等待时间内本地直接拒绝
+ * <p>
+ * 热点 key 的 Redis 调用次数按租约大小成倍下降；代价是精度：
+ * 其他节点最多会少拿到各节点手中未用完的许可，直到租约到期归还。
+ * Redis 出错时与逐请求判定一致，默认放行。
+ *
+ * @author cosmos
+ */
+@Slf4j
+public class LeasedRateLimiter implements InitializingBean, DisposableBean {
+
+    private final RateLimitUtils rateLimitUtils;
+    private final GatewayProperties gatewayProperties;
+
+    private final Map<String, LeaseState> leases = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    private final LongAdder redisCalls = new LongAdder();
+    private final LongAdder localHits = new LongAdder();
+
+    public LeasedRateLimiter(RateLimitUtils rateLimitUtils, GatewayProperties gatewayProperties) {
+        this.rateLimitUtils = rateLimitUtils;
+        this.gatewayProperties = gatewayProperties;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long durationMillis = lease().getDurationMillis();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-lease-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::sweep, durationMillis, durationMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        // 关闭时归还手中所有许可
+        leases.forEach((key, state) -> release(state));
+        leases.clear();
+    }
+
+    /**
+     * 尝试获取访问许可
+     *
+     * @param clientId 客户端标识
+     * @param path     请求路径
+     * @param limit    限流阈值
+     * @return 判定结果（剩余数为本地租约中的剩余许可数）
+     */
+    public RateLimitUtils.Decision tryAcquire(String clientId, String path, int limit) {
+        String leaseKey = clientId + ":" + path + ":" + limit;
+        while (true) {
+            LeaseState state = leases.computeIfAbsent(leaseKey, key -> new LeaseState(clientId, path, limit));
+            long now = System.currentTimeMillis();
+            if (now < state.blockedUntil) {
+                localHits.increment();
+                return new RateLimitUtils.Decision(false, 0, state.blockedUntil - now);
+            }
+            if (now < state.expireAt) {
+                long left = state.take();
+                if (left >= 0) {
+                    localHits.increment();
+                    return new RateLimitUtils.Decision(true, left, 0);
+                }
+            }
+            if (!state.renewing.compareAndSet(false, true)) {
+                // 其他线程正在续租，本次按单个许可直接判定
+                redisCalls.increment();
+                return rateLimitUtils.tryAcquireGcra(clientId, path, limit, timeWindow(), burst());
+            }
+            try {
+                if (state.evicted) {
+                    // 已被后台线程清理，续租到该状态上的许可将无人归还，重新获取
+                    continue;
+                }
+                return renew(state, now);
+            } finally {
+                state.renewing.set(false);
+            }
+        }
+    }
+
+    /**
+     * 访问 Redis 的次数
+     */
+    public long getRedisCallCount() {
+        return redisCalls.sum();
+    }
+
+    /**
+     * 直接由本地租约放行的次数
+     */
+    public long getLocalHitCount() {
+        return localHits.sum();
+    }
+
+    private RateLimitUtils.Decision renew(LeaseState state, long now) {
+        // 到期的租约收回剩余许可，与新租约一并提交；未到期说明已用完
+        long unused = now >= state.expireAt ? state.permits.getAndSet(0) : 0;
+        long size = nextLeaseSize(state, unused, now);
+
+        redisCalls.increment();
+        RateLimitUtils.Lease leased = rateLimitUtils.leaseGcra(state.clientId, state.path, state.limit,
+                timeWindow(), burst(), size, unused);
+        if (leased == null) {
+            // Redis 出错时默认放行，与逐请求判定一致
+            return RateLimitUtils.Decision.ALLOWED;
+        }
+        state.leaseSize = size;
+        state.leasedAt = now;
+        if (leased.granted() == 0) {
+            state.expireAt = 0;
+            state.blockedUntil = now + leased.retryAfterMillis();
+            return new RateLimitUtils.Decision(false, 0, leased.retryAfterMillis());
+        }
+        // 先放入许可再更新到期时间，其他线程看到新的到期时间时一定能看到许可
+        state.permits.set(leased.granted() - 1);
+        state.expireAt = now + lease().getDurationMillis();
+        return new RateLimitUtils.Decision(true, leased.granted() - 1, 0);
+    }
+
+    /**
+     * 根据上一批许可的消费速度调整租约大小
+     */
+    private long nextLeaseSize(LeaseState state, long unused, long now) {
+        long size = state.leaseSize;
+        long durationMillis = lease().getDurationMillis();
+        if (unused == 0 && now - state.leasedAt < durationMillis / 2) {
+            size *= 2;
+        } else if (unused > size / 2) {
+            size /= 2;
+        }
+        int capacity = burst() > 0 ? burst() : state.limit;
+        long maxSize = Math.max(1, (long) (capacity * lease().getMaxLeaseRatio()));
+        return Math.max(1, Math.min(size, maxSize));
+    }
+
+    /**
+     * 归还到期租约中未用完的许可，清理长时间无请求的 key
+     */
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        long idleMillis = lease().getDurationMillis() * 2;
+        for (Map.Entry<String, LeaseState> entry : leases.entrySet()) {
+            LeaseState state = entry.getValue();
+            if (now < state.expireAt || !state.renewing.compareAndSet(false, true)) {
+                continue;
+            }
+            try {
+                if (state.permits.get() > 0) {
+                    release(state);
+                } else if (now - state.leasedAt > idleMillis) {
+                    // 持有续租标记时清理：此后拿到该状态的请求线程会发现已清理并重新获取
+                    state.evicted = true;
+                    leases.remove(entry.getKey(), state);
+                }
+            } catch (Exception e) {
+                log.error("归还限流许可失败，clientId: {}, path: {}", state.clientId, state.path, e);
+            } finally {
+                state.renewing.set(false);
+            }
+        }
+    }
+
+    private void release(LeaseState state) {
+        long unused = state.permits.getAndSet(0);
+        if (unused > 0) {
+            redisCalls.increment();
+            rateLimitUtils.leaseGcra(state.clientId, state.path, state.limit, timeWindow(), burst(), 0, unused);
+        }
+    }
+
+    private GatewayProperties.LeaseProperties lease() {
+        return gatewayProperties.getRateLimit().getLease();
+    }
+
+    private int timeWindow() {
+        return gatewayProperties.getRateLimit().getTimeWindow();
+    }
+
+    private int burst() {
+        return gatewayProperties.getRateLimit().getBurst();
+    }
+
+    /**
+     * 单个 key 的本地租约
+     */
+    private static final class LeaseState {
+
+        private final String clientId;
+        private final String path;
+        private final int limit;
+
+        /**
+         * 本地剩余许可数
+         */
+        private final AtomicLong permits = new AtomicLong();
+
+        /**
+         * 租约到期时间（毫秒）
+         */
+        private volatile long expireAt;
+
+        /**
+         * Redis 判定无可用许可时，在此时间前本地直接拒绝（毫秒）
+         */
+        private volatile long blockedUntil;
+
+        /**
+         * 上次租用时间（毫秒）
+         */
+        private volatile long leasedAt;
+
+        /**
+         * 上次租用的许可数
+         */
+        private volatile long leaseSize = 1;
+
+        /**
+         * 是否正在续租或归还
+         */
+        private final AtomicBoolean renewing = new AtomicBoolean();
+
+        /**
+         * 是否已被后台线程清理（持有续租标记时读写）
+         */
+        private volatile boolean evicted;
+
+        private LeaseState(String clientId, String path, int limit) {
+            this.clientId = clientId;
+            this.path = path;
+            this.limit = limit;
+        }
+
+        /**
+         * 消费一个本地许可
+         *
+         * @return 消费后的剩余许可数，没有许可时返回 -1
+         */
+        private long take() {
+            while (true) {
+                long current = permits.get();
+                if (current <= 0) {
+                    return -1;
+                }
+                if (permits.compareAndSet(current, current - 1)) {
+                    return current - 1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.cosmos.origin.gateway.matcher;
+
+import com.cosmos.origin.gateway.properties.GatewayProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 网关路由规则匹配器
+ * <p>
+ * 持有由 {@link GatewayProperties} 编译出的 {@link PathRuleTrie}：
+ * - 黑名单中以 / 开头的条目为路径规则，编译进前缀树；其余条目为客户端标识（如 ip:1.2.3.4、user:1），放入哈希集合
+ * - 配置刷新后（如配置中心推送导致属性重新绑定），白名单、黑名单、按路径限流配置会被替换为新的集合对象，
+ * 请求时按引用比较发现变化后重新编译，整体替换快照，不会读到一半新一半旧的规则
+ * - 匹配前先将请求路径规范化为应用内路径（见 {@link #requestPath(HttpServletRequest)}），
+ * 避免 /a;x/b、//a/b、%61/b 等与 Spring MVC 路由结果相同的写法绕过路径黑名单
+ *
+ * @author cosmos
+ */
+@Slf4j
+public class GatewayRouteMatcher {
+
+    private final GatewayProperties gatewayProperties;
+
+    private volatile Snapshot snapshot;
+
+    public GatewayRouteMatcher(GatewayProperties gatewayProperties) {
+        this.gatewayProperties = gatewayProperties;
+    }
+
+    /**
+     * 匹配请求
+     *
+     * @param request 请求
+     * @return 白名单、路径黑名单和最具体的限流阈值
+     */
+    public PathRuleTrie.Match match(HttpServletRequest request) {
+        return match(requestPath(request));
+    }
+
+    /**
+     * 匹配请求路径
+     *
+     * @param path 规范化后的应用内请求路径
+     * @return 白名单、路径黑名单和最具体的限流阈值
+     */
+    public PathRuleTrie.Match match(String path) {
+        return current().trie.match(path, gatewayProperties.getRateLimit().getDefaultLimit());
+    }
+
+    /**
+     * 检查客户端标识是否在黑名单中
+     *
+     * @param clientId 客户端标识
+     * @return 是否在黑名单中
+     */
+    public boolean isBlacklistedClient(String clientId) {
+        return current().blacklistedClients.contains(clientId);
+    }
+
+    /**
+     * 获取规范化的应用内请求路径
+     * <p>
+     * 去掉上下文路径和分号参数（;jsessionid=... 等）、URL 解码、合并重复的 /，并解析 . 和 .. 段
+     *
+     * @param request 请求
+     * @return 应用内请求路径
+     */
+    public static String requestPath(HttpServletRequest request) {
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        return path.contains("/.") ? StringUtils.cleanPath(path) : path;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        List<String> whiteList = gatewayProperties.getWhiteList();
+        List<String> blackList = gatewayProperties.getBlackList();
+        Map<String, Integer> pathLimits = gatewayProperties.getRateLimit().getPathLimits();
+        if (current != null && current.whiteList == whiteList && current.blackList == blackList
+                && current.pathLimits == pathLimits) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || current.whiteList != whiteList || current.blackList != blackList
+                    || current.pathLimits != pathLimits) {
+                current = compile(whiteList, blackList, pathLimits);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private static Snapshot compile(List<String> whiteList, List<String> blackList, Map<String, Integer> pathLimits) {
+        List<String> blacklistedPaths = new ArrayList<>();
+        Set<String> blacklistedClients = new HashSet<>();
+        for (String entry : blackList) {
+            if (entry.startsWith("/")) {
+                blacklistedPaths.add(entry);
+            } else {
+                blacklistedClients.add(entry);
+            }
+        }
+        Snapshot snapshot = new Snapshot(whiteList, blackList, pathLimits,
+                PathRuleTrie.compile(whiteList, blacklistedPaths, pathLimits), blacklistedClients);
+        log.info("网关路由规则编译完成: whiteList={}, blacklistedPaths={}, blacklistedClients={}, pathLimits={}",
+                whiteList.size(), blacklistedPaths.size(), blacklistedClients.size(), pathLimits.size());
+        return snapshot;
+    }
+
+    /**
+     * 编译结果快照，保留编译时的原始集合用于判断配置是否变化
+     */
+    private record Snapshot(List<String> whiteList, List<String> blackList, Map<String, Integer> pathLimits,
+                            PathRuleTrie trie, Set<String> blacklistedClients) {
+    }
+}
@@ -0,0 +1,258 @@
+package com.cosmos.origin.gateway.matcher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译的路径规则前缀树
+ * <p>
+ * 将白名单、路径黑名单和按路径限流规则编译到同一棵按路径段划分的树中，一次遍历请求路径的各段即可得出全部结果：
+ * - 白名单、黑名单：是否有任意规则匹配
+ * - 限流阈值：取最具体的规则，具体程度按路径段依次比较：字面量 > 段内通配（如 *.html）> 单段通配（*、{id}）> 多段通配（**）
+ * <p>
+ * 规则语法与 Ant 风格一致：? 匹配单个字符，* 匹配段内任意字符，** 匹配任意多段，{name} 视为 *。
+ * 白名单中不含通配符的条目保持原有的字符串前缀语义（/doc 同时匹配 /doc.html 和 /doc/a）。
+ * <p>
+ * 编译后不可变，可被多个线程共享。
+ *
+ * @author cosmos
+ */
+public final class PathRuleTrie {
+
+    /**
+     * 单段具体程度：字面量、段内通配、单段通配、多段通配
+     */
+    private static final int LITERAL = 3;
+    private static final int PARTIAL = 2;
+    private static final int WILDCARD = 1;
+    private static final int MULTI = 0;
+
+    private final Node root;
+
+    private PathRuleTrie(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * 编译规则
+     *
+     * @param whiteList  白名单（Ant 风格，不含通配符时按字符串前缀匹配）
+     * @param blackList  路径黑名单（Ant 风格）
+     * @param pathLimits 按路径限流阈值（Ant 风格）
+     * @return 编译后的前缀树
+     */
+    public static PathRuleTrie compile(Collection<String> whiteList, Collection<String> blackList,
+                                       Map<String, Integer> pathLimits) {
+        Node root = new Node();
+        for (String pattern : whiteList) {
+            insert(root, hasWildcard(pattern) ? pattern : pattern + "*/**").whitelisted = true;
+        }
+        for (String pattern : blackList) {
+            insert(root, pattern).blacklisted = true;
+        }
+        pathLimits.forEach((pattern, limit) -> {
+            Node node = insert(root, pattern);
+            node.limit = limit;
+            node.limitSpecificity = specificity(pattern);
+        });
+        return new PathRuleTrie(root);
+    }
+
+    /**
+     * 匹配请求路径
+     *
+     * @param path         请求路径
+     * @param defaultLimit 没有限流规则匹配时使用的阈值
+     * @return 匹配结果
+     */
+    public Match match(String path, int defaultLimit) {
+        Collector collector = new Collector();
+        walk(root, split(path), 0, collector);
+        return new Match(collector.whitelisted, collector.blacklisted,
+                collector.limitSpecificity != null ? collector.limit : defaultLimit);
+    }
+
+    private static void walk(Node node, String[] segments, int index, Collector collector) {
+        if (index == segments.length) {
+            collector.accept(node);
+            // 末尾的 ** 可以匹配零段
+            if (node.multi != null) {
+                walk(node.multi, segments, index, collector);
+            }
+            return;
+        }
+        String segment = segments[index];
+        Node literal = node.literals.get(segment);
+        if (literal != null) {
+            walk(literal, segments, index + 1, collector);
+        }
+        for (GlobChild child : node.globs) {
+            if (child.matches(segment)) {
+                walk(child.node, segments, index + 1, collector);
+            }
+        }
+        if (node.multi != null) {
+            for (int i = index; i <= segments.length; i++) {
+                walk(node.multi, segments, i, collector);
+            }
+        }
+    }
+
+    private static Node insert(Node root, String pattern) {
+        Node node = root;
+        for (String segment : split(pattern)) {
+            if ("**".equals(segment)) {
+                if (node.multi == null) {
+                    node.multi = new Node();
+                }
+                node = node.multi;
+            } else if (hasWildcard(segment)) {
+                String glob = segment.replaceAll("\\{[^}]*}", "*");
+                GlobChild child = node.globs.stream().filter(g -> g.glob.equals(glob)).findFirst().orElse(null);
+                if (child == null) {
+                    child = new GlobChild(glob, new Node());
+                    node.globs.add(child);
+                }
+                node = child.node;
+            } else {
+                node = node.literals.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+        return node;
+    }
+
+    private static int[] specificity(String pattern) {
+        String[] segments = split(pattern);
+        int[] result = new int[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if ("**".equals(segment)) {
+                result[i] = MULTI;
+            } else if (hasWildcard(segment)) {
+                result[i] = "*".equals(segment.replaceAll("\\{[^}]*}", "*")) ? WILDCARD : PARTIAL;
+            } else {
+                result[i] = LITERAL;
+            }
+        }
+        return result;
+    }
+
+    private static boolean hasWildcard(String pattern) {
+        return pattern.indexOf('*') >= 0 || pattern.indexOf('?') >= 0 || pattern.indexOf('{') >= 0;
+    }
+
+    /**
+     * 按 / 拆分路径，忽略开头的 /，保留末尾的空段（/ 为一个空段，/a/ 与 /a 不同）
+     */
+    private static String[] split(String path) {
+        int from = path.startsWith("/") ? 1 : 0;
+        List<String> segments = new ArrayList<>();
+        for (int i = from; i < path.length(); i++) {
+            if (path.charAt(i) == '/') {
+                segments.add(path.substring(from, i));
+                from = i + 1;
+            }
+        }
+        segments.add(path.substring(from));
+        return segments.toArray(new String[0]);
+    }
+
+    /**
+     * 逐段比较具体程度，前面的段相同时段数多的更具体
+     */
+    private static int compare(int[] a, int[] b) {
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            if (a[i] != b[i]) {
+                return Integer.compare(a[i], b[i]);
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    /**
+     * 匹配结果
+     *
+     * @param whitelisted 是否命中白名单
+     * @param blacklisted 是否命中路径黑名单
+     * @param limit       最具体的限流规则的阈值，没有规则匹配时为默认阈值
+     */
+    public record Match(boolean whitelisted, boolean blacklisted, int limit) {
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> literals = new HashMap<>();
+
+        private final List<GlobChild> globs = new ArrayList<>();
+
+        private Node multi;
+
+        private boolean whitelisted;
+
+        private boolean blacklisted;
+
+        private Integer limit;
+
+        private int[] limitSpecificity;
+    }
+
+    private static final class GlobChild {
+
+        private final String glob;
+
+        private final Node node;
+
+        private GlobChild(String glob, Node node) {
+            this.glob = glob;
+            this.node = node;
+        }
+
+        private boolean matches(String segment) {
+            return matches(glob, 0, segment, 0);
+        }
+
+        private static boolean matches(String glob, int g, String text, int t) {
+            while (g < glob.length()) {
+                char c = glob.charAt(g);
+                if (c == '*') {
+                    for (int i = t; i <= text.length(); i++) {
+                        if (matches(glob, g + 1, text, i)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+                if (t >= text.length() || (c != '?' && c != text.charAt(t))) {
+                    return false;
+                }
+                g++;
+                t++;
+            }
+            return t == text.length();
+        }
+    }
+
+    private static final class Collector {
+
+        private boolean whitelisted;
+
+        private boolean blacklisted;
+
+        private int limit;
+
+        private int[] limitSpecificity;
+
+        private void accept(Node node) {
+            whitelisted |= node.whitelisted;
+            blacklisted |= node.blacklisted;
+            // 同一节点可能由多条路径到达（如 /** 与 /a/**），以规则自身的具体程度为准
+            if (node.limit != null && (limitSpecificity == null || compare(node.limitSpecificity, limitSpecificity) > 0)) {
+                limit = node.limit;
+                limitSpecificity = node.limitSpecificity;
+            }
+        }
+    }
+}
@@ -26,15 +26,20 @@ public class GatewayProperties {
     private RateLimitProperties rateLimit = new RateLimitProperties();
 
     /**
-     * 白名单配置
+     * 白名单配置（Ant 风格路径，不含通配符时按前缀匹配）
      */
     private List<String> whiteList = Collections.emptyList();
 
     /**
-     * 黑名单配置
+     * 黑名单配置（以 / 开头的为 Ant 风格路径，其余为客户端标识，如 ip:1.2.3.4、ip:10.0.0.0/8、user:1）
      */
     private List<String> blackList = Collections.emptyList();
 
+    /**
+     * IP 黑名单配置
+     */
+    private IpBlacklistProperties ipBlacklist = new IpBlacklistProperties();
+
     /**
      * 限流配置属性
      */
@@ -55,14 +60,96 @@ public class GatewayProperties {
          */
         private int timeWindow = 1;
 
+        /**
+         * 限流算法
+         */
+        private Algorithm algorithm = Algorithm.GCRA;
+
+        /**
+         * 突发容量（仅 GCRA 生效），小于等于 0 时等于限流阈值
+         */
+        private int burst = 0;
+
+        /**
+         * 许可租约配置（仅 LEASED 生效）
+         */
+        private LeaseProperties lease = new LeaseProperties();
+
         /**
          * 超过限流阈值时的提示信息
          */
         private String limitMessage = "请求过于频繁，请稍后再试";
 
         /**
-         * 特定接口的限流配置（key: 接口路径，value: 限流阈值）
+         * 特定接口的限流配置（key: Ant 风格接口路径，如 /admin/**，多条匹配时取最具体的一条；value: 限流阈值）
          */
         private java.util.Map<String, Integer> pathLimits = Collections.emptyMap();
     }
+
+    /**
+     * IP 黑名单配置属性
+     */
+    @Data
+    public static class IpBlacklistProperties {
+        /**
+         * 是否启用 IP 黑名单（支持 CIDR 网段）
+         */
+        private boolean enabled = true;
+
+        /**
+         * 规则文件路径（每行一条 IP 或 CIDR 网段，# 开头为注释），为空时不读取
+         */
+        private String file;
+
+        /**
+         * 规则所在的 Redis Set key，为空时不读取
+         * <p>
+         * 修改 Set 后需 INCR {redisKey}:version 或向 reloadChannel 发布消息，定时检查只读取版本号
+         */
+        private String redisKey;
+
+        /**
+         * 立即重新加载的 Redis 频道，为空时不订阅
+         */
+        private String reloadChannel = "gateway:ip-blacklist:reload";
+
+        /**
+         * 检查规则来源是否变化的间隔（秒），只比较配置引用、文件修改时间和 Redis 版本号
+         */
+        private long reloadIntervalSeconds = 30;
+    }
+
+    /**
+     * 许可租约配置属性
+     */
+    @Data
+    public static class LeaseProperties {
+        /**
+         * 租约有效期（毫秒），到期后未用完的许可归还 Redis
+         */
+        private long durationMillis = 1000;
+
+        /**
+         * 单次租约最多占突发容量的比例
+         */
+        private double maxLeaseRatio = 0.1;
+    }
+
+    /**
+     * 限流算法
+     */
+    public enum Algorithm {
+        /**
+         * 滑动窗口（ZSet 记录每个请求）
+         */
+        SLIDING_WINDOW,
+        /**
+         * GCRA（每个 key 只保存一个时间戳，单个 Lua 脚本原子判定）
+         */
+        GCRA,
+        /**
+         * 许可租约（基于 GCRA，各节点批量租用许可在本地消费，热点 key 大幅减少 Redis 调用）
+         */
+        LEASED
+    }
 }
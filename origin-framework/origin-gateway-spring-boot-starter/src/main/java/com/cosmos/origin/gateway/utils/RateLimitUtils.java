@@ -3,13 +3,20 @@ package com.cosmos.origin.gateway.utils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
  * 限流工具类
- * 基于 Redis 滑动窗口算法实现
+ * 基于 Redis 实现，提供两种算法：
+ * - 滑动窗口：ZSet 中每个请求一条记录，内存随限流阈值增长，多个命令之间非原子
+ * - GCRA（通用信元速率算法，等价于令牌桶）：每个 key 只保存一个理论到达时间，单个 Lua 脚本原子判定
  *
  * @author cosmos
  */
@@ -22,6 +29,73 @@ public class RateLimitUtils {
 
     private static final String RATE_LIMIT_KEY_PREFIX = "rate:limit:";
 
+    /**
+     * GCRA 使用独立前缀，切换算法时不会与滑动窗口的 ZSet 冲突
+     */
+    private static final String GCRA_KEY_PREFIX = "rate:gcra:";
+
+    /**
+     * GCRA 限流脚本（时间取 Redis 服务器时间，避免各节点时钟不一致）
+     * KEYS[1]: 限流 key
+     * ARGV[1]: 每个请求的间隔（微秒）
+     * ARGV[2]: 突发容量（请求数）
+     * 返回 {是否允许(1/0), 剩余可用请求数, 需等待的时间（微秒）}
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> GCRA_SCRIPT = new DefaultRedisScript<>("""
+            local now = redis.call('TIME')
+            now = tonumber(now[1]) * 1000000 + tonumber(now[2])
+            local interval = tonumber(ARGV[1])
+            local burst = tonumber(ARGV[2])
+            local tat = tonumber(redis.call('GET', KEYS[1]))
+            if not tat or tat < now then
+                tat = now
+            end
+            local newTat = tat + interval
+            local allowAt = newTat - burst * interval
+            if now < allowAt then
+                return {0, 0, allowAt - now}
+            end
+            redis.call('SET', KEYS[1], string.format('%.0f', newTat), 'PX', math.ceil((newTat - now) / 1000) + 1)
+            return {1, math.floor((now - allowAt) / interval), 0}
+            """, List.class);
+
+    /**
+     * GCRA 许可租约脚本：归还上次未用完的许可并预取一批许可，与 {@link #GCRA_SCRIPT} 共用同一个 key
+     * KEYS[1]: 限流 key
+     * ARGV[1]: 每个请求的间隔（微秒）
+     * ARGV[2]: 突发容量（请求数）
+     * ARGV[3]: 本次预取的许可数
+     * ARGV[4]: 归还的许可数
+     * 返回 {实际获得的许可数, 获得后剩余可用请求数, 未获得许可时需等待的时间（微秒）}
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> LEASE_SCRIPT = new DefaultRedisScript<>("""
+            local now = redis.call('TIME')
+            now = tonumber(now[1]) * 1000000 + tonumber(now[2])
+            local interval = tonumber(ARGV[1])
+            local burst = tonumber(ARGV[2])
+            local tat = tonumber(redis.call('GET', KEYS[1])) or now
+            tat = tat - tonumber(ARGV[4]) * interval
+            if tat < now then
+                tat = now
+            end
+            local available = math.floor((now - tat) / interval + burst)
+            local granted = math.max(0, math.min(tonumber(ARGV[3]), available))
+            tat = tat + granted * interval
+            if tat > now then
+                redis.call('SET', KEYS[1], string.format('%.0f', tat), 'PX', math.ceil((tat - now) / 1000) + 1)
+            else
+                redis.call('DEL', KEYS[1])
+            end
+            if granted > 0 then
+                return {granted, available - granted, 0}
+            end
+            return {0, 0, tat + interval - burst * interval - now}
+            """, List.class);
+
+    private static final StringRedisSerializer STRING_SERIALIZER = new StringRedisSerializer();
+
     /**
      * 尝试获取访问许可
      *
@@ -62,6 +136,73 @@ public class RateLimitUtils {
         }
     }
 
+    /**
+     * 尝试获取访问许可（GCRA）
+     * <p>
+     * 平均速率为 limit / timeWindow，允许瞬间突发 burst 个请求；每个 key 只占用一个字符串，过期时间为桶恢复满所需的时间
+     *
+     * @param clientId   客户端标识
+     * @param path       请求路径
+     * @param limit      限流阈值
+     * @param timeWindow 时间窗口（秒）
+     * @param burst      突发容量，小于等于 0 时取 limit
+     * @return 判定结果
+     */
+    public Decision tryAcquireGcra(String clientId, String path, int limit, int timeWindow, int burst) {
+        String key = GCRA_KEY_PREFIX + clientId + ":" + path;
+        long interval = Math.max(1, TimeUnit.SECONDS.toMicros(timeWindow) / Math.max(1, limit));
+        int capacity = burst > 0 ? burst : limit;
+
+        try {
+            List<?> result = redisTemplate.execute(GCRA_SCRIPT, STRING_SERIALIZER, STRING_SERIALIZER,
+                    Collections.singletonList(key), String.valueOf(interval), String.valueOf(capacity));
+            if (result == null || result.size() < 3) {
+                return Decision.ALLOWED;
+            }
+            return new Decision(((Number) result.get(0)).longValue() == 1,
+                    ((Number) result.get(1)).longValue(),
+                    TimeUnit.MICROSECONDS.toMillis(((Number) result.get(2)).longValue() + 999));
+        } catch (Exception e) {
+            log.error("限流检查失败，key: {}", key, e);
+            // 限流出错时，默认允许访问，避免影响正常业务
+            return Decision.ALLOWED;
+        }
+    }
+
+    /**
+     * 租用一批许可（GCRA），并归还上次未用完的许可，只需一次往返
+     *
+     * @param clientId   客户端标识
+     * @param path       请求路径
+     * @param limit      限流阈值
+     * @param timeWindow 时间窗口（秒）
+     * @param burst      突发容量，小于等于 0 时取 limit
+     * @param requested  本次预取的许可数
+     * @param returned   归还的许可数
+     * @return 租用结果，Redis 出错时返回 null
+     */
+    public Lease leaseGcra(String clientId, String path, int limit, int timeWindow, int burst,
+                           long requested, long returned) {
+        String key = GCRA_KEY_PREFIX + clientId + ":" + path;
+        long interval = Math.max(1, TimeUnit.SECONDS.toMicros(timeWindow) / Math.max(1, limit));
+        int capacity = burst > 0 ? burst : limit;
+
+        try {
+            List<?> result = redisTemplate.execute(LEASE_SCRIPT, STRING_SERIALIZER, STRING_SERIALIZER,
+                    Collections.singletonList(key), String.valueOf(interval), String.valueOf(capacity),
+                    String.valueOf(requested), String.valueOf(returned));
+            if (result == null || result.size() < 3) {
+                return null;
+            }
+            return new Lease(((Number) result.get(0)).longValue(),
+                    ((Number) result.get(1)).longValue(),
+                    TimeUnit.MICROSECONDS.toMillis(((Number) result.get(2)).longValue() + 999));
+        } catch (Exception e) {
+            log.error("租用限流许可失败，key: {}", key, e);
+            return null;
+        }
+    }
+
     /**
      * 获取当前请求次数
      *
@@ -92,7 +233,31 @@ public class RateLimitUtils {
      * @param path     请求路径
      */
     public void clearLimit(String clientId, String path) {
-        String key = RATE_LIMIT_KEY_PREFIX + clientId + ":" + path;
-        redisTemplate.delete(key);
+        redisTemplate.delete(List.of(RATE_LIMIT_KEY_PREFIX + clientId + ":" + path,
+                GCRA_KEY_PREFIX + clientId + ":" + path));
+    }
+
+    /**
+     * 限流判定结果
+     *
+     * @param allowed          是否允许访问
+     * @param remaining        剩余可立即使用的请求数（未知时为 -1）
+     * @param retryAfterMillis 被拒绝时需等待的时间（毫秒）
+     */
+    public record Decision(boolean allowed, long remaining, long retryAfterMillis) {
+
+        public static final Decision ALLOWED = new Decision(true, -1, 0);
+
+        public static final Decision REJECTED = new Decision(false, 0, 0);
+    }
+
+    /**
+     * 许可租约
+     *
+     * @param granted          获得的许可数
+     * @param remaining        Redis 中剩余可用的请求数
+     * @param retryAfterMillis 未获得许可时需等待的时间（毫秒）
+     */
+    public record Lease(long granted, long remaining, long retryAfterMillis) {
     }
 }
@@ -0,0 +1,119 @@
+package com.cosmos.origin.gateway.ip;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IpRadixTreeTests {
+
+    /**
+     * /32 只命中单个地址，相邻地址不受影响
+     */
+    @Test
+    void testHostRule() {
+        IpRadixTree tree = new IpRadixTree();
+        assertTrue(tree.add("10.0.0.1/32"));
+        assertTrue(tree.add("192.168.1.1"));
+
+        assertTrue(tree.contains("10.0.0.1"));
+        assertFalse(tree.contains("10.0.0.0"));
+        assertFalse(tree.contains("10.0.0.2"));
+        assertTrue(tree.contains("192.168.1.1"));
+        assertFalse(tree.contains("192.168.1.2"));
+    }
+
+    /**
+     * 部分重叠的网段在分叉处拆分，各自只命中自己的范围
+     */
+    @Test
+    void testOverlappingRules() {
+        IpRadixTree tree = new IpRadixTree();
+        assertTrue(tree.add("10.1.0.0/16"));
+        assertTrue(tree.add("10.2.0.0/16"));
+        assertTrue(tree.add("10.1.128.0/17"));
+
+        assertTrue(tree.contains("10.1.0.1"));
+        assertTrue(tree.contains("10.1.200.1"));
+        assertTrue(tree.contains("10.2.255.255"));
+        assertFalse(tree.contains("10.3.0.1"));
+        assertFalse(tree.contains("10.0.255.255"));
+    }
+
+    /**
+     * 先插入子网段再插入覆盖它的网段、或反过来，结果一致
+     */
+    @Test
+    void testCoveringRules() {
+        IpRadixTree narrowFirst = new IpRadixTree();
+        narrowFirst.add("10.0.0.0/24");
+        narrowFirst.add("10.0.0.0/8");
+        IpRadixTree wideFirst = new IpRadixTree();
+        wideFirst.add("10.0.0.0/8");
+        wideFirst.add("10.0.0.0/24");
+
+        for (IpRadixTree tree : new IpRadixTree[]{narrowFirst, wideFirst}) {
+            assertTrue(tree.contains("10.0.0.1"));
+            assertTrue(tree.contains("10.255.0.1"));
+            assertFalse(tree.contains("11.0.0.1"));
+        }
+    }
+
+    /**
+     * /0 命中同一协议族的所有地址，不影响另一协议族
+     */
+    @Test
+    void testDefaultRoute() {
+        IpRadixTree tree = new IpRadixTree();
+        assertTrue(tree.add("0.0.0.0/0"));
+
+        assertTrue(tree.contains("1.2.3.4"));
+        assertTrue(tree.contains("255.255.255.255"));
+        assertFalse(tree.contains("2001:db8::1"));
+
+        IpRadixTree v6 = new IpRadixTree();
+        assertTrue(v6.add("::/0"));
+        assertTrue(v6.contains("2001:db8::1"));
+        assertFalse(v6.contains("1.2.3.4"));
+    }
+
+    /**
+     * IPv4 映射的 IPv6 地址按 IPv4 处理，规则和查询两侧都适用
+     */
+    @Test
+    void testIpv4MappedIpv6() {
+        IpRadixTree tree = new IpRadixTree();
+        assertTrue(tree.add("::ffff:192.168.1.1"));
+        assertTrue(tree.add("10.0.0.0/8"));
+        assertTrue(tree.add("2001:db8::/32"));
+
+        assertTrue(tree.contains("192.168.1.1"));
+        assertTrue(tree.contains("::ffff:10.1.2.3"));
+        assertTrue(tree.contains("[::ffff:10.1.2.3]"));
+        assertFalse(tree.contains("::ffff:11.1.2.3"));
+        assertTrue(tree.contains("2001:db8:1::1"));
+        assertFalse(tree.contains("2001:db9::1"));
+    }
+
+    /**
+     * 非 IP 字面量和非法前缀一律视为无效，不做 DNS 查询
+     */
+    @Test
+    void testInvalidRules() {
+        IpRadixTree tree = new IpRadixTree();
+        assertFalse(tree.add("localhost"));
+        assertFalse(tree.add(".::"));
+        assertFalse(tree.add("1.2.3"));
+        assertFalse(tree.add("1.2.3.256"));
+        assertFalse(tree.add("10.0.0.0/33"));
+        assertFalse(tree.add("2001:db8::/129"));
+        assertFalse(tree.add("10.0.0.0/x"));
+        assertEquals(0, tree.size());
+
+        assertNull(IpRadixTree.parse(".::"));
+        assertNull(IpRadixTree.parse("example.com"));
+        assertFalse(tree.contains("example.com"));
+    }
+}
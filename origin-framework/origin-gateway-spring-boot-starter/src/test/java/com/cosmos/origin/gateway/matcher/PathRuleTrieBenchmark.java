@@ -0,0 +1,117 @@
+package com.cosmos.origin.gateway.matcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 路由规则匹配基准测试：对比预编译前缀树与原有的逐条匹配
+ * <p>
+ * - trie：一次遍历得出白名单、黑名单和限流阈值
+ * - streams：原网关过滤器的 startsWith 白名单 + List.contains 黑名单 + 精确路径限流 Map
+ * - antPathMatcher：原 JWT 限流过滤器的 AntPathMatcher 白名单（仅白名单，不含限流规则）
+ * <p>
+ * 运行方式：在 IDE 中直接运行 main 方法，或 mvn test-compile 后通过 exec 执行本类
+ *
+ * @author cosmos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathRuleTrieBenchmark {
+
+    private static final String[] PATHS = {
+            "/admin/users/1024",
+            "/admin/roles/list",
+            "/api/articles/2048/comments",
+            "/doc.html",
+            "/v3/api-docs/default",
+            "/login",
+            "/api/files/upload",
+            "/webjars/js/app.js"
+    };
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private List<String> whiteList;
+
+    private List<String> antWhiteList;
+
+    private List<String> blackList;
+
+    private Map<String, Integer> pathLimits;
+
+    private PathRuleTrie trie;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        whiteList = new ArrayList<>(List.of("/doc", "/webjars/", "/favicon.ico", "/.well-known/", "/test"));
+        antWhiteList = new ArrayList<>(List.of("/login", "/logout", "/doc.html", "/v3/api-docs/**",
+                "/favicon.ico", "/webjars/**", "/.well-known/**", "/test"));
+        blackList = new ArrayList<>();
+        pathLimits = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            whiteList.add("/open/module" + i + "/");
+            blackList.add("ip:10.0.0." + i);
+            pathLimits.put("/api/module" + i + "/list", 50 + i);
+        }
+        pathLimits.put("/login", 20);
+        Map<String, Integer> patternLimits = new HashMap<>(pathLimits);
+        patternLimits.put("/admin/**", 30);
+        patternLimits.put("/api/articles/{id}/comments", 40);
+        trie = PathRuleTrie.compile(whiteList, List.of("/internal/**"), patternLimits);
+    }
+
+    private String next() {
+        index = (index + 1) & (PATHS.length - 1);
+        return PATHS[index];
+    }
+
+    @Benchmark
+    public PathRuleTrie.Match trie() {
+        return trie.match(next(), 100);
+    }
+
+    @Benchmark
+    public void streams(Blackhole blackhole) {
+        String path = next();
+        blackhole.consume(whiteList.stream().anyMatch(path::startsWith));
+        blackhole.consume(blackList.contains("ip:192.168.1.1"));
+        blackhole.consume(pathLimits.getOrDefault(path, 100));
+    }
+
+    @Benchmark
+    public boolean antPathMatcher() {
+        String path = next();
+        return antWhiteList.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PathRuleTrieBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
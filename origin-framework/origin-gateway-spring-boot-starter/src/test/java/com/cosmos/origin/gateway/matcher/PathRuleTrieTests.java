@@ -0,0 +1,88 @@
+package com.cosmos.origin.gateway.matcher;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PathRuleTrieTests {
+
+    /**
+     * 不含通配符的白名单条目保持字符串前缀语义，含通配符的按 Ant 风格匹配
+     */
+    @Test
+    void testWhiteList() {
+        PathRuleTrie trie = PathRuleTrie.compile(List.of("/doc", "/public/", "/v3/api-docs/**"), List.of(), Map.of());
+
+        assertTrue(trie.match("/doc.html", 100).whitelisted());
+        assertTrue(trie.match("/doc/a", 100).whitelisted());
+        assertFalse(trie.match("/do", 100).whitelisted());
+        assertTrue(trie.match("/public/", 100).whitelisted());
+        assertFalse(trie.match("/public", 100).whitelisted());
+        assertTrue(trie.match("/v3/api-docs", 100).whitelisted());
+        assertTrue(trie.match("/v3/api-docs/a/b", 100).whitelisted());
+        assertFalse(trie.match("/v3/other", 100).whitelisted());
+    }
+
+    /**
+     * 路径黑名单与白名单在同一次匹配中得出
+     */
+    @Test
+    void testBlackList() {
+        PathRuleTrie trie = PathRuleTrie.compile(List.of("/admin"), List.of("/admin/secret/**"), Map.of());
+
+        PathRuleTrie.Match match = trie.match("/admin/secret/key", 100);
+        assertTrue(match.whitelisted());
+        assertTrue(match.blacklisted());
+        assertFalse(trie.match("/admin/public", 100).blacklisted());
+    }
+
+    /**
+     * 分号参数、重复的 /、URL 编码、. 和 .. 段以及上下文路径都在匹配前规范化，不能绕过路径黑名单
+     */
+    @Test
+    void testBlackListOnNormalizedPath() {
+        PathRuleTrie trie = PathRuleTrie.compile(List.of(), List.of("/admin/secret/**"), Map.of());
+
+        for (String uri : List.of("/api/admin/secret/key", "/api/admin/secret;x/key", "/api//admin/secret/key",
+                "/api/admin/%73ecret/key", "/api/admin/./secret/key", "/api/public/../admin/secret/key")) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+            request.setContextPath("/api");
+            String path = GatewayRouteMatcher.requestPath(request);
+            assertEquals("/admin/secret/key", path, uri);
+            assertTrue(trie.match(path, 100).blacklisted(), uri);
+        }
+    }
+
+    /**
+     * 多条限流规则匹配时取最具体的一条，都不匹配时取默认阈值
+     */
+    @Test
+    void testMostSpecificLimit() {
+        Map<String, Integer> pathLimits = new LinkedHashMap<>();
+        pathLimits.put("/**", 1);
+        pathLimits.put("/admin/**", 2);
+        pathLimits.put("/admin/users/{id}", 3);
+        pathLimits.put("/admin/users/list", 4);
+        pathLimits.put("/admin/*.html", 5);
+        PathRuleTrie trie = PathRuleTrie.compile(List.of(), List.of(), pathLimits);
+
+        assertEquals(1, trie.match("/", 100).limit());
+        assertEquals(1, trie.match("/login", 100).limit());
+        assertEquals(2, trie.match("/admin", 100).limit());
+        assertEquals(2, trie.match("/admin/roles/1", 100).limit());
+        assertEquals(3, trie.match("/admin/users/7", 100).limit());
+        assertEquals(4, trie.match("/admin/users/list", 100).limit());
+        assertEquals(5, trie.match("/admin/index.html", 100).limit());
+
+        PathRuleTrie empty = PathRuleTrie.compile(List.of(), List.of(), Map.of("/login", 20));
+        assertEquals(20, empty.match("/login", 100).limit());
+        assertEquals(100, empty.match("/login/x", 100).limit());
+    }
+}
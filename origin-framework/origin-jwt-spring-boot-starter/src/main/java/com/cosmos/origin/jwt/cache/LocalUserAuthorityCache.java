@@ -0,0 +1,74 @@
+package com.cosmos.origin.jwt.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 基于本地内存的用户权限缓存（默认实现）
+ * <p>
+ * 容量有上限，写入后 expireSeconds 秒过期；多节点部署时各节点只能依赖 TTL 收敛，
+ * 需要跨节点即时失效时请使用 Redis 实现。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Slf4j
+public class LocalUserAuthorityCache implements UserAuthorityCache {
+
+    private final Cache<String, UserDetails> cache;
+
+    public LocalUserAuthorityCache(long maximumSize, long expireSeconds) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        UserDetails cached = cache.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+        UserDetails loaded = UserAuthorityCache.withoutPassword(loader.apply(username));
+        cache.put(username, loaded);
+        return loaded;
+    }
+
+    /**
+     * 仅查询本地缓存，不触发加载
+     *
+     * @param username 用户名
+     * @return 用户详情，未命中返回 null
+     */
+    public UserDetails getIfPresent(String username) {
+        return cache.getIfPresent(username);
+    }
+
+    /**
+     * 直接写入本地缓存
+     *
+     * @param username    用户名
+     * @param userDetails 用户详情
+     */
+    public void put(String username, UserDetails userDetails) {
+        cache.put(username, UserAuthorityCache.withoutPassword(userDetails));
+    }
+
+    @Override
+    public void evict(String username) {
+        cache.invalidate(username);
+        log.debug("用户 [{}] 的权限缓存已失效", username);
+    }
+
+    @Override
+    public void evictAll() {
+        cache.invalidateAll();
+        log.debug("所有用户的权限缓存已失效");
+    }
+}
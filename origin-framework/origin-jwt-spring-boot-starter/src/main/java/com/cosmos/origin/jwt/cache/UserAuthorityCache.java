@@ -0,0 +1,59 @@
+package com.cosmos.origin.jwt.cache;
+
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.function.Function;
+
+/**
+ * 用户权限缓存
+ * <p>
+ * 用于 Token 认证链路，避免每个请求都查询用户和角色。
+ * 缓存中的 UserDetails 不含密码，登录认证（DaoAuthenticationProvider）不走此缓存。
+ * <p>
+ * 默认实现为本地缓存 {@link LocalUserAuthorityCache}，业务模块可自行注册实现替换（如 Redis 二级缓存）。
+ * 用户或角色变更后，需要调用 {@link #evict(String)} / {@link #evictAll()} 使缓存失效。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+public interface UserAuthorityCache {
+
+    /**
+     * 获取用户权限信息，未命中时通过 loader 加载并缓存
+     *
+     * @param username 用户名
+     * @param loader   加载函数（通常为 UserDetailsService::loadUserByUsername）
+     * @return 用户详情（不含密码）
+     */
+    UserDetails get(String username, Function<String, UserDetails> loader);
+
+    /**
+     * 使指定用户的缓存失效
+     *
+     * @param username 用户名
+     */
+    void evict(String username);
+
+    /**
+     * 使所有用户的缓存失效（如角色变更时）
+     */
+    void evictAll();
+
+    /**
+     * 复制一份不含密码的 UserDetails，用于缓存
+     *
+     * @param userDetails 用户详情
+     * @return 不含密码的用户详情
+     */
+    static UserDetails withoutPassword(UserDetails userDetails) {
+        return User.withUsername(userDetails.getUsername())
+                .password("")
+                .authorities(userDetails.getAuthorities())
+                .accountExpired(!userDetails.isAccountNonExpired())
+                .accountLocked(!userDetails.isAccountNonLocked())
+                .credentialsExpired(!userDetails.isCredentialsNonExpired())
+                .disabled(!userDetails.isEnabled())
+                .build();
+    }
+}
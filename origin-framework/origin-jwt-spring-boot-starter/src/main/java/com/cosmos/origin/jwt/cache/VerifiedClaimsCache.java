@@ -0,0 +1,132 @@
+package com.cosmos.origin.jwt.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已验签 Token 的 Claims 本地缓存
+ * <p>
+ * 同一个 Token 在有效期内会被反复携带，每次都做 HMAC-SHA512 验签 + JSON 解析代价较高。
+ * 这里以 Token 的 SHA-256 摘要为 key 缓存解析后的 Claims：
+ * - 容量有上限，超出后按 LRU 淘汰
+ * - 写入后最多存活 expireSeconds 秒
+ * - 读取时校验 Token 自身的 exp，缓存项绝不会比 Token 活得更久
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+public class VerifiedClaimsCache implements InitializingBean {
+
+    /**
+     * 是否启用缓存
+     */
+    @Value("${jwt.claims-cache.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 最大缓存条数
+     */
+    @Value("${jwt.claims-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    /**
+     * 缓存项写入后的最长存活时间（秒）
+     */
+    @Value("${jwt.claims-cache.expire-seconds:300}")
+    private long expireSeconds;
+
+    private Cache<String, CachedClaims> cache;
+
+    @Override
+    public void afterPropertiesSet() {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+                .build();
+        log.info("JWT Claims 缓存初始化完成: enabled={}, maximumSize={}, expireSeconds={}", enabled, maximumSize, expireSeconds);
+    }
+
+    /**
+     * 获取已验签的 Claims
+     *
+     * @param token Token
+     * @return Claims，未命中或 Token 已过期时返回 null
+     */
+    public Claims get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        String key = digest(token);
+        CachedClaims cached = cache.getIfPresent(key);
+        if (cached == null) {
+            return null;
+        }
+        // Token 已过期，立即移除，交由解析器抛出 ExpiredJwtException
+        if (cached.expireAtMillis() <= System.currentTimeMillis()) {
+            cache.invalidate(key);
+            return null;
+        }
+        return cached.claims();
+    }
+
+    /**
+     * 缓存已验签的 Claims（没有 exp 的 Token 不缓存）
+     *
+     * @param token  Token
+     * @param claims 已验签的 Claims
+     */
+    public void put(String token, Claims claims) {
+        if (!enabled) {
+            return;
+        }
+        Date expiration = claims.getExpiration();
+        if (expiration == null || expiration.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        cache.put(digest(token), new CachedClaims(claims, expiration.getTime()));
+    }
+
+    /**
+     * 移除指定 Token 的缓存
+     *
+     * @param token Token
+     */
+    public void invalidate(String token) {
+        cache.invalidate(digest(token));
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 计算 Token 摘要，避免缓存中长期持有原始 Token
+     */
+    private static String digest(String token) {
+        return Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * 缓存项
+     *
+     * @param claims         已验签的 Claims
+     * @param expireAtMillis Token 过期时间戳（毫秒）
+     */
+    private record CachedClaims(Claims claims, long expireAtMillis) {
+    }
+}
@@ -4,6 +4,8 @@ import com.cosmos.origin.jwt.constant.JwtSecurityConstants;
 import com.cosmos.origin.jwt.filter.JwtAuthenticationFilter;
 import com.cosmos.origin.jwt.handler.RestAuthenticationFailureHandler;
 import com.cosmos.origin.jwt.handler.RestAuthenticationSuccessHandler;
+import com.cosmos.origin.jwt.limiter.LoginConcurrencyGate;
+import jakarta.servlet.Filter;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.Getter;
 import lombok.Setter;
@@ -15,6 +17,7 @@ import org.springframework.security.config.annotation.SecurityConfigurerAdapter;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.DefaultSecurityFilterChain;
@@ -60,6 +63,11 @@ public class JwtAuthenticationSecurityConfig extends SecurityConfigurerAdapter<D
      */
     private final UserDetailsService userDetailsService;
 
+    /**
+     * 登录并发闸门
+     */
+    private final LoginConcurrencyGate concurrencyGate;
+
     // ========== 可配置属性（通过 customizer 设置） ==========
 
     /**
@@ -96,6 +104,13 @@ public class JwtAuthenticationSecurityConfig extends SecurityConfigurerAdapter<D
     @Setter
     private Function<String, Void> lockCheckFunction;
 
+    /**
+     * 登录前置检查过滤器（注册在登录过滤器之前，如本地限流）
+     * 需要用户名时应读取请求体并存入 {@link JwtSecurityConstants#LOGIN_REQUEST_BODY_ATTRIBUTE}，供登录过滤器复用
+     */
+    @Setter
+    private Filter loginCheckFilter;
+
     /**
      * 过滤器实例（配置完成后可获取）
      */
@@ -106,11 +121,13 @@ public class JwtAuthenticationSecurityConfig extends SecurityConfigurerAdapter<D
             RestAuthenticationSuccessHandler defaultSuccessHandler,
             RestAuthenticationFailureHandler defaultFailureHandler,
             PasswordEncoder passwordEncoder,
-            UserDetailsService userDetailsService) {
+            UserDetailsService userDetailsService,
+            LoginConcurrencyGate concurrencyGate) {
         this.defaultSuccessHandler = defaultSuccessHandler;
         this.defaultFailureHandler = defaultFailureHandler;
         this.passwordEncoder = passwordEncoder;
         this.userDetailsService = userDetailsService;
+        this.concurrencyGate = concurrencyGate;
     }
 
     /**
@@ -128,6 +145,7 @@ public class JwtAuthenticationSecurityConfig extends SecurityConfigurerAdapter<D
         if (lockCheckFunction != null) {
             filter.setLockCheckFunction(lockCheckFunction);
         }
+        filter.setConcurrencyGate(concurrencyGate);
 
         // 设置处理器（包装以支持回调功能）
         AuthenticationSuccessHandler successHandler = createSuccessHandler();
@@ -139,10 +157,17 @@ public class JwtAuthenticationSecurityConfig extends SecurityConfigurerAdapter<D
         // 配置认证提供者
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
         provider.setPasswordEncoder(passwordEncoder);
+        // 用户详情服务支持更新密码时，登录成功后自动将旧强度的密码哈希升级为当前配置的强度
+        if (userDetailsService instanceof UserDetailsPasswordService userDetailsPasswordService) {
+            provider.setUserDetailsPasswordService(userDetailsPasswordService);
+        }
         httpSecurity.authenticationProvider(provider);
 
         // 添加过滤器
         httpSecurity.addFilterBefore(filter, UsernamePasswordAuthenticationFilter.class);
+        if (loginCheckFilter != null) {
+            httpSecurity.addFilterBefore(loginCheckFilter, JwtAuthenticationFilter.class);
+        }
 
         log.debug("JwtAuthenticationFilter 配置完成: url={}, usernameParam={}, passwordParam={}",
                 JwtSecurityConstants.DEFAULT_LOGIN_URL, JwtSecurityConstants.USERNAME_PARAMETER, JwtSecurityConstants.PASSWORD_PARAMETER);
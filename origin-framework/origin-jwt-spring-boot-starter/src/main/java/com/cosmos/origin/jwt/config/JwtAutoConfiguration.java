@@ -1,9 +1,51 @@
 package com.cosmos.origin.jwt.config;
 
+import com.cosmos.origin.jwt.cache.LocalUserAuthorityCache;
+import com.cosmos.origin.jwt.cache.UserAuthorityCache;
+import com.cosmos.origin.jwt.filter.RateLimitFilter;
+import com.cosmos.origin.jwt.store.LocalSecurityVersionStore;
+import com.cosmos.origin.jwt.store.SecurityVersionStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 
 @AutoConfiguration
 @ComponentScan(basePackages = "com.cosmos.origin.jwt")
+@EnableConfigurationProperties(JwtRateLimitProperties.class)
 public class JwtAutoConfiguration {
+
+    /**
+     * 用户权限缓存（默认本地实现，业务模块注册了其他实现时不生效）
+     */
+    @Bean
+    @ConditionalOnMissingBean(UserAuthorityCache.class)
+    public UserAuthorityCache userAuthorityCache(@Value("${jwt.authority-cache.maximum-size:10000}") long maximumSize,
+                                                 @Value("${jwt.authority-cache.expire-seconds:60}") long expireSeconds) {
+        return new LocalUserAuthorityCache(maximumSize, expireSeconds);
+    }
+
+    /**
+     * 用户安全版本号存储（默认本地实现，业务模块注册了其他实现时不生效）
+     */
+    @Bean
+    @ConditionalOnMissingBean(SecurityVersionStore.class)
+    public SecurityVersionStore securityVersionStore() {
+        return new LocalSecurityVersionStore();
+    }
+
+    /**
+     * 接口限流过滤器（需显式配置 jwt.rate-limit.enabled=true，业务模块注册了自己的实例时不生效）
+     */
+    @Bean
+    @ConditionalOnMissingBean(RateLimitFilter.class)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnProperty(prefix = "jwt.rate-limit", name = "enabled", havingValue = "true")
+    public RateLimitFilter jwtRateLimitFilter(JwtRateLimitProperties properties) {
+        return new RateLimitFilter(properties);
+    }
 }
@@ -0,0 +1,51 @@
+package com.cosmos.origin.jwt.config;
+
+import com.cosmos.origin.jwt.limiter.LoginConcurrencyGate;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 模块监控指标配置
+ * <p>
+ * 仅在引入 Micrometer 时生效，应用注册了 MeterRegistry（如引入 Actuator）后指标自动绑定
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Configuration
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+public class JwtMetricsConfiguration {
+
+    /**
+     * 登录并发闸门指标
+     */
+    @Bean
+    public MeterBinder loginConcurrencyGateMetrics(LoginConcurrencyGate gate) {
+        return registry -> {
+            Gauge.builder("origin.login.gate.active", gate, LoginConcurrencyGate::getActive)
+                    .description("正在执行的登录数")
+                    .register(registry);
+            Gauge.builder("origin.login.gate.waiting", gate, LoginConcurrencyGate::getWaiting)
+                    .description("正在排队的登录数")
+                    .register(registry);
+            FunctionCounter.builder("origin.login.gate.rejected", gate, LoginConcurrencyGate::getRejectedCount)
+                    .description("因并发已满被拒绝的登录数")
+                    .register(registry);
+            FunctionTimer.builder("origin.login.gate.wait", gate,
+                            LoginConcurrencyGate::getAdmittedCount, LoginConcurrencyGate::getTotalWaitNanos, TimeUnit.NANOSECONDS)
+                    .description("登录排队耗时")
+                    .register(registry);
+            FunctionTimer.builder("origin.login.gate.duration", gate,
+                            LoginConcurrencyGate::getCompletedCount, LoginConcurrencyGate::getTotalLoginNanos, TimeUnit.NANOSECONDS)
+                    .description("登录执行耗时")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.cosmos.origin.jwt.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 接口限流配置属性（{@link com.cosmos.origin.jwt.filter.RateLimitFilter}）
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Data
+@ConfigurationProperties(prefix = "jwt.rate-limit")
+public class JwtRateLimitProperties {
+
+    /**
+     * 是否启用限流（自动注册限流过滤器需显式配置为 true，手动创建的过滤器默认启用）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 每个 key 每秒补充的令牌数
+     */
+    private double permitsPerSecond = 10;
+
+    /**
+     * 每个 key 的令牌桶容量（允许的突发请求数）
+     */
+    private int burst = 20;
+
+    /**
+     * 限流 key 类型（ip / user / api-key）
+     */
+    private String key = "ip";
+
+    /**
+     * key 类型为 api-key 时读取的请求头
+     */
+    private String apiKeyHeader = "X-API-Key";
+
+    /**
+     * 令牌桶表槽位数，应大于同时活跃的 key 数
+     */
+    private int tableSize = 65536;
+
+    /**
+     * key 空闲多久后其令牌桶可被淘汰（秒）
+     */
+    private long idleSeconds = 60;
+}
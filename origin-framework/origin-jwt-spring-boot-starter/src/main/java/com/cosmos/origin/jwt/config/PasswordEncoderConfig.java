@@ -1,6 +1,7 @@
 package com.cosmos.origin.jwt.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -16,10 +17,17 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Configuration
 public class PasswordEncoderConfig {
 
+    /**
+     * BCrypt 强度（工作因子，4~31，每加 1 耗时翻倍）
+     * 调高后，旧密码哈希会在用户下次登录成功时自动升级
+     */
+    @Value("${jwt.password-encoder.strength:10}")
+    private int strength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         // BCrypt 是一种安全且适合密码存储的哈希算法，它在进行哈希时会自动加入“盐”，增加密码的安全性。
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(strength);
     }
 
     public static void main(String[] args) {
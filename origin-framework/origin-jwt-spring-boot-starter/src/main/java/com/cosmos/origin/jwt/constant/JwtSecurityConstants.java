@@ -19,6 +19,11 @@ public final class JwtSecurityConstants {
      */
     public static final String DEFAULT_LOGIN_URL = "/login";
 
+    /**
+     * 刷新 Token 处理URL，默认 /token/refresh
+     */
+    public static final String REFRESH_TOKEN_URL = "/token/refresh";
+
     /**
      * 用户名字段名，默认 username
      */
@@ -34,11 +39,21 @@ public final class JwtSecurityConstants {
      */
     public static final String REMEMBER_ME_PARAMETER = "rememberMe";
 
+    /**
+     * 刷新 Token 字段名，默认 refreshToken
+     */
+    public static final String REFRESH_TOKEN_PARAMETER = "refreshToken";
+
     /**
      * 请求属性中存储用户名的 key
      */
     public static final String LOGIN_USERNAME_ATTRIBUTE = "LOGIN_USERNAME";
 
+    /**
+     * 请求属性中存储已解析的登录请求体（JsonNode）的 key，登录前置检查已读取请求体时由登录过滤器复用
+     */
+    public static final String LOGIN_REQUEST_BODY_ATTRIBUTE = "LOGIN_REQUEST_BODY";
+
     /**
      * 请求属性中存储 token 过期时间的 key
      */
@@ -54,8 +69,43 @@ public final class JwtSecurityConstants {
      */
     public static final String USER_ROLES_ATTRIBUTE = "USER_ROLES";
 
+    /**
+     * 请求属性中存储登录用户信息（UserDetails）的 key
+     */
+    public static final String LOGIN_USER_ATTRIBUTE = "LOGIN_USER";
+
     /**
      * 请求属性中存储登录尝试信息的 key
      */
     public static final String LOGIN_ATTEMPT_INFO_MAP_ATTRIBUTE = "LOGIN_ATTEMPT_INFO_MAP";
+
+    /**
+     * Token 中存储角色标识的 claim（自包含权限模式）
+     */
+    public static final String CLAIM_ROLES = "roles";
+
+    /**
+     * Token 中存储安全版本号的 claim（自包含权限模式）
+     */
+    public static final String CLAIM_SECURITY_VERSION = "sv";
+
+    /**
+     * Token 中存储 Token 类型的 claim
+     */
+    public static final String CLAIM_TOKEN_TYPE = "typ";
+
+    /**
+     * 刷新 Token 中存储访问 Token 有效期（分钟）的 claim，换取新 Token 时沿用登录时的有效期（如记住我）
+     */
+    public static final String CLAIM_ACCESS_EXPIRE_MINUTES = "aem";
+
+    /**
+     * Token 类型：刷新 Token
+     */
+    public static final String TOKEN_TYPE_REFRESH = "refresh";
+
+    /**
+     * 解析 Token 时容忍的最大时钟误差（秒），Token 在过期后的这段时间内仍会被接受
+     */
+    public static final long ALLOWED_CLOCK_SKEW_SECONDS = 10;
 }
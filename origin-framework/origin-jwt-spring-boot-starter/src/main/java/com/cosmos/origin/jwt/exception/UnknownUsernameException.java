@@ -0,0 +1,18 @@
+package com.cosmos.origin.jwt.exception;
+
+import org.springframework.security.authentication.BadCredentialsException;
+
+/**
+ * 用户名一定不存在异常
+ * <p>
+ * 响应与用户名或密码错误一致，调用方可据此跳过按用户名的失败计数
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+public class UnknownUsernameException extends BadCredentialsException {
+
+    public UnknownUsernameException(String msg) {
+        super(msg);
+    }
+}
@@ -1,14 +1,23 @@
 package com.cosmos.origin.jwt.filter;
 
+import com.cosmos.origin.common.enums.ResponseCodeEnum;
+import com.cosmos.origin.common.utils.Response;
 import com.cosmos.origin.jwt.constant.JwtSecurityConstants;
 import com.cosmos.origin.jwt.exception.UsernameOrPasswordNullException;
+import com.cosmos.origin.jwt.limiter.LoginConcurrencyGate;
+import com.cosmos.origin.jwt.utils.ResultUtil;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -46,6 +55,12 @@ public class JwtAuthenticationFilter extends AbstractAuthenticationProcessingFil
     @Setter
     private Function<String, Void> lockCheckFunction;
 
+    /**
+     * 登录并发闸门（为空时不限制）
+     */
+    @Setter
+    private LoginConcurrencyGate concurrencyGate;
+
     /**
      * 创建登录请求匹配器
      *
@@ -70,6 +85,31 @@ public class JwtAuthenticationFilter extends AbstractAuthenticationProcessingFil
         };
     }
 
+    /**
+     * 登录请求先经过并发闸门，并发已满时直接返回 503，不占用线程做密码校验，也不计入登录失败次数
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        if (concurrencyGate == null || !requiresAuthentication(httpRequest, httpResponse)) {
+            super.doFilter(request, response, chain);
+            return;
+        }
+
+        LoginConcurrencyGate.Permit permit = concurrencyGate.tryAcquire();
+        if (permit == null) {
+            httpResponse.setHeader("Retry-After", "1");
+            ResultUtil.fail(httpResponse, HttpStatus.SERVICE_UNAVAILABLE.value(), Response.fail(ResponseCodeEnum.LOGIN_BUSY));
+            return;
+        }
+        try {
+            super.doFilter(request, response, chain);
+        } finally {
+            concurrencyGate.release(permit);
+        }
+    }
+
     /**
      * 尝试进行身份验证
      *
@@ -81,9 +121,10 @@ public class JwtAuthenticationFilter extends AbstractAuthenticationProcessingFil
      */
     @Override
     public Authentication attemptAuthentication(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response) throws AuthenticationException, IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        // 解析提交的 JSON 数据
-        JsonNode jsonNode = mapper.readTree(request.getInputStream());
+        // 解析提交的 JSON 数据（登录前置检查已读取请求体时直接复用）
+        JsonNode jsonNode = request.getAttribute(JwtSecurityConstants.LOGIN_REQUEST_BODY_ATTRIBUTE) instanceof JsonNode parsed
+                ? parsed
+                : new ObjectMapper().readTree(request.getInputStream());
 
         // 使用自定义参数名获取用户名和密码
         String usernameParameter = JwtSecurityConstants.USERNAME_PARAMETER;
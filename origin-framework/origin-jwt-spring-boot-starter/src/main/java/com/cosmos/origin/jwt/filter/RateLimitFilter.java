@@ -1,29 +1,48 @@
 package com.cosmos.origin.jwt.filter;
 
+import com.cosmos.origin.common.utils.RequestUtil;
+import com.cosmos.origin.jwt.config.JwtRateLimitProperties;
 import com.cosmos.origin.jwt.constant.JwtSecurityConstants;
+import com.cosmos.origin.jwt.limiter.TokenBucketTable;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.jspecify.annotations.NonNull;
-import org.springframework.util.AntPathMatcher;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
 /**
- * 限流过滤器（固定窗口计数器实现）
+ * 限流过滤器（按 key 的令牌桶实现）
+ * <p>
+ * 每个客户端独立一个令牌桶，单个客户端的突发流量不会影响其他客户端：
+ * - 限流 key 可选 IP、登录用户（未登录时回退为 IP）或 API Key 请求头（未携带时回退为 IP）
+ * - 令牌桶保存在 {@link TokenBucketTable} 中，无锁、不为每个 key 创建对象，长时间不活跃的 key 会被淘汰
+ * <p>
+ * 配置 jwt.rate-limit.enabled=true 时由 JwtAutoConfiguration 注册为 Servlet 过滤器（默认顺序，位于 Spring Security 之后，
+ * 按用户限流时可取到认证信息）；也可自行创建并注册，按用户限流时需注册在 {@link TokenAuthenticationFilter} 之后。
  *
  * @author 一陌千尘
  * @date 2026/02/06
  */
+@Slf4j
 public class RateLimitFilter extends OncePerRequestFilter {
 
-    // 白名单路径（支持 Ant 风格通配符）
-    private static final List<String> WHITE_LIST = Arrays.asList(
+    // 白名单路径（支持 Ant 风格通配符），启动时预编译
+    private static final List<PathPattern> WHITE_LIST = Stream.of(
             JwtSecurityConstants.DEFAULT_LOGIN_URL,
             "/logout",
             "/doc.html",
@@ -32,13 +51,34 @@ public class RateLimitFilter extends OncePerRequestFilter {
             "/webjars/**",
             "/.well-known/**",
             "/test"
-    );
+    ).map(PathPatternParser.defaultInstance::parse).toList();
 
-    private static final int MAX_REQUESTS_PER_SECOND = 10; // 每秒最大请求数
+    private final JwtRateLimitProperties properties;
 
-    private final AtomicInteger requestCount = new AtomicInteger(0);
-    private volatile long windowStart = System.currentTimeMillis();
-    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final TokenBucketTable buckets;
+
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * 使用默认配置创建（启用，按 IP 每秒 10 个令牌、突发 20）
+     */
+    public RateLimitFilter() {
+        this(new JwtRateLimitProperties());
+    }
+
+    /**
+     * 使用指定配置创建，令牌桶参数（速率、容量、槽位数、空闲时间）在创建时读取，之后修改不生效
+     *
+     * @param properties 限流配置
+     */
+    public RateLimitFilter(JwtRateLimitProperties properties) {
+        this.properties = properties;
+        this.buckets = new TokenBucketTable(properties.getPermitsPerSecond(), properties.getBurst(),
+                properties.getTableSize(), TimeUnit.SECONDS.toMillis(properties.getIdleSeconds()));
+        log.info("限流过滤器初始化完成: enabled={}, key={}, permitsPerSecond={}, burst={}, tableSize={}",
+                properties.isEnabled(), properties.getKey(), properties.getPermitsPerSecond(),
+                properties.getBurst(), properties.getTableSize());
+    }
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -46,27 +86,17 @@ public class RateLimitFilter extends OncePerRequestFilter {
                                     @NonNull FilterChain chain) throws IOException, ServletException {
         String requestUri = request.getRequestURI();
 
-        // 检查是否在白名单中
-        if (isWhiteListed(requestUri)) {
+        // 未启用或在白名单中
+        if (!properties.isEnabled() || isWhiteListed(requestUri)) {
             chain.doFilter(request, response);
             return;
         }
 
-        long now = System.currentTimeMillis();
-
-        // 检查是否需要重置窗口（每秒重置）
-        if (now - windowStart >= 1000) {
-            synchronized (this) {
-                if (now - windowStart >= 1000) {
-                    requestCount.set(0);
-                    windowStart = now;
-                }
-            }
-        }
-
         // 检查是否超过限流阈值
-        if (requestCount.incrementAndGet() > MAX_REQUESTS_PER_SECOND) {
+        if (!buckets.tryAcquire(resolveKey(request))) {
+            rejected.increment();
             response.setStatus(429);
+            response.setHeader("Retry-After", String.valueOf((long) Math.ceil(1 / properties.getPermitsPerSecond())));
             response.setContentType("application/json;charset=UTF-8");
             response.getWriter().write("{\"code\":429,\"message\":\"请求过于频繁，请稍后再试\"}");
             return;
@@ -75,10 +105,50 @@ public class RateLimitFilter extends OncePerRequestFilter {
         chain.doFilter(request, response);
     }
 
+    /**
+     * 被限流拒绝的请求数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 当前占用的令牌桶数
+     */
+    public int getActiveBucketCount() {
+        return buckets.occupied();
+    }
+
+    /**
+     * 解析限流 key，不同类型加前缀区分，避免用户名与 IP 撞在同一个桶上
+     */
+    private String resolveKey(HttpServletRequest request) {
+        String keyType = properties.getKey();
+        if ("user".equalsIgnoreCase(keyType)) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)) {
+                return "user:" + authentication.getName();
+            }
+        } else if ("api-key".equalsIgnoreCase(keyType)) {
+            String apiKey = request.getHeader(properties.getApiKeyHeader());
+            if (StringUtils.isNotBlank(apiKey)) {
+                return "key:" + apiKey;
+            }
+        }
+        return "ip:" + RequestUtil.getClientIp(request);
+    }
+
     /**
      * 检查请求路径是否在白名单中
      */
     private boolean isWhiteListed(String requestUri) {
-        return WHITE_LIST.stream().anyMatch(pattern -> pathMatcher.match(pattern, requestUri));
+        PathContainer path = PathContainer.parsePath(requestUri);
+        for (PathPattern pattern : WHITE_LIST) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
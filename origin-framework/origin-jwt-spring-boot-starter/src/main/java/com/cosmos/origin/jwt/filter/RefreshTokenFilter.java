@@ -0,0 +1,124 @@
+package com.cosmos.origin.jwt.filter;
+
+import com.cosmos.origin.common.utils.Response;
+import com.cosmos.origin.jwt.constant.JwtSecurityConstants;
+import com.cosmos.origin.jwt.model.LoginRspVO;
+import com.cosmos.origin.jwt.store.RefreshTokenStore;
+import com.cosmos.origin.jwt.utils.JwtTokenHelper;
+import com.cosmos.origin.jwt.utils.ResultUtil;
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 刷新 Token 过滤器
+ * <p>
+ * 处理 POST /token/refresh，请求体为 {"refreshToken": "..."}：
+ * - 本地验签刷新 Token，不做密码哈希
+ * - 比较刷新 Token 中的安全版本号（纯内存读取），用户被禁用、删除或角色变更后版本号递增，旧刷新 Token 随即失效，无需重新加载用户
+ * - 沿用刷新 Token 中的角色和访问 Token 有效期（记住我登录换取的新 Token 仍按记住我的有效期签发），签发新的访问 Token 和刷新 Token
+ * - 通过 {@link RefreshTokenStore} 一次原子操作完成旧刷新 Token 作废和会话切换，并吊销旧访问 Token
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Slf4j
+public class RefreshTokenFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private JwtTokenHelper jwtTokenHelper;
+    @Autowired
+    private AuthenticationEntryPoint authenticationEntryPoint;
+    @Autowired
+    private ObjectProvider<RefreshTokenStore> refreshTokenStoreProvider;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !(HttpMethod.POST.name().equalsIgnoreCase(request.getMethod())
+                && JwtSecurityConstants.REFRESH_TOKEN_URL.equals(request.getServletPath()));
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        RefreshTokenStore refreshTokenStore = refreshTokenStoreProvider.getIfAvailable();
+        if (refreshTokenStore == null) {
+            authenticationEntryPoint.commence(request, response, new AuthenticationServiceException("未开启刷新 Token"));
+            return;
+        }
+
+        // 解析提交的 JSON 数据（请求体为空或不是合法 JSON 时同样视为未提交）
+        JsonNode refreshTokenNode;
+        try {
+            JsonNode body = objectMapper.readTree(request.getInputStream());
+            refreshTokenNode = body != null ? body.get(JwtSecurityConstants.REFRESH_TOKEN_PARAMETER) : null;
+        } catch (JacksonException e) {
+            refreshTokenNode = null;
+        }
+        if (refreshTokenNode == null || StringUtils.isBlank(refreshTokenNode.textValue())) {
+            authenticationEntryPoint.commence(request, response, new AuthenticationServiceException("刷新 Token 不能为空"));
+            return;
+        }
+
+        // 本地验签
+        Claims claims;
+        try {
+            claims = jwtTokenHelper.getVerifiedClaims(refreshTokenNode.textValue());
+        } catch (JwtException | IllegalArgumentException e) {
+            authenticationEntryPoint.commence(request, response, new AuthenticationServiceException("刷新 Token 已失效"));
+            return;
+        }
+        if (!jwtTokenHelper.isRefreshToken(claims) || claims.getId() == null) {
+            authenticationEntryPoint.commence(request, response, new AuthenticationServiceException("刷新 Token 不可用"));
+            return;
+        }
+        // 签发后用户被禁用、删除或角色、密码等已变更的刷新 Token 不能再换取新 Token，需重新登录
+        if (jwtTokenHelper.isSecurityVersionStale(claims)) {
+            authenticationEntryPoint.commence(request, response, new AuthenticationServiceException("刷新 Token 已失效"));
+            return;
+        }
+
+        // 签发新的访问 Token 和刷新 Token，角色和访问 Token 有效期沿用刷新 Token 中的值
+        String username = claims.getSubject();
+        List<String> roles = jwtTokenHelper.getRoles(claims);
+        Long accessExpireMinutes = jwtTokenHelper.getAccessExpireMinutes(claims);
+        String token = jwtTokenHelper.generateToken(username, accessExpireMinutes, roles);
+        String refreshTokenId = UUID.randomUUID().toString();
+        String refreshToken = jwtTokenHelper.generateRefreshToken(username, roles, refreshTokenId, accessExpireMinutes);
+
+        // 原子轮换：旧刷新 Token 只能成功使用一次
+        boolean rotated = refreshTokenStore.rotate(username, claims.getId(), refreshTokenId, token,
+                jwtTokenHelper.getRefreshTokenExpireTime(), accessExpireMinutes);
+        if (!rotated) {
+            log.warn("用户 [{}] 的刷新 Token 已使用或会话已失效", username);
+            authenticationEntryPoint.commence(request, response, new AuthenticationServiceException("刷新 Token 已失效"));
+            return;
+        }
+
+        ResultUtil.ok(response, Response.success(LoginRspVO.builder()
+                .token(token)
+                .refreshToken(refreshToken)
+                .roles(roles)
+                .build()));
+    }
+}
@@ -1,10 +1,13 @@
 package com.cosmos.origin.jwt.filter;
 
+import com.cosmos.origin.jwt.cache.UserAuthorityCache;
 import com.cosmos.origin.jwt.constant.JwtSecurityConstants;
 import com.cosmos.origin.jwt.utils.JwtTokenHelper;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,6 +20,7 @@ import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.AuthenticationEntryPoint;
@@ -41,6 +45,8 @@ public class TokenAuthenticationFilter extends OncePerRequestFilter {
     private UserDetailsService userDetailsService;
     @Autowired
     private AuthenticationEntryPoint authenticationEntryPoint;
+    @Autowired
+    private UserAuthorityCache userAuthorityCache;
 
     @Value("${jwt.tokenPrefix}")
     private String tokenPrefix;
@@ -60,14 +66,14 @@ public class TokenAuthenticationFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith(tokenPrefix)) {
             // 截取 Token 令牌
             String token = StringUtils.substring(header, 7);
-            log.info("Token: {}", token);
 
             // 判空 Token
             if (StringUtils.isNotBlank(token)) {
+                Claims claims;
                 try {
-                    // 校验 Token 是否可用, 若解析异常，针对不同异常做出不同的响应参数
-                    jwtTokenHelper.validateToken(token);
-                } catch (MalformedJwtException | UnsupportedJwtException |
+                    // 校验并解析 Token（同一请求只解析一次，命中缓存时跳过验签）, 若解析异常，针对不同异常做出不同的响应参数
+                    claims = jwtTokenHelper.getVerifiedClaims(token);
+                } catch (SignatureException | MalformedJwtException | UnsupportedJwtException |
                          IllegalArgumentException e) {
                     // 抛出异常，统一让 AuthenticationEntryPoint 处理响应参数
                     authenticationEntryPoint.commence(request, response, new AuthenticationServiceException("Token 不可用"));
@@ -77,13 +83,39 @@ public class TokenAuthenticationFilter extends OncePerRequestFilter {
                     return;
                 }
 
-                // 从 Token 中解析出用户名
-                String username = jwtTokenHelper.getUsernameByToken(token);
+                // 刷新 Token 只能用于换取新 Token，不能访问接口
+                if (jwtTokenHelper.isRefreshToken(claims)) {
+                    authenticationEntryPoint.commence(request, response, new AuthenticationServiceException("Token 不可用"));
+                    return;
+                }
+
+                // 已吊销的 Token（退出登录、强制下线等）
+                if (jwtTokenHelper.isRevoked(claims)) {
+                    authenticationEntryPoint.commence(request, response, new AuthenticationServiceException("Token 已失效"));
+                    return;
+                }
+
+                // 从 Claims 中获取用户名
+                String username = claims.getSubject();
 
                 if (StringUtils.isNotBlank(username)
                         && Objects.isNull(SecurityContextHolder.getContext().getAuthentication())) {
-                    // 根据用户名获取用户详情信息
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    UserDetails userDetails;
+                    if (jwtTokenHelper.isSelfContained(claims)) {
+                        // 自包含权限模式：安全版本号落后说明签发后角色、密码等已变更，需重新登录
+                        if (jwtTokenHelper.isSecurityVersionStale(claims)) {
+                            authenticationEntryPoint.commence(request, response, new AuthenticationServiceException("Token 已失效"));
+                            return;
+                        }
+                        // 直接从 Claims 构建用户信息，无需查询
+                        userDetails = User.withUsername(username)
+                                .password("")
+                                .authorities(jwtTokenHelper.getRoles(claims).toArray(new String[0]))
+                                .build();
+                    } else {
+                        // 根据用户名获取用户详情信息（优先走权限缓存，未命中才查库）
+                        userDetails = userAuthorityCache.get(username, userDetailsService::loadUserByUsername);
+                    }
 
                     // 将用户信息存入 authentication，方便后续校验
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null,
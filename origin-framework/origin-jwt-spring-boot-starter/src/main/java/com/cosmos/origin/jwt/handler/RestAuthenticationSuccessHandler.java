@@ -3,12 +3,14 @@ package com.cosmos.origin.jwt.handler;
 import com.cosmos.origin.common.utils.Response;
 import com.cosmos.origin.jwt.constant.JwtSecurityConstants;
 import com.cosmos.origin.jwt.model.LoginRspVO;
+import com.cosmos.origin.jwt.store.RefreshTokenStore;
 import com.cosmos.origin.jwt.utils.JwtTokenHelper;
 import com.cosmos.origin.jwt.utils.ResultUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
@@ -18,6 +20,8 @@ import org.springframework.security.web.authentication.AuthenticationSuccessHand
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
 import java.util.function.BiConsumer;
 
 /**
@@ -38,6 +42,15 @@ public class RestAuthenticationSuccessHandler implements AuthenticationSuccessHa
     @Value("${jwt.rememberMeExpireTime:10080}")
     private Long rememberMeExpireTime;
 
+    /**
+     * 是否签发刷新 Token（需同时注册了 RefreshTokenStore）
+     */
+    @Value("${jwt.refresh-token.enabled:true}")
+    private boolean refreshTokenEnabled;
+
+    @Autowired
+    private ObjectProvider<RefreshTokenStore> refreshTokenStoreProvider;
+
     /**
      * 会话保存回调（由外部注入，用于保存会话到 Redis）
      * 参数：(request, token, expireMinutes)
@@ -60,6 +73,7 @@ public class RestAuthenticationSuccessHandler implements AuthenticationSuccessHa
 
         // 通过用户名生成 Token
         String username = userDetails.getUsername();
+        List<String> roles = userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
 
         // 检查是否勾选了"记住我"
         Boolean rememberMe = (Boolean) request.getAttribute(JwtSecurityConstants.REMEMBER_ME_ATTRIBUTE);
@@ -67,11 +81,11 @@ public class RestAuthenticationSuccessHandler implements AuthenticationSuccessHa
         Long expireMinutes;
         if (Boolean.TRUE.equals(rememberMe)) {
             // 记住我：使用记住我 token 过期时间（默认 7 天）
-            token = jwtTokenHelper.generateRememberMeToken(username);
+            token = jwtTokenHelper.generateRememberMeToken(username, roles);
             expireMinutes = rememberMeExpireTime;
         } else {
             // 正常登录：使用默认过期时间
-            token = jwtTokenHelper.generateToken(username);
+            token = jwtTokenHelper.generateToken(username, tokenExpireTime, roles);
             expireMinutes = tokenExpireTime;
         }
 
@@ -88,12 +102,37 @@ public class RestAuthenticationSuccessHandler implements AuthenticationSuccessHa
             }
         }
 
+        // 签发刷新 Token
+        String refreshToken = issueRefreshToken(username, roles, token, expireMinutes);
+
         // 返回 Token
         LoginRspVO loginRspVO = LoginRspVO.builder()
                 .token(token)
-                .roles(userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
+                .refreshToken(refreshToken)
+                .roles(roles)
                 .build();
 
         ResultUtil.ok(response, Response.success(loginRspVO));
     }
+
+    /**
+     * 签发刷新 Token 并保存，未开启或保存失败时返回 null（不影响本次登录）
+     * <p>
+     * 刷新 Token 记录本次访问 Token 的有效期，记住我登录换取的新 Token 仍按记住我的有效期签发
+     */
+    private String issueRefreshToken(String username, List<String> roles, String token, Long expireMinutes) {
+        RefreshTokenStore refreshTokenStore = refreshTokenStoreProvider.getIfAvailable();
+        if (!refreshTokenEnabled || refreshTokenStore == null) {
+            return null;
+        }
+        try {
+            String refreshTokenId = UUID.randomUUID().toString();
+            String refreshToken = jwtTokenHelper.generateRefreshToken(username, roles, refreshTokenId, expireMinutes);
+            refreshTokenStore.save(refreshTokenId, token, jwtTokenHelper.getRefreshTokenExpireTime());
+            return refreshToken;
+        } catch (Exception e) {
+            log.error("保存刷新 Token 失败", e);
+            return null;
+        }
+    }
 }
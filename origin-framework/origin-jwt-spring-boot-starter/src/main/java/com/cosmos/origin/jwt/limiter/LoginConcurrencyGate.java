@@ -0,0 +1,188 @@
+package com.cosmos.origin.jwt.limiter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 登录并发闸门
+ * <p>
+ * 登录要做 BCrypt 校验，单次耗时几十到上百毫秒且完全占用 CPU。撞库攻击或早高峰集中登录时，
+ * 如果不加限制，所有 Tomcat 工作线程都会卡在密码哈希上，普通接口也随之不可用。
+ * <p>
+ * 这里用信号量限制同时进行的登录数：
+ * - 最多 maxConcurrent 个登录同时执行（默认 CPU 核数 × 2）
+ * - 超出时最多 maxWaiting 个请求排队等待，每个最多等待 maxWaitMillis 毫秒
+ * - 排队已满或等待超时立即拒绝，由调用方返回 503
+ * <p>
+ * 同时统计排队、执行耗时，供监控使用。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+public class LoginConcurrencyGate implements InitializingBean {
+
+    /**
+     * 是否启用
+     */
+    @Value("${jwt.login-gate.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 最大并发登录数，小于等于 0 时取 CPU 核数 × 2
+     */
+    @Value("${jwt.login-gate.max-concurrent:0}")
+    private int maxConcurrent;
+
+    /**
+     * 最大排队数
+     */
+    @Value("${jwt.login-gate.max-waiting:50}")
+    private int maxWaiting;
+
+    /**
+     * 最长排队时间（毫秒）
+     */
+    @Value("${jwt.login-gate.max-wait-millis:200}")
+    private long maxWaitMillis;
+
+    private Semaphore permits;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder totalLoginNanos = new LongAdder();
+
+    @Override
+    public void afterPropertiesSet() {
+        if (maxConcurrent <= 0) {
+            maxConcurrent = Runtime.getRuntime().availableProcessors() * 2;
+        }
+        permits = new Semaphore(maxConcurrent);
+        log.info("登录并发闸门初始化完成: enabled={}, maxConcurrent={}, maxWaiting={}, maxWaitMillis={}",
+                enabled, maxConcurrent, maxWaiting, maxWaitMillis);
+    }
+
+    /**
+     * 尝试进入闸门，成功后必须调用 {@link #release(Permit)}
+     *
+     * @return 通行凭证，被拒绝时返回 null
+     */
+    public Permit tryAcquire() {
+        long start = System.nanoTime();
+        if (!enabled) {
+            return new Permit(start);
+        }
+
+        // 快速路径：有空闲名额直接进入
+        if (!permits.tryAcquire()) {
+            // 排队已满，立即拒绝
+            if (waiting.incrementAndGet() > maxWaiting) {
+                waiting.decrementAndGet();
+                rejected.increment();
+                return null;
+            }
+            try {
+                if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                    rejected.increment();
+                    return null;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejected.increment();
+                return null;
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+
+        long acquiredAt = System.nanoTime();
+        totalWaitNanos.add(acquiredAt - start);
+        admitted.increment();
+        active.incrementAndGet();
+        return new Permit(acquiredAt);
+    }
+
+    /**
+     * 离开闸门
+     *
+     * @param permit {@link #tryAcquire()} 返回的通行凭证
+     */
+    public void release(Permit permit) {
+        totalLoginNanos.add(System.nanoTime() - permit.acquiredAtNanos());
+        completed.increment();
+        if (!enabled) {
+            return;
+        }
+        active.decrementAndGet();
+        permits.release();
+    }
+
+    /**
+     * 正在执行的登录数
+     */
+    public int getActive() {
+        return active.get();
+    }
+
+    /**
+     * 正在排队的登录数
+     */
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    /**
+     * 累计放行数
+     */
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    /**
+     * 累计拒绝数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 累计排队耗时（纳秒），与放行数对应
+     */
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.sum();
+    }
+
+    /**
+     * 累计完成的登录数
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * 累计登录耗时（纳秒），与完成数对应
+     */
+    public long getTotalLoginNanos() {
+        return totalLoginNanos.sum();
+    }
+
+    /**
+     * 通行凭证
+     *
+     * @param acquiredAtNanos 进入闸门的时间（System.nanoTime()，只用于计算耗时）
+     */
+    public record Permit(long acquiredAtNanos) {
+    }
+}
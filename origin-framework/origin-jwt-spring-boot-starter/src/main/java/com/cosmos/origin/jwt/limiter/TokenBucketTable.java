@@ -0,0 +1,192 @@
+package com.cosmos.origin.jwt.limiter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按 key 限流的令牌桶表（无锁、请求路径零分配）
+ * <p>
+ * 所有桶保存在两个定长的 {@link AtomicLongArray} 中，不为每个 key 创建对象：
+ * - fingerprints：key 的 64 位哈希指纹，0 表示空槽
+ * - states：令牌桶状态，高 42 位为上次补充令牌的时间（相对创建时间的毫秒数），低 22 位为剩余令牌数（千分之一令牌）
+ * <p>
+ * key 通过开放寻址定位到槽位，最多向后探测 {@value #PROBE_LIMIT} 个槽；
+ * 空槽或超过 idleMillis 未成功取得令牌的槽可被新 key 占用（空闲淘汰），新占用的桶是满的；
+ * 占用时先将状态 CAS 为占用中标记（同一个旧状态只有一个线程能成功），再写入指纹和新状态；
+ * 其他线程读到占用中标记时自旋等待这两次写入完成，不会在旧状态上消耗令牌，也不会为同一个 key 再占用一个槽。
+ * 探测范围内没有可用槽时，key 与起始槽位的 key 共用一个桶（表容量不足时退化为近似限流，不会放大流量）。
+ * <p>
+ * 取令牌时按经过的时间补充令牌后 CAS 更新状态，失败重试；令牌不足时不写入，被拒绝的请求只有一次读取。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+public final class TokenBucketTable {
+
+    private static final int PROBE_LIMIT = 8;
+
+    private static final int TOKEN_BITS = 22;
+
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+
+    /**
+     * 1 个令牌 = 1000 个最小单位
+     */
+    private static final long SCALE = 1000;
+
+    /**
+     * 槽位正在被占用（指纹和状态尚未写入完成）
+     */
+    private static final long CLAIMING = -1L;
+
+    private final AtomicLongArray fingerprints;
+
+    private final AtomicLongArray states;
+
+    private final int mask;
+
+    /**
+     * 桶容量（最小单位）
+     */
+    private final long capacity;
+
+    /**
+     * 每毫秒补充的令牌数（最小单位），数值上等于每秒补充的令牌数
+     */
+    private final double refillPerMilli;
+
+    private final long idleMillis;
+
+    /**
+     * 时间基准，保证相对时间始终大于 0
+     */
+    private final long epochMillis = System.currentTimeMillis() - 1;
+
+    /**
+     * @param permitsPerSecond 每秒补充的令牌数
+     * @param burst            桶容量（允许的突发请求数），最大 4194
+     * @param tableSize        槽位数，向上取整为 2 的幂
+     * @param idleMillis       空闲多久后槽位可被其他 key 占用（毫秒），不小于桶从空到满所需的时间
+     */
+    public TokenBucketTable(double permitsPerSecond, int burst, int tableSize, long idleMillis) {
+        if (permitsPerSecond <= 0 || burst <= 0 || burst * SCALE > TOKEN_MASK) {
+            throw new IllegalArgumentException("令牌桶参数无效: permitsPerSecond=" + permitsPerSecond + ", burst=" + burst);
+        }
+        int size = Integer.highestOneBit(Math.max(tableSize, PROBE_LIMIT) - 1) << 1;
+        this.fingerprints = new AtomicLongArray(size);
+        this.states = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.capacity = burst * SCALE;
+        this.refillPerMilli = permitsPerSecond;
+        // 空闲时间短于补满时间时，被拒绝的 key 可以通过重新占槽拿到满桶，绕过限流
+        this.idleMillis = Math.max(idleMillis, (long) Math.ceil(burst * 1000 / permitsPerSecond));
+    }
+
+    /**
+     * 尝试为 key 取一个令牌
+     *
+     * @param key 限流 key
+     * @return 是否取得令牌
+     */
+    public boolean tryAcquire(String key) {
+        return tryAcquire(fingerprint(key), System.currentTimeMillis());
+    }
+
+    /**
+     * 尝试为指纹对应的 key 取一个令牌
+     *
+     * @param fingerprint {@link #fingerprint} 计算的指纹
+     * @param nowMillis   当前时间戳（毫秒）
+     * @return 是否取得令牌
+     */
+    public boolean tryAcquire(long fingerprint, long nowMillis) {
+        long now = nowMillis - epochMillis;
+        int home = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+        for (int probe = 0; probe < PROBE_LIMIT; probe++) {
+            int index = (home + probe) & mask;
+            // 先读状态再读指纹：读到占用完成后的状态时，一定也能读到新指纹
+            long state = states.get(index);
+            if (state == CLAIMING) {
+                Thread.onSpinWait();
+                probe--;
+                continue;
+            }
+            long current = fingerprints.get(index);
+            if (current == fingerprint) {
+                return consume(index, now);
+            }
+            if (current == 0 || now - (state >>> TOKEN_BITS) > idleMillis) {
+                if (!states.compareAndSet(index, state, CLAIMING)) {
+                    // 其他线程抢先占用或消耗，重新判断该槽
+                    probe--;
+                    continue;
+                }
+                fingerprints.set(index, fingerprint);
+                // 新占用的桶是满的，直接取走一个令牌
+                states.set(index, pack(now, capacity - SCALE));
+                return true;
+            }
+        }
+        return consume(home, now);
+    }
+
+    /**
+     * 当前被占用的槽位数（遍历整张表，仅用于监控）
+     */
+    public int occupied() {
+        int count = 0;
+        for (int i = 0; i < fingerprints.length(); i++) {
+            if (fingerprints.get(i) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 计算 key 的指纹（FNV-1a 64 位），0 保留给空槽
+     *
+     * @param key 限流 key
+     * @return 非 0 指纹
+     */
+    public static long fingerprint(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < 0x80) {
+                hash = (hash ^ c) * 0x100000001b3L;
+            } else {
+                for (byte b : String.valueOf(c).getBytes(StandardCharsets.UTF_8)) {
+                    hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+                }
+            }
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private boolean consume(int index, long now) {
+        while (true) {
+            long state = states.get(index);
+            if (state == CLAIMING) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long last = state >>> TOKEN_BITS;
+            long tokens = state & TOKEN_MASK;
+            long elapsed = now - last;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + (long) (elapsed * refillPerMilli));
+            }
+            if (tokens < SCALE) {
+                return false;
+            }
+            if (states.compareAndSet(index, state, pack(Math.max(now, last), tokens - SCALE))) {
+                return true;
+            }
+        }
+    }
+
+    private static long pack(long time, long tokens) {
+        return (time << TOKEN_BITS) | tokens;
+    }
+}
@@ -18,6 +18,9 @@ public class LoginRspVO {
     @Schema(description = "Token 值")
     private String token;
 
+    @Schema(description = "刷新 Token 值（单次有效，用于换取新的 Token）")
+    private String refreshToken;
+
     @Schema(description = "用户角色列表")
     private List<String> roles;
 }
@@ -0,0 +1,53 @@
+package com.cosmos.origin.jwt.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.io.Serial;
+import java.util.Collection;
+
+/**
+ * 登录用户信息
+ * <p>
+ * 在 Spring Security 的 User 基础上携带用户 ID、昵称，
+ * 登录成功后可直接从认证信息中获取，无需再次查询数据库
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class LoginUser extends User {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 用户 ID
+     */
+    private final Long userId;
+
+    /**
+     * 昵称
+     */
+    private final String nickname;
+
+    public LoginUser(Long userId, String nickname, String username, String password,
+                     Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.userId = userId;
+        this.nickname = nickname;
+    }
+
+    /**
+     * 复制一份并替换密码（用于密码哈希升级）
+     *
+     * @param password 新密码
+     * @return 登录用户信息
+     */
+    public LoginUser withPassword(String password) {
+        return new LoginUser(userId, nickname, getUsername(), password, getAuthorities());
+    }
+}
@@ -0,0 +1,32 @@
+package com.cosmos.origin.jwt.store;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 基于本地内存的安全版本号存储（默认实现）
+ * <p>
+ * 仅适用于单节点部署，重启后版本号归零；多节点部署时请使用 Redis 实现。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Slf4j
+public class LocalSecurityVersionStore implements SecurityVersionStore {
+
+    private final ConcurrentMap<String, Long> versions = new ConcurrentHashMap<>();
+
+    @Override
+    public long getVersion(String username) {
+        return versions.getOrDefault(username, 0L);
+    }
+
+    @Override
+    public long increment(String username) {
+        long version = versions.merge(username, 1L, Long::sum);
+        log.debug("用户 [{}] 的安全版本号已递增为 {}", username, version);
+        return version;
+    }
+}
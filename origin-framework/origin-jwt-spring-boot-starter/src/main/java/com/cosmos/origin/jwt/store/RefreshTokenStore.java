@@ -0,0 +1,39 @@
+package com.cosmos.origin.jwt.store;
+
+/**
+ * 刷新 Token 存储
+ * <p>
+ * 刷新 Token 单次有效：每次换取新 Token 时，旧的刷新 Token 作废并签发新的刷新 Token（轮换）。
+ * 刷新 Token 与登录会话绑定，会话被删除（退出登录、强制下线）后刷新 Token 随之失效。
+ * 未注册实现时不签发刷新 Token。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * 登录成功后保存刷新 Token
+     *
+     * @param refreshTokenId 刷新 Token ID
+     * @param accessToken    对应的访问 Token
+     * @param expireMinutes  刷新 Token 过期时间（分钟）
+     */
+    void save(String refreshTokenId, String accessToken, long expireMinutes);
+
+    /**
+     * 轮换刷新 Token：作废旧刷新 Token，保存新刷新 Token，将会话切换到新的访问 Token 并吊销旧访问 Token
+     * <p>
+     * 实现必须是原子的，同一个刷新 Token 并发使用时只能成功一次
+     *
+     * @param username             用户名
+     * @param oldRefreshTokenId    旧刷新 Token ID
+     * @param newRefreshTokenId    新刷新 Token ID
+     * @param newAccessToken       新访问 Token
+     * @param refreshExpireMinutes 新刷新 Token 过期时间（分钟）
+     * @param accessExpireMinutes  新访问 Token 过期时间（分钟）
+     * @return 是否成功，旧刷新 Token 不存在（已使用、已过期）或会话已失效时返回 false
+     */
+    boolean rotate(String username, String oldRefreshTokenId, String newRefreshTokenId, String newAccessToken,
+                   long refreshExpireMinutes, long accessExpireMinutes);
+}
@@ -0,0 +1,31 @@
+package com.cosmos.origin.jwt.store;
+
+/**
+ * 用户安全版本号存储
+ * <p>
+ * 自包含权限模式下的 Token 和所有刷新 Token 中携带签发时的安全版本号（sv）。
+ * 用户角色、密码、状态等发生变更时递增版本号，旧版本号签发的 Token 随即失效。
+ * <p>
+ * {@link #getVersion(String)} 位于每个请求的认证链路上，实现必须是纯内存读取，不能有网络开销。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+public interface SecurityVersionStore {
+
+    /**
+     * 获取用户当前的安全版本号
+     *
+     * @param username 用户名
+     * @return 安全版本号，未记录过时返回 0
+     */
+    long getVersion(String username);
+
+    /**
+     * 递增用户的安全版本号，使已签发的 Token 失效
+     *
+     * @param username 用户名
+     * @return 递增后的版本号
+     */
+    long increment(String username);
+}
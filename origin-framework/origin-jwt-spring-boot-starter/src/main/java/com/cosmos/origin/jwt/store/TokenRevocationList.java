@@ -0,0 +1,207 @@
+package com.cosmos.origin.jwt.store;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.cosmos.origin.jwt.constant.JwtSecurityConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token 吊销列表（本地内存）
+ * <p>
+ * 退出登录、强制下线等场景吊销的 Token ID（jti）记录在本地，认证时 O(1) 判断，无网络开销：
+ * - 布隆过滤器：绝大多数正常 Token 在这一步就能确定未被吊销
+ * - 精确集合：布隆过滤器命中后再精确判断，排除误判；同时记录 Token 过期时间
+ * <p>
+ * Token 过期且超过解析容忍的时钟误差后吊销记录不再有意义，定时清理并按剩余记录重建布隆过滤器。
+ * 跨节点同步由 {@link TokenRevocationPropagator} 负责。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+public class TokenRevocationList implements InitializingBean, DisposableBean {
+
+    /**
+     * 吊销记录在 Token 过期后继续保留的时间（毫秒），与解析 Token 时容忍的时钟误差一致
+     */
+    public static final long RETENTION_AFTER_EXPIRE_MILLIS =
+            TimeUnit.SECONDS.toMillis(JwtSecurityConstants.ALLOWED_CLOCK_SKEW_SECONDS);
+
+    private final ObjectProvider<TokenRevocationPropagator> propagatorProvider;
+
+    /**
+     * 布隆过滤器预期容量
+     */
+    @Value("${jwt.revocation.expected-insertions:100000}")
+    private int expectedInsertions;
+
+    /**
+     * 布隆过滤器误判率
+     */
+    @Value("${jwt.revocation.fpp:0.001}")
+    private double fpp;
+
+    /**
+     * 过期记录清理间隔（秒）
+     */
+    @Value("${jwt.revocation.purge-interval-seconds:60}")
+    private long purgeIntervalSeconds;
+
+    /**
+     * 已吊销的 jti -> Token 过期时间戳（毫秒）
+     */
+    private final ConcurrentMap<String, Long> revoked = new ConcurrentHashMap<>();
+
+    /**
+     * 布隆过滤器（重建时整体替换，读取无锁）
+     */
+    private volatile BloomFilter<CharSequence> bloomFilter;
+
+    private ScheduledExecutorService purgeExecutor;
+
+    public TokenRevocationList(ObjectProvider<TokenRevocationPropagator> propagatorProvider) {
+        this.propagatorProvider = propagatorProvider;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        bloomFilter = newBloomFilter(expectedInsertions);
+        purgeExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purgeExecutor.scheduleWithFixedDelay(this::purgeExpired, purgeIntervalSeconds, purgeIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (purgeExecutor != null) {
+            purgeExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 判断 Token 是否已被吊销
+     *
+     * @param jti Token ID
+     * @return 是否已吊销
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            return false;
+        }
+        return revoked.containsKey(jti);
+    }
+
+    /**
+     * 吊销 Token，并广播给其他节点
+     *
+     * @param jti            Token ID
+     * @param expireAtMillis Token 过期时间戳（毫秒）
+     */
+    public void revoke(String jti, long expireAtMillis) {
+        if (!revokeLocally(jti, expireAtMillis)) {
+            return;
+        }
+        TokenRevocationPropagator propagator = propagatorProvider.getIfAvailable();
+        if (propagator != null) {
+            try {
+                propagator.publish(jti, expireAtMillis);
+            } catch (Exception e) {
+                log.error("广播 Token 吊销失败，jti: {}", jti, e);
+            }
+        }
+    }
+
+    /**
+     * 批量吊销 Token，并一次性广播到其他节点
+     *
+     * @param revocations Token ID -> Token 过期时间戳（毫秒）
+     */
+    public void revokeAll(Map<String, Long> revocations) {
+        Map<String, Long> accepted = new LinkedHashMap<>();
+        revocations.forEach((jti, expireAtMillis) -> {
+            if (revokeLocally(jti, expireAtMillis)) {
+                accepted.put(jti, expireAtMillis);
+            }
+        });
+        if (accepted.isEmpty()) {
+            return;
+        }
+        TokenRevocationPropagator propagator = propagatorProvider.getIfAvailable();
+        if (propagator != null) {
+            try {
+                propagator.publishAll(accepted);
+            } catch (Exception e) {
+                log.error("批量广播 Token 吊销失败，共 {} 个", accepted.size(), e);
+            }
+        }
+    }
+
+    /**
+     * 仅在本节点吊销 Token（用于接收其他节点的广播、启动时加载）
+     *
+     * @param jti            Token ID
+     * @param expireAtMillis Token 过期时间戳（毫秒）
+     * @return 是否写入（过期超过时钟误差的 Token 无需记录）
+     */
+    public synchronized boolean revokeLocally(String jti, long expireAtMillis) {
+        if (jti == null || expireAtMillis + RETENTION_AFTER_EXPIRE_MILLIS <= System.currentTimeMillis()) {
+            return false;
+        }
+        revoked.put(jti, expireAtMillis);
+        bloomFilter.put(jti);
+        return true;
+    }
+
+    /**
+     * 当前吊销记录数
+     *
+     * @return 记录数
+     */
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * 清理过期超过时钟误差的吊销记录，并按剩余记录重建布隆过滤器
+     * <p>
+     * 与写入互斥，保证重建期间新写入的 jti 不会丢失；读取仍然无锁
+     */
+    synchronized void purgeExpired() {
+        try {
+            long threshold = System.currentTimeMillis() - RETENTION_AFTER_EXPIRE_MILLIS;
+            int before = revoked.size();
+            revoked.values().removeIf(expireAt -> expireAt <= threshold);
+            if (revoked.size() == before) {
+                return;
+            }
+            BloomFilter<CharSequence> rebuilt = newBloomFilter(Math.max(expectedInsertions, revoked.size() * 2));
+            revoked.keySet().forEach(rebuilt::put);
+            bloomFilter = rebuilt;
+            log.debug("已清理 {} 条过期的 Token 吊销记录，剩余 {} 条", before - revoked.size(), revoked.size());
+        } catch (Exception e) {
+            log.error("清理 Token 吊销记录失败", e);
+        }
+    }
+
+    private BloomFilter<CharSequence> newBloomFilter(int insertions) {
+        return BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), insertions, fpp);
+    }
+}
@@ -0,0 +1,33 @@
+package com.cosmos.origin.jwt.store;
+
+import java.util.Map;
+
+/**
+ * Token 吊销传播器
+ * <p>
+ * 本节点吊销 Token 后，通过该接口通知其他节点（如 Redis Pub/Sub），
+ * 其他节点收到后调用 {@link TokenRevocationList#revokeLocally(String, long)} 同步本地吊销列表。
+ * 未注册实现时吊销仅在本节点生效。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+public interface TokenRevocationPropagator {
+
+    /**
+     * 广播吊销的 Token
+     *
+     * @param jti            Token ID
+     * @param expireAtMillis Token 过期时间戳（毫秒），过期后吊销记录可清理
+     */
+    void publish(String jti, long expireAtMillis);
+
+    /**
+     * 批量广播吊销的 Token（如多设备用户退出登录），默认逐个广播
+     *
+     * @param revocations Token ID -> Token 过期时间戳（毫秒）
+     */
+    default void publishAll(Map<String, Long> revocations) {
+        revocations.forEach(this::publish);
+    }
+}
@@ -1,10 +1,15 @@
 package com.cosmos.origin.jwt.utils;
 
+import com.cosmos.origin.jwt.cache.VerifiedClaimsCache;
+import com.cosmos.origin.jwt.constant.JwtSecurityConstants;
+import com.cosmos.origin.jwt.store.SecurityVersionStore;
+import com.cosmos.origin.jwt.store.TokenRevocationList;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.CredentialsExpiredException;
@@ -14,7 +19,12 @@ import java.security.Key;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * JWT 工具类
@@ -52,6 +62,36 @@ public class JwtTokenHelper implements InitializingBean {
     @Value("${jwt.rememberMeExpireTime}")
     private Long rememberMeExpireTime;
 
+    /**
+     * 刷新 Token 失效时间（分钟）
+     */
+    @Value("${jwt.refresh-token.expire-time:10080}")
+    private Long refreshTokenExpireTime;
+
+    /**
+     * 已验签 Claims 缓存
+     */
+    @Autowired
+    private VerifiedClaimsCache verifiedClaimsCache;
+
+    /**
+     * 是否开启自包含权限模式（Token 中携带角色和安全版本号，认证时不再查询用户信息）
+     */
+    @Value("${jwt.self-contained-authorities.enabled:false}")
+    private boolean selfContainedAuthorities;
+
+    /**
+     * 用户安全版本号存储
+     */
+    @Autowired
+    private SecurityVersionStore securityVersionStore;
+
+    /**
+     * Token 吊销列表
+     */
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
     /**
      * 生成一个 Base64 的安全秘钥
      *
@@ -87,7 +127,7 @@ public class JwtTokenHelper implements InitializingBean {
     public void afterPropertiesSet() {
         // 考虑到不同服务器之间可能存在时钟偏移，setAllowedClockSkewSeconds 用于设置能够容忍的最大的时钟误差
         jwtParser = Jwts.parserBuilder().requireIssuer(issuer)
-                .setSigningKey(key).setAllowedClockSkewSeconds(10)
+                .setSigningKey(key).setAllowedClockSkewSeconds(JwtSecurityConstants.ALLOWED_CLOCK_SKEW_SECONDS)
                 .build();
     }
 
@@ -98,17 +138,7 @@ public class JwtTokenHelper implements InitializingBean {
      * @return Token
      */
     public String generateToken(String username) {
-        LocalDateTime now = LocalDateTime.now();
-        // 设置 Token 失效时间
-        LocalDateTime expireTime = now.plusMinutes(tokenExpireTime);
-
-        return Jwts.builder()
-                .setSubject(username)
-                .setIssuer(issuer)
-                .setIssuedAt(Date.from(now.atZone(ZoneId.systemDefault()).toInstant()))
-                .setExpiration(Date.from(expireTime.atZone(ZoneId.systemDefault()).toInstant()))
-                .signWith(key)
-                .compact();
+        return generateToken(username, tokenExpireTime);
     }
 
     /**
@@ -119,17 +149,100 @@ public class JwtTokenHelper implements InitializingBean {
      * @return Token
      */
     public String generateToken(String username, Long expireMinutes) {
+        return generateToken(username, expireMinutes, null);
+    }
+
+    /**
+     * 生成 Token（自包含权限模式下写入角色和安全版本号）
+     * <p>
+     * 未开启自包含权限模式或 roles 为空时，与 {@link #generateToken(String, Long)} 一致
+     *
+     * @param username      用户名
+     * @param expireMinutes Token 过期时间（分钟）
+     * @param roles         角色标识
+     * @return Token
+     */
+    public String generateToken(String username, Long expireMinutes, Collection<String> roles) {
+        return newBuilder(username, expireMinutes, roles, UUID.randomUUID().toString())
+                .signWith(key)
+                .compact();
+    }
+
+    /**
+     * 生成刷新 Token（有效期为配置的刷新 Token 过期时间）
+     * <p>
+     * 刷新 Token 只能用于换取新的 Token，不能直接访问接口。
+     * 无论是否开启自包含权限模式都携带角色和安全版本号，换取新 Token 时只需比较安全版本号，无需重新加载用户；
+     * 同时携带访问 Token 的有效期，换取的新 Token 沿用登录时的有效期
+     *
+     * @param username            用户名
+     * @param roles               角色标识
+     * @param jti                 刷新 Token ID（用于单次使用校验）
+     * @param accessExpireMinutes 访问 Token 有效期（分钟）
+     * @return 刷新 Token
+     */
+    public String generateRefreshToken(String username, Collection<String> roles, String jti, Long accessExpireMinutes) {
+        JwtBuilder builder = newBuilder(username, refreshTokenExpireTime, roles, jti)
+                .claim(JwtSecurityConstants.CLAIM_TOKEN_TYPE, JwtSecurityConstants.TOKEN_TYPE_REFRESH)
+                .claim(JwtSecurityConstants.CLAIM_SECURITY_VERSION, securityVersionStore.getVersion(username))
+                .claim(JwtSecurityConstants.CLAIM_ACCESS_EXPIRE_MINUTES, accessExpireMinutes);
+        if (!selfContainedAuthorities && roles != null && !roles.isEmpty()) {
+            // 非自包含权限模式下角色仅用于刷新后的响应展示，认证时不使用
+            builder.claim(JwtSecurityConstants.CLAIM_ROLES, List.copyOf(roles));
+        }
+        return builder.signWith(key).compact();
+    }
+
+    /**
+     * 判断是否为刷新 Token
+     *
+     * @param claims 已验签的 Claims
+     * @return 是否为刷新 Token
+     */
+    public boolean isRefreshToken(Claims claims) {
+        return JwtSecurityConstants.TOKEN_TYPE_REFRESH.equals(claims.get(JwtSecurityConstants.CLAIM_TOKEN_TYPE, String.class));
+    }
+
+    /**
+     * 刷新 Token 过期时间（分钟）
+     *
+     * @return 过期时间
+     */
+    public Long getRefreshTokenExpireTime() {
+        return refreshTokenExpireTime;
+    }
+
+    /**
+     * 获取刷新 Token 中记录的访问 Token 有效期（分钟），未记录时为默认的 Token 失效时间
+     *
+     * @param claims 已验签的刷新 Token Claims
+     * @return 访问 Token 有效期（分钟）
+     */
+    public Long getAccessExpireMinutes(Claims claims) {
+        Long expireMinutes = claims.get(JwtSecurityConstants.CLAIM_ACCESS_EXPIRE_MINUTES, Long.class);
+        return expireMinutes != null && expireMinutes > 0 ? expireMinutes : tokenExpireTime;
+    }
+
+    /**
+     * 构建 Token 公共部分
+     */
+    private JwtBuilder newBuilder(String username, Long expireMinutes, Collection<String> roles, String jti) {
         LocalDateTime now = LocalDateTime.now();
         // 设置 Token 失效时间
         LocalDateTime expireTime = now.plusMinutes(expireMinutes);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .setId(jti)
                 .setSubject(username)
                 .setIssuer(issuer)
                 .setIssuedAt(Date.from(now.atZone(ZoneId.systemDefault()).toInstant()))
-                .setExpiration(Date.from(expireTime.atZone(ZoneId.systemDefault()).toInstant()))
-                .signWith(key)
-                .compact();
+                .setExpiration(Date.from(expireTime.atZone(ZoneId.systemDefault()).toInstant()));
+
+        if (selfContainedAuthorities && roles != null && !roles.isEmpty()) {
+            builder.claim(JwtSecurityConstants.CLAIM_ROLES, List.copyOf(roles))
+                    .claim(JwtSecurityConstants.CLAIM_SECURITY_VERSION, securityVersionStore.getVersion(username));
+        }
+        return builder;
     }
 
     /**
@@ -142,6 +255,17 @@ public class JwtTokenHelper implements InitializingBean {
         return generateToken(username, rememberMeExpireTime);
     }
 
+    /**
+     * 生成记住我 Token（自包含权限模式下写入角色和安全版本号）
+     *
+     * @param username 用户名
+     * @param roles    角色标识
+     * @return Token
+     */
+    public String generateRememberMeToken(String username, Collection<String> roles) {
+        return generateToken(username, rememberMeExpireTime, roles);
+    }
+
     /**
      * 解析 Token
      *
@@ -158,13 +282,120 @@ public class JwtTokenHelper implements InitializingBean {
         }
     }
 
+    /**
+     * 获取已验签的 Claims（优先走本地缓存，未命中时解析一次并写入缓存）
+     * <p>
+     * 解析失败时直接抛出 jjwt 原始异常，由调用方区分处理
+     *
+     * @param token Token
+     * @return 已验签的 Claims
+     */
+    public Claims getVerifiedClaims(String token) {
+        Claims claims = verifiedClaimsCache.get(token);
+        if (claims != null) {
+            return claims;
+        }
+        claims = jwtParser.parseClaimsJws(token).getBody();
+        verifiedClaimsCache.put(token, claims);
+        return claims;
+    }
+
+    /**
+     * 判断 Claims 是否可直接用于构建认证信息（自包含权限模式且 Token 中携带了角色和安全版本号）
+     *
+     * @param claims 已验签的 Claims
+     * @return 是否为自包含权限 Token
+     */
+    public boolean isSelfContained(Claims claims) {
+        return selfContainedAuthorities
+                && claims.containsKey(JwtSecurityConstants.CLAIM_ROLES)
+                && claims.containsKey(JwtSecurityConstants.CLAIM_SECURITY_VERSION);
+    }
+
+    /**
+     * 判断 Token 中的安全版本号是否已过期（签发后用户角色、密码等发生过变更）
+     * <p>
+     * 只判断小于当前版本号，避免本节点版本号尚未同步时误判其他节点新签发的 Token
+     *
+     * @param claims 已验签的 Claims
+     * @return 是否已过期
+     */
+    public boolean isSecurityVersionStale(Claims claims) {
+        Long version = claims.get(JwtSecurityConstants.CLAIM_SECURITY_VERSION, Long.class);
+        return version == null || version < securityVersionStore.getVersion(claims.getSubject());
+    }
+
+    /**
+     * 获取 Token 中的角色标识
+     *
+     * @param claims 已验签的 Claims
+     * @return 角色标识
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> getRoles(Claims claims) {
+        List<String> roles = claims.get(JwtSecurityConstants.CLAIM_ROLES, List.class);
+        return roles != null ? roles : List.of();
+    }
+
+    /**
+     * 判断 Token 是否已被吊销（退出登录、强制下线等）
+     *
+     * @param claims 已验签的 Claims
+     * @return 是否已吊销
+     */
+    public boolean isRevoked(Claims claims) {
+        return tokenRevocationList.isRevoked(claims.getId());
+    }
+
+    /**
+     * 吊销 Token，吊销后即使未过期也无法再通过认证
+     * <p>
+     * 无法解析或已过期的 Token 本身就不可用，直接忽略
+     *
+     * @param token Token
+     */
+    public void revokeToken(String token) {
+        try {
+            Claims claims = getVerifiedClaims(token);
+            if (claims.getId() != null && claims.getExpiration() != null) {
+                tokenRevocationList.revoke(claims.getId(), claims.getExpiration().getTime());
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Token 已不可用，无需吊销: {}", e.getMessage());
+        }
+        verifiedClaimsCache.invalidate(token);
+    }
+
+    /**
+     * 批量吊销 Token，吊销记录一次性广播
+     *
+     * @param tokens Token 列表
+     */
+    public void revokeTokens(Collection<String> tokens) {
+        Map<String, Long> revocations = new LinkedHashMap<>();
+        for (String token : tokens) {
+            try {
+                Claims claims = getVerifiedClaims(token);
+                if (claims.getId() != null && claims.getExpiration() != null) {
+                    revocations.put(claims.getId(), claims.getExpiration().getTime());
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                log.debug("Token 已不可用，无需吊销: {}", e.getMessage());
+            }
+            verifiedClaimsCache.invalidate(token);
+        }
+        if (!revocations.isEmpty()) {
+            tokenRevocationList.revokeAll(revocations);
+        }
+    }
+
     /**
      * 校验 Token 是否可用
      *
      * @param token Token
      */
     public void validateToken(String token) {
-        jwtParser.parseClaimsJws(token);
+        getVerifiedClaims(token);
     }
 
     /**
@@ -175,8 +406,7 @@ public class JwtTokenHelper implements InitializingBean {
      */
     public String getUsernameByToken(String token) {
         try {
-            Claims claims = jwtParser.parseClaimsJws(token).getBody();
-            return claims.getSubject();
+            return getVerifiedClaims(token).getSubject();
         } catch (Exception e) {
             log.warn("Token 解析异常: ", e);
         }
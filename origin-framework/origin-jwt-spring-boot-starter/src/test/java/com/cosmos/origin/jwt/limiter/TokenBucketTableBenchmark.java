@@ -0,0 +1,101 @@
+package com.cosmos.origin.jwt.limiter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 限流基准测试：高并发下对比令牌桶表与原全局固定窗口计数器的开销
+ * <p>
+ * - hotKey：所有线程争用同一个 key 的令牌桶（最坏情况）
+ * - spreadKeys：每次请求随机取 10 万个 key 之一（常见的按 IP 限流场景）
+ * - globalWindow：原 RateLimitFilter 的全局 AtomicInteger + synchronized 窗口重置
+ * <p>
+ * 运行方式：在 IDE 中直接运行 main 方法，或 mvn test-compile 后通过 exec 执行本类
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class TokenBucketTableBenchmark {
+
+    private static final int KEY_COUNT = 100_000;
+
+    private TokenBucketTable table;
+
+    private long[] fingerprints;
+
+    private String[] keys;
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    private volatile long windowStart = System.currentTimeMillis();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        table = new TokenBucketTable(1000, 2000, 1 << 18, 60_000);
+        keys = new String[KEY_COUNT];
+        fingerprints = new long[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = "ip:10." + (i >> 16) + "." + ((i >> 8) & 0xff) + "." + (i & 0xff);
+            fingerprints[i] = TokenBucketTable.fingerprint(keys[i]);
+        }
+    }
+
+    @Benchmark
+    public boolean hotKey() {
+        return table.tryAcquire(fingerprints[0], System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public boolean spreadKeys() {
+        return table.tryAcquire(fingerprints[ThreadLocalRandom.current().nextInt(KEY_COUNT)], System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public boolean spreadKeysWithHashing() {
+        return table.tryAcquire(keys[ThreadLocalRandom.current().nextInt(KEY_COUNT)]);
+    }
+
+    @Benchmark
+    public boolean globalWindow() {
+        long now = System.currentTimeMillis();
+        if (now - windowStart >= 1000) {
+            synchronized (this) {
+                if (now - windowStart >= 1000) {
+                    requestCount.set(0);
+                    windowStart = now;
+                }
+            }
+        }
+        return requestCount.incrementAndGet() <= 10;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenBucketTableBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,121 @@
+package com.cosmos.origin.jwt.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketTableTests {
+
+    /**
+     * 满桶允许 burst 次突发，之后按速率补充，补充不超过桶容量
+     */
+    @Test
+    void testBurstAndRefill() {
+        TokenBucketTable table = new TokenBucketTable(10, 5, 1024, 60_000);
+        long fingerprint = TokenBucketTable.fingerprint("ip:1.2.3.4");
+        long now = System.currentTimeMillis();
+
+        assertEquals(5, acquire(table, fingerprint, now, 10));
+        // 100 毫秒补充 1 个令牌
+        assertEquals(1, acquire(table, fingerprint, now + 100, 10));
+        // 长时间空闲后最多补满
+        assertEquals(5, acquire(table, fingerprint, now + 10_000, 10));
+    }
+
+    /**
+     * 令牌不足时拒绝，被拒绝的请求不消耗令牌，不同 key 互不影响
+     */
+    @Test
+    void testReject() {
+        TokenBucketTable table = new TokenBucketTable(1, 2, 1024, 60_000);
+        long a = TokenBucketTable.fingerprint("ip:10.0.0.1");
+        long b = TokenBucketTable.fingerprint("ip:10.0.0.2");
+        long now = System.currentTimeMillis();
+
+        assertEquals(2, acquire(table, a, now, 10));
+        assertFalse(table.tryAcquire(a, now + 500));
+        assertFalse(table.tryAcquire(a, now + 900));
+        // 被拒绝的请求不影响补充：1 秒后恰好补充 1 个令牌
+        assertTrue(table.tryAcquire(a, now + 1000));
+        assertEquals(2, acquire(table, b, now + 1000, 10));
+    }
+
+    /**
+     * 探测范围内没有可用槽时与起始槽位的 key 共用一个桶；槽位空闲超过 idleMillis 后可被新 key 占用，占用时为满桶
+     */
+    @Test
+    void testProbeOverflowAndIdleReuse() {
+        // 8 个槽位，指纹低位相同且高 32 位为 0 时起始槽位相同
+        TokenBucketTable table = new TokenBucketTable(1, 2, 8, 10_000);
+        long now = System.currentTimeMillis();
+        for (long k = 0; k < 8; k++) {
+            assertTrue(table.tryAcquire(1 + 8 * k, now));
+        }
+        assertEquals(8, table.occupied());
+
+        // 起始槽位的 key 已用完令牌，溢出的 key 与其共用桶，同样被拒绝
+        long overflow = 1 + 8 * 8;
+        assertTrue(table.tryAcquire(1, now));
+        assertFalse(table.tryAcquire(overflow, now));
+
+        // 空闲期内不能抢占
+        assertFalse(table.tryAcquire(overflow, now + 500));
+        // 空闲期后占用起始槽位，得到满桶
+        assertEquals(2, acquire(table, overflow, now + 10_001, 10));
+        assertEquals(8, table.occupied());
+    }
+
+    /**
+     * 多线程同时为同一个新 key 取令牌（包括并发占用空槽），成功次数恰好等于桶容量
+     */
+    @Test
+    void testConcurrentAcquire() throws Exception {
+        int burst = 1000;
+        int threads = 8;
+        int attemptsPerThread = 500;
+        TokenBucketTable table = new TokenBucketTable(0.001, burst, 1024, 60_000);
+        long fingerprint = TokenBucketTable.fingerprint("user:1");
+        long now = System.currentTimeMillis();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return acquire(table, fingerprint, now, attemptsPerThread);
+                }));
+            }
+            start.countDown();
+            int acquired = 0;
+            for (Future<Integer> future : futures) {
+                acquired += future.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(burst, acquired);
+            assertEquals(1, table.occupied());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int acquire(TokenBucketTable table, long fingerprint, long now, int attempts) {
+        int acquired = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (table.tryAcquire(fingerprint, now)) {
+                acquired++;
+            }
+        }
+        return acquired;
+    }
+}
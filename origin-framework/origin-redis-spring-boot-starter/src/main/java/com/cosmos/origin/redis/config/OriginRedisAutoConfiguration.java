@@ -10,6 +10,7 @@ import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -17,7 +18,7 @@ import java.time.Duration;
 
 /**
  * Redis 自动配置类
- * 提供 RedisConnectionFactory 和 RedisTemplate 配置
+ * 提供 RedisConnectionFactory、RedisTemplate 和 RedisMessageListenerContainer 配置
  *
  * @author cosmos
  */
@@ -69,4 +70,16 @@ public class OriginRedisAutoConfiguration {
         redisTemplate.afterPropertiesSet();
         return redisTemplate;
     }
+
+    /**
+     * 配置 Redis 消息监听容器
+     * 供各模块订阅 Pub/Sub 频道（如缓存失效广播），全局共用一个连接
+     */
+    @Bean
+    @ConditionalOnMissingBean(RedisMessageListenerContainer.class)
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
 }
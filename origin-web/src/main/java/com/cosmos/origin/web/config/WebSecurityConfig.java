@@ -8,18 +8,23 @@ import com.cosmos.origin.admin.model.vo.session.UserSessionVO;
 import com.cosmos.origin.admin.service.LoginAttemptService;
 import com.cosmos.origin.admin.service.LoginLogService;
 import com.cosmos.origin.admin.service.UserSessionService;
-import com.cosmos.origin.admin.utils.IpLocationUtil;
 import com.cosmos.origin.jwt.config.JwtAuthenticationSecurityConfig;
 import com.cosmos.origin.jwt.constant.JwtSecurityConstants;
+import com.cosmos.origin.jwt.exception.UnknownUsernameException;
+import com.cosmos.origin.jwt.filter.RefreshTokenFilter;
 import com.cosmos.origin.jwt.filter.TokenAuthenticationFilter;
 import com.cosmos.origin.jwt.handler.RestAccessDeniedHandler;
 import com.cosmos.origin.jwt.handler.RestAuthenticationEntryPoint;
 import com.cosmos.origin.jwt.handler.RestAuthenticationSuccessHandler;
+import com.cosmos.origin.jwt.model.LoginUser;
 import com.cosmos.origin.common.utils.RequestUtil;
+import com.cosmos.origin.web.filter.LoginAttemptCheckFilter;
+import com.cosmos.origin.web.filter.LoginThrottle;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -59,6 +64,8 @@ public class WebSecurityConfig {
     private final LoginAttemptService loginAttemptService;
     private final UserSessionService userSessionService;
     private final UserMapper userMapper;
+    private final LoginThrottle loginThrottle;
+    private final LoginAttemptCheckFilter loginAttemptCheckFilter;
 
     /**
      * 注入并配置登录成功处理器的会话保存回调
@@ -66,60 +73,79 @@ public class WebSecurityConfig {
     @Autowired
     public void configureSuccessHandler(RestAuthenticationSuccessHandler successHandler) {
         successHandler.setSessionSaveCallback((request, token) -> {
+            String username = (String) request.getAttribute(JwtSecurityConstants.LOGIN_USERNAME_ATTRIBUTE);
             try {
-                String username = (String) request.getAttribute(JwtSecurityConstants.LOGIN_USERNAME_ATTRIBUTE);
-                Long expireMinutes = (Long) request.getAttribute(JwtSecurityConstants.TOKEN_EXPIRE_MINUTES_ATTRIBUTE);
-                Boolean rememberMe = (Boolean) request.getAttribute(JwtSecurityConstants.REMEMBER_ME_ATTRIBUTE);
-                String rolesStr = (String) request.getAttribute(JwtSecurityConstants.USER_ROLES_ATTRIBUTE);
-
-                log.debug("准备保存会话 - 用户名: {}, 角色字符串: {}", username, rolesStr);
-
-                // 查询用户信息
-                UserDO userDO = userMapper.findByUsername(username);
-                if (userDO == null) {
-                    log.warn("用户 [{}] 不存在，无法保存会话", username);
-                    return;
-                }
-
-                // 解析角色列表
-                java.util.List<String> roles = rolesStr != null && !rolesStr.isEmpty()
-                        ? java.util.Arrays.asList(rolesStr.split(","))
-                        : java.util.Collections.emptyList();
-
-                log.debug("解析后的角色列表: {}", roles);
-
-                // 构建会话信息
-                String ip = RequestUtil.getClientIp(request);
-                UserSessionVO sessionVO = UserSessionVO.builder()
-                        .username(username)
-                        .userId(userDO.getId())
-                        .nickname(userDO.getNickname())
-                        .roles(roles)
-                        .token(token)
-                        .loginTime(LocalDateTime.now())
-                        .loginIp(ip)
-                        .loginLocation(IpLocationUtil.getLocation(ip))
-                        .browser(RequestUtil.getBrowser(request))
-                        .os(RequestUtil.getOperatingSystem(request))
-                        .rememberMe(Boolean.TRUE.equals(rememberMe))
-                        .expireTime(LocalDateTime.now().plusMinutes(expireMinutes))
-                        .build();
-
-                // 保存会话到 Redis
-                userSessionService.saveSession(sessionVO, expireMinutes);
-                log.debug("会话保存完成 - 用户: {}, 角色: {}", username, roles);
+                saveSession(request, token, username);
             } catch (Exception e) {
                 log.error("保存用户会话失败", e);
             }
+
+            // 登录日志、会话补全、清除失败次数交由登录事件管道异步处理，会话保存失败时同样需要记录
+            if (loginLogService != null) {
+                loginLogService.recordLoginLog(username, LoginStatusEnum.SUCCESS, "登录成功", token, request);
+            }
         });
     }
 
+    /**
+     * 保存登录会话到 Redis
+     */
+    private void saveSession(HttpServletRequest request, String token, String username) {
+        Long expireMinutes = (Long) request.getAttribute(JwtSecurityConstants.TOKEN_EXPIRE_MINUTES_ATTRIBUTE);
+        Boolean rememberMe = (Boolean) request.getAttribute(JwtSecurityConstants.REMEMBER_ME_ATTRIBUTE);
+        String rolesStr = (String) request.getAttribute(JwtSecurityConstants.USER_ROLES_ATTRIBUTE);
+
+        log.debug("准备保存会话 - 用户名: {}, 角色字符串: {}", username, rolesStr);
+
+        // 用户 ID、昵称直接从认证信息中获取，无需再次查询
+        Object principal = request.getAttribute(JwtSecurityConstants.LOGIN_USER_ATTRIBUTE);
+        Long userId;
+        String nickname;
+        if (principal instanceof LoginUser loginUser) {
+            userId = loginUser.getUserId();
+            nickname = loginUser.getNickname();
+        } else {
+            UserDO userDO = userMapper.findByUsername(username);
+            if (userDO == null) {
+                log.warn("用户 [{}] 不存在，无法保存会话", username);
+                return;
+            }
+            userId = userDO.getId();
+            nickname = userDO.getNickname();
+        }
+
+        // 解析角色列表
+        java.util.List<String> roles = rolesStr != null && !rolesStr.isEmpty()
+                ? java.util.Arrays.asList(rolesStr.split(","))
+                : java.util.Collections.emptyList();
+
+        log.debug("解析后的角色列表: {}", roles);
+
+        // 构建会话信息（归属地、浏览器、操作系统由登录事件管道异步补全）
+        UserSessionVO sessionVO = UserSessionVO.builder()
+                .username(username)
+                .userId(userId)
+                .nickname(nickname)
+                .roles(roles)
+                .token(token)
+                .loginTime(LocalDateTime.now())
+                .loginIp(RequestUtil.getClientIp(request))
+                .rememberMe(Boolean.TRUE.equals(rememberMe))
+                .expireTime(LocalDateTime.now().plusMinutes(expireMinutes))
+                .build();
+
+        // 保存会话到 Redis
+        userSessionService.saveSession(sessionVO, expireMinutes);
+        log.debug("会话保存完成 - 用户: {}, 角色: {}", username, roles);
+    }
+
     /**
      * 核心配置
      */
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http,
-                                           TokenAuthenticationFilter tokenAuthenticationFilter) throws Exception {
+                                           TokenAuthenticationFilter tokenAuthenticationFilter,
+                                           RefreshTokenFilter refreshTokenFilter) throws Exception {
         http.csrf(AbstractHttpConfigurer::disable)
                 .formLogin(AbstractHttpConfigurer::disable)
 
@@ -135,10 +161,14 @@ public class WebSecurityConfig {
                         return null;
                     });
 
-                    // 2. 设置登录成功回调（记录日志）
+                    // 2. 本地限流在登录过滤器之前执行（需在安全过滤器链内，登录过滤器处理完登录请求后不会继续执行后续过滤器）
+                    customizer.setLoginCheckFilter(loginAttemptCheckFilter);
+
+                    // 3. 设置登录成功回调（准备会话信息，登录日志在会话保存后异步记录）
                     customizer.setOnLoginSuccess((request, authentication) -> {
                         String username = authentication.getName();
                         log.debug("用户 [{}] 登录成功", username);
+                        loginThrottle.recordSuccess(username);
 
                         // 保存角色信息到请求属性，供会话保存使用
                         String roles = authentication.getAuthorities().stream()
@@ -146,39 +176,48 @@ public class WebSecurityConfig {
                                 .reduce((a, b) -> a + "," + b)
                                 .orElse("");
                         request.setAttribute(JwtSecurityConstants.USER_ROLES_ATTRIBUTE, roles);
-
-                        if (loginLogService != null) {
-                            loginLogService.recordLoginLog(username, LoginStatusEnum.SUCCESS, "登录成功", request);
-                        }
-                        if (loginAttemptService != null) {
-                            loginAttemptService.loginSuccess(username);
-                        }
+                        // 保存登录用户信息，供会话保存使用（避免再次查询用户）
+                        request.setAttribute(JwtSecurityConstants.LOGIN_USER_ATTRIBUTE, authentication.getPrincipal());
                     });
 
-                    // 3. 设置登录失败回调（记录日志和限流）
+                    // 4. 设置登录失败回调（记录日志和限流）
                     customizer.setOnLoginFailure((request, exception) -> {
                         String username = getUsernameFromRequest(request);
                         log.debug("用户 [{}] 登录失败: {}", username, exception.getMessage());
 
                         // 检查是否为锁定异常，如果是锁定异常则不增加失败次数
                         boolean isLockedExceptionType = exception instanceof org.springframework.security.authentication.LockedException;
+                        // 用户名一定不存在时只按 IP 计分，不为随机用户名创建本地计分和 Redis 尝试记录
+                        boolean isUnknownUsername = exception instanceof UnknownUsernameException;
+
+                        // 本地限流计分（锁定状态下的失败同样计入 IP，持续撞库的 IP 会被本地拒绝）
+                        loginThrottle.recordFailure(RequestUtil.getClientIp(request),
+                                isLockedExceptionType || isUnknownUsername ? null : username);
 
-                        // 如果登录次数限制功能开启，记录失败次数和尝试信息
+                        // 如果登录次数限制功能开启，记录失败次数和尝试信息（一次往返得到计数和锁定状态，后续直接复用）
+                        LoginAttemptService.AttemptState attemptState = null;
                         if (loginAttemptService != null && loginAttemptService.isEnabled()) {
                             // 记录失败次数（只有非锁定状态下的失败才增加计数）
-                            if (!isLockedExceptionType) {
-                                loginAttemptService.loginFailed(username);
+                            if (isUnknownUsername) {
+                                attemptState = loginAttemptService.unknownUsernameRejected();
+                            } else if (isLockedExceptionType) {
+                                attemptState = loginAttemptService.getAttemptState(username);
+                            } else {
+                                attemptState = loginAttemptService.loginFailed(username);
+                            }
+                            if (attemptState.locked()) {
+                                loginThrottle.markLocked(username, attemptState.lockRemainingSeconds());
                             }
 
-                            // 获取尝试信息并保存到 request，供失败处理器使用
-                            Map<String, Object> attemptInfoMap = loginAttemptService.getAttemptInfoAfterFailure(username);
+                            // 保存尝试信息到 request，供失败处理器使用
+                            Map<String, Object> attemptInfoMap = loginAttemptService.toAttemptInfo(attemptState);
                             request.setAttribute(JwtSecurityConstants.LOGIN_ATTEMPT_INFO_MAP_ATTRIBUTE, attemptInfoMap);
                         }
 
                         // 记录失败日志
                         if (loginLogService != null) {
-                            // 判断账号是否已被锁定（只有功能开启时才检查）
-                            boolean isLocked = loginAttemptService != null && loginAttemptService.isEnabled() && loginAttemptService.isLocked(username);
+                            // 判断账号是否已被锁定（只有功能开启时才有尝试状态）
+                            boolean isLocked = attemptState != null && attemptState.locked();
 
                             LoginStatusEnum status;
                             String message;
@@ -186,7 +225,7 @@ public class WebSecurityConfig {
                             if (isLocked) {
                                 // 账号已被锁定
                                 status = LoginStatusEnum.LOCKED;
-                                long lockRemainingMinutes = loginAttemptService.getLockRemainingMinutes(username);
+                                long lockRemainingMinutes = attemptState.lockRemainingMinutes();
                                 message = String.format("登录失败次数过多，账号已被锁定，请 %d 分钟后重试", lockRemainingMinutes);
                             } else {
                                 // 登录失败但未锁定
@@ -201,7 +240,7 @@ public class WebSecurityConfig {
 
                 .authorizeHttpRequests(authorize -> {
                     // 放开登录相关接口
-                    authorize.requestMatchers(JwtSecurityConstants.DEFAULT_LOGIN_URL, "/logout", "/test").permitAll();
+                    authorize.requestMatchers(JwtSecurityConstants.DEFAULT_LOGIN_URL, JwtSecurityConstants.REFRESH_TOKEN_URL, "/logout", "/test").permitAll();
                     // Knife4j 接口文档
                     authorize.requestMatchers("/doc.html", "/v3/api-docs/**", "/favicon.ico", "/webjars/**", "/.well-known/**").permitAll();
                     // websocket 接口
@@ -215,6 +254,8 @@ public class WebSecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(org.springframework.security.config.http.SessionCreationPolicy.STATELESS))
                 // 添加 Token 校验过滤器
                 .addFilterBefore(tokenAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                // 添加刷新 Token 过滤器（只处理 POST /token/refresh）
+                .addFilterBefore(refreshTokenFilter, TokenAuthenticationFilter.class)
                 // 配置异常处理
                 .exceptionHandling(m -> {
                     m.authenticationEntryPoint(authEntryPoint);
@@ -263,6 +304,16 @@ public class WebSecurityConfig {
         return exception.getMessage();
     }
 
+    /**
+     * 登录尝试检查过滤器只在安全过滤器链中执行，禁止 Spring Boot 再将其注册为 Servlet 过滤器
+     */
+    @Bean
+    public FilterRegistrationBean<LoginAttemptCheckFilter> loginAttemptCheckFilterRegistration() {
+        FilterRegistrationBean<LoginAttemptCheckFilter> registration = new FilterRegistrationBean<>(loginAttemptCheckFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     /**
      * Token 校验过滤器
      */
@@ -271,4 +322,12 @@ public class WebSecurityConfig {
         return new TokenAuthenticationFilter();
     }
 
+    /**
+     * 刷新 Token 过滤器
+     */
+    @Bean
+    public RefreshTokenFilter refreshTokenFilter() {
+        return new RefreshTokenFilter();
+    }
+
 }
@@ -2,18 +2,22 @@ package com.cosmos.origin.web.filter;
 
 import com.cosmos.origin.admin.enums.LoginStatusEnum;
 import com.cosmos.origin.jwt.constant.JwtSecurityConstants;
-import com.cosmos.origin.admin.service.LoginAttemptService;
 import com.cosmos.origin.admin.service.LoginLogService;
 import com.cosmos.origin.common.enums.ResponseCodeEnum;
+import com.cosmos.origin.common.utils.RequestUtil;
 import com.cosmos.origin.common.utils.Response;
 import com.cosmos.origin.jwt.utils.LoginResponseUtil;
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
@@ -26,8 +30,12 @@ import java.util.Map;
 /**
  * 登录尝试检查过滤器
  * <p>
- * 在登录请求到达认证过滤器之前，检查账号是否被锁定，
- * 如果被锁定则直接返回错误信息，避免进行密码验证
+ * 由 {@link com.cosmos.origin.jwt.config.JwtAuthenticationSecurityConfig} 注册在安全过滤器链中登录过滤器之前
+ * （不作为 Servlet 过滤器注册，见 WebSecurityConfig），由 {@link LoginThrottle} 在本地拦截已知被锁定的用户名、
+ * 退避期内的重试和滥用 IP，不访问 Redis，也不进行密码验证
+ * <p>
+ * 用户名从 JSON 请求体中解析，解析结果存入请求属性供登录过滤器复用，请求体只读取一次；
+ * 本地放行的请求由登录过滤器的锁定检查函数查询 Redis 中的登录尝试状态
  *
  * @author 一陌千尘
  * @date 2025/02/06
@@ -37,38 +45,39 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class LoginAttemptCheckFilter extends OncePerRequestFilter {
 
-    private final LoginAttemptService loginAttemptService;
     private final LoginLogService loginLogService;
     private final ObjectMapper objectMapper;
+    private final LoginThrottle loginThrottle;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
-        // 如果功能未开启，直接放行
-        if (!loginAttemptService.isEnabled()) {
+        // 只处理登录请求
+        if (!isLoginRequest(request)) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        // 只处理登录请求
-        if (isLoginRequest(request)) {
-            String username = extractUsername(request);
-
-            if (username != null && !username.isEmpty()) {
-                // 检查账号是否被锁定
-                if (loginAttemptService.isLocked(username)) {
-                    long lockRemainingMinutes = loginAttemptService.getLockRemainingMinutes(username);
-
-                    log.warn("用户 [{}] 尝试登录，但账号已被锁定，剩余锁定时间: {} 分钟", username, lockRemainingMinutes);
+        String username = extractUsername(request);
+        if (username != null && username.isEmpty()) {
+            username = null;
+        }
 
-                    // 记录锁定状态的登录日志
-                    String message = String.format("登录失败次数过多，账号已被锁定，请 %d 分钟后重试", lockRemainingMinutes);
-                    loginLogService.recordLoginLog(username, LoginStatusEnum.LOCKED, message, request);
+        // 本地限流：命中时不访问 Redis
+        LoginThrottle.Decision decision = loginThrottle.check(RequestUtil.getClientIp(request), username);
+        if (decision.type() == LoginThrottle.Decision.Type.LOCKED) {
+            long lockRemainingMinutes = (decision.retryAfterSeconds() + 59) / 60;
+            log.debug("用户 [{}] 尝试登录，本地记录显示账号已被锁定，剩余锁定时间: {} 分钟", username, lockRemainingMinutes);
 
-                    // 直接返回锁定响应
-                    writeLockedResponse(response, lockRemainingMinutes);
-                    return;
-                }
-            }
+            // 本地拦截同样记录锁定状态的登录日志（异步写入，不访问 Redis）
+            String message = String.format("登录失败次数过多，账号已被锁定，请 %d 分钟后重试", lockRemainingMinutes);
+            loginLogService.recordLoginLog(username, LoginStatusEnum.LOCKED, message, request);
+            writeLockedResponse(response, lockRemainingMinutes);
+            return;
+        }
+        if (decision.type() == LoginThrottle.Decision.Type.THROTTLED) {
+            log.debug("登录请求被本地限流，用户: {}，需等待 {} 秒", username, decision.retryAfterSeconds());
+            writeThrottledResponse(response, decision.retryAfterSeconds());
+            return;
         }
 
         filterChain.doFilter(request, response);
@@ -96,6 +105,17 @@ public class LoginAttemptCheckFilter extends OncePerRequestFilter {
         response.getWriter().write(objectMapper.writeValueAsString(resp));
     }
 
+    /**
+     * 写入本地限流响应
+     */
+    private void writeThrottledResponse(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(objectMapper.writeValueAsString(Response.fail(ResponseCodeEnum.LOGIN_TOO_FREQUENT)));
+    }
+
     /**
      * 判断是否为登录请求
      */
@@ -105,16 +125,22 @@ public class LoginAttemptCheckFilter extends OncePerRequestFilter {
     }
 
     /**
-     * 从请求中提取用户名
+     * 从 JSON 请求体中提取用户名，解析结果存入请求属性供登录过滤器复用
      */
-    private String extractUsername(HttpServletRequest request) {
-        // 优先从请求属性中获取（如果前面的过滤器已经设置）
-        String username = (String) request.getAttribute(JwtSecurityConstants.LOGIN_USERNAME_ATTRIBUTE);
-        if (username != null) {
-            return username;
+    private String extractUsername(HttpServletRequest request) throws IOException {
+        JsonNode body;
+        try {
+            body = objectMapper.readTree(request.getInputStream());
+        } catch (JacksonException e) {
+            // 请求体不是合法 JSON 时交由登录过滤器按用户名为空处理
+            body = null;
+        }
+        if (body == null) {
+            body = MissingNode.getInstance();
         }
+        request.setAttribute(JwtSecurityConstants.LOGIN_REQUEST_BODY_ATTRIBUTE, body);
 
-        // 否则从请求参数中获取
-        return request.getParameter(JwtSecurityConstants.USERNAME_PARAMETER);
+        JsonNode usernameNode = body.get(JwtSecurityConstants.USERNAME_PARAMETER);
+        return usernameNode != null && usernameNode.isTextual() ? usernameNode.textValue() : null;
     }
 }
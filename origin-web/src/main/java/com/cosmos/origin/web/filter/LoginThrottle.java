@@ -0,0 +1,285 @@
+package com.cosmos.origin.web.filter;
+
+import com.cosmos.origin.admin.service.LoginAttemptService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 登录本地限流（进程内第一道防线）
+ * <p>
+ * 按 IP 和用户名分别维护衰减的失败计分，在访问 Redis 之前拦截明显的撞库流量：
+ * - 已知被锁定的用户名：Redis 返回过锁定状态后在本地记住解锁时间，锁定期间的请求直接拒绝
+ * - 渐进退避：失败计分超过 freeAttempts 后，下一次允许尝试的时间按 2 的幂次递增（上限 maxBackoffSeconds），
+ * 退避期内的请求直接拒绝
+ * - 滥用 IP：IP 的失败计分达到 ipBlockScore 时拒绝该 IP 的所有登录请求，直到计分衰减到阈值以下
+ * <p>
+ * 计分每 halfLifeSeconds 秒衰减一半，更新通过 CAS 完成，无锁。
+ * 本地判断只会多拒绝、不会多放行，放行的请求仍由 Redis 中的登录尝试状态兜底；
+ * 计分只保存在本节点，多节点部署时每个节点各自独立计数。
+ * 管理员手动解锁时 {@link LoginAttemptService} 通过 Redis 频道广播，各节点同步清除该用户名的锁定记录和失败计分。
+ *
+ * @author 一陌千尘
+ * @date 2026/10/18
+ */
+@Component
+@RequiredArgsConstructor
+public class LoginThrottle implements MessageListener, InitializingBean {
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    /**
+     * 是否启用本地限流
+     */
+    @Value("${login.throttle.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 不触发退避的失败计分
+     */
+    @Value("${login.throttle.free-attempts:3}")
+    private int freeAttempts;
+
+    /**
+     * 退避基础时长（秒）
+     */
+    @Value("${login.throttle.base-backoff-seconds:1}")
+    private long baseBackoffSeconds;
+
+    /**
+     * 退避时长上限（秒）
+     */
+    @Value("${login.throttle.max-backoff-seconds:60}")
+    private long maxBackoffSeconds;
+
+    /**
+     * IP 的失败计分达到该值时拒绝该 IP 的所有登录请求
+     */
+    @Value("${login.throttle.ip-block-score:50}")
+    private double ipBlockScore;
+
+    /**
+     * 计分半衰期（秒）
+     */
+    @Value("${login.throttle.half-life-seconds:300}")
+    private long halfLifeSeconds;
+
+    /**
+     * 最多跟踪的 IP、用户名数
+     */
+    @Value("${login.throttle.maximum-size:100000}")
+    private long maximumSize;
+
+    private Cache<String, FailureCounter> counters;
+
+    /**
+     * 已知被锁定的用户名 -> 解锁时间戳（毫秒）
+     */
+    private Cache<String, Long> lockedUsernames;
+
+    @Override
+    public void afterPropertiesSet() {
+        counters = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(halfLifeSeconds * 4, TimeUnit.SECONDS)
+                .build();
+        lockedUsernames = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+        listenerContainer.addMessageListener(this, new ChannelTopic(LoginAttemptService.UNLOCK_CHANNEL));
+    }
+
+    /**
+     * 检查登录请求是否可以放行到 Redis 校验
+     *
+     * @param ip       客户端 IP
+     * @param username 用户名，可为 null
+     * @return 检查结果
+     */
+    public Decision check(String ip, String username) {
+        if (!enabled) {
+            return Decision.ALLOW;
+        }
+        long now = System.currentTimeMillis();
+        if (username != null) {
+            Long lockedUntil = lockedUsernames.getIfPresent(username);
+            if (lockedUntil != null) {
+                if (lockedUntil > now) {
+                    return Decision.locked(lockedUntil - now);
+                }
+                lockedUsernames.invalidate(username);
+            }
+        }
+        FailureCounter ipCounter = ip != null ? counters.getIfPresent(ipKey(ip)) : null;
+        if (ipCounter != null && ipCounter.score(now) >= ipBlockScore) {
+            return Decision.throttled(TimeUnit.SECONDS.toMillis(maxBackoffSeconds));
+        }
+        long retryAfter = Math.max(retryAfterMillis(ipCounter, now),
+                retryAfterMillis(username != null ? counters.getIfPresent(userKey(username)) : null, now));
+        return retryAfter > 0 ? Decision.throttled(retryAfter) : Decision.ALLOW;
+    }
+
+    /**
+     * 记录登录失败
+     *
+     * @param ip       客户端 IP
+     * @param username 用户名，可为 null
+     */
+    public void recordFailure(String ip, String username) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (ip != null) {
+            counters.asMap().computeIfAbsent(ipKey(ip), key -> new FailureCounter()).recordFailure(now);
+        }
+        if (username != null) {
+            counters.asMap().computeIfAbsent(userKey(username), key -> new FailureCounter()).recordFailure(now);
+        }
+    }
+
+    /**
+     * 记录登录成功，清除用户名的失败计分（IP 计分继续衰减，避免攻击者用自己的账号洗白 IP）
+     *
+     * @param username 用户名
+     */
+    public void recordSuccess(String username) {
+        if (enabled && username != null) {
+            counters.invalidate(userKey(username));
+            lockedUsernames.invalidate(username);
+        }
+    }
+
+    /**
+     * 清除用户名的锁定记录和失败计分（管理员手动解锁）
+     *
+     * @param username 用户名
+     */
+    public void unlock(String username) {
+        if (username != null) {
+            counters.invalidate(userKey(username));
+            lockedUsernames.invalidate(username);
+        }
+    }
+
+    /**
+     * 接收解锁广播（本节点发出的消息也会收到）
+     */
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        unlock(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 记住用户名的锁定状态
+     *
+     * @param username             用户名
+     * @param lockRemainingSeconds 锁定剩余时间（秒）
+     */
+    public void markLocked(String username, long lockRemainingSeconds) {
+        if (enabled && username != null && lockRemainingSeconds > 0) {
+            lockedUsernames.put(username, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(lockRemainingSeconds));
+        }
+    }
+
+    private long retryAfterMillis(FailureCounter counter, long now) {
+        if (counter == null) {
+            return 0;
+        }
+        FailureCounter.State state = counter.state.get();
+        double excess = counter.score(now) - freeAttempts;
+        if (excess < 0) {
+            return 0;
+        }
+        long backoffSeconds = Math.min(maxBackoffSeconds, baseBackoffSeconds << Math.min((int) excess, 30));
+        return Math.max(0, state.lastFailureMillis() + TimeUnit.SECONDS.toMillis(backoffSeconds) - now);
+    }
+
+    private static String ipKey(String ip) {
+        return "ip:" + ip;
+    }
+
+    private static String userKey(String username) {
+        return "user:" + username;
+    }
+
+    /**
+     * 衰减的失败计分
+     */
+    private final class FailureCounter {
+
+        private final AtomicReference<State> state = new AtomicReference<>(new State(0, 0));
+
+        private record State(double score, long lastFailureMillis) {
+        }
+
+        void recordFailure(long now) {
+            state.updateAndGet(current -> new State(decay(current, now) + 1, now));
+        }
+
+        double score(long now) {
+            return decay(state.get(), now);
+        }
+
+        private double decay(State current, long now) {
+            if (current.score() == 0) {
+                return 0;
+            }
+            double halfLives = (double) (now - current.lastFailureMillis()) / TimeUnit.SECONDS.toMillis(halfLifeSeconds);
+            return halfLives <= 0 ? current.score() : current.score() * Math.pow(0.5, halfLives);
+        }
+    }
+
+    /**
+     * 检查结果
+     *
+     * @param type             结果类型
+     * @param retryAfterMillis 需等待的时间（毫秒）
+     */
+    public record Decision(Type type, long retryAfterMillis) {
+
+        public static final Decision ALLOW = new Decision(Type.ALLOW, 0);
+
+        static Decision locked(long retryAfterMillis) {
+            return new Decision(Type.LOCKED, retryAfterMillis);
+        }
+
+        static Decision throttled(long retryAfterMillis) {
+            return new Decision(Type.THROTTLED, retryAfterMillis);
+        }
+
+        /**
+         * 需等待的时间（秒，不足一秒按一秒计）
+         */
+        public long retryAfterSeconds() {
+            return (retryAfterMillis + 999) / 1000;
+        }
+
+        public enum Type {
+            /**
+             * 放行，交由 Redis 校验
+             */
+            ALLOW,
+            /**
+             * 用户名已知被锁定
+             */
+            LOCKED,
+            /**
+             * 退避期内或 IP 被拒绝
+             */
+            THROTTLED
+        }
+    }
+}